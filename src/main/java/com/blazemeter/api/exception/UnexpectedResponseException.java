@@ -16,6 +16,10 @@ package com.blazemeter.api.exception;
 
 public class UnexpectedResponseException extends RuntimeException {
 
+    public static final int NOT_FOUND = 404;
+
+    private int code;
+
     public UnexpectedResponseException() {
     }
 
@@ -26,4 +30,39 @@ public class UnexpectedResponseException extends RuntimeException {
     public UnexpectedResponseException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    public UnexpectedResponseException(String message, int code) {
+        super(message);
+        this.code = code;
+    }
+
+    public UnexpectedResponseException(String message, int code, Throwable cause) {
+        super(message, cause);
+        this.code = code;
+    }
+
+    /**
+     * @return HTTP status of error response, 0 - if it is unknown
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * @return true - if response status is 5xx
+     */
+    public boolean isServerError() {
+        return code >= 500;
+    }
+
+    /**
+     * @return true - if response status is 404. If status is unknown, error message is checked
+     */
+    public boolean isNotFound() {
+        if (code != 0) {
+            return code == NOT_FOUND;
+        }
+        String message = getMessage();
+        return message != null && message.toLowerCase().contains("not found");
+    }
 }
@@ -15,12 +15,14 @@
 package com.blazemeter.api.explorer;
 
 import com.blazemeter.api.explorer.base.BZAObject;
+import com.blazemeter.api.explorer.base.PagedIterator;
+import com.blazemeter.api.json.JsonCodecs;
+import com.blazemeter.api.json.JsonReader;
 import com.blazemeter.api.utils.BlazeMeterUtils;
-import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
+import okhttp3.Request;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -45,13 +47,13 @@ public class Account extends BZAObject {
         JSONObject data = new JSONObject();
         data.put("name", name);
         data.put("accountId", Long.parseLong(getId()));
-        JSONObject response = utils.execute(utils.createPost(uri, data.toString()));
-        return Workspace.fromJSON(utils, response.getJSONObject("result"));
+        return utils.executeResult(utils.createPost(uri, data.toString()), reader -> Workspace.fromJSON(utils, reader));
     }
 
     /**
      * Get enabled Workspaces for current Account
      * limit = 1000
+     * For longer lists use @link com.blazemeter.api.explorer.Account#iterateWorkspaces
      */
     public List<Workspace> getWorkspaces() throws IOException {
         return getWorkspaces(true, "1000");
@@ -69,24 +71,42 @@ public class Account extends BZAObject {
      */
     public List<Workspace> getWorkspaces(Boolean enabled, String limit) throws IOException {
         logger.info("Get list of workspaces for account id=" + getId());
-        String uri = utils.getAddress() + String.format("/api/v4/workspaces?accountId=%s", encode(getId()));
-        uri = addParamToUrl(uri, "enabled", enabled);
-        uri = addParamToUrl(uri, "limit", limit);
-        JSONObject response = utils.execute(utils.createGet(uri));
-        return extractWorkspaces(response.getJSONArray("result"));
+        return utils.executeResult(createWorkspacesRequest(enabled, limit, null), JsonCodecs.listOf(reader -> Workspace.fromJSON(utils, reader)));
     }
 
-    private List<Workspace> extractWorkspaces(JSONArray result) {
-        List<Workspace> workspaces = new ArrayList<>();
-
-        for (Object obj : result) {
-            workspaces.add(Workspace.fromJSON(utils, (JSONObject) obj));
-        }
+    /**
+     * Lazy version of @link com.blazemeter.api.explorer.Account#getWorkspaces(java.lang.Boolean, java.lang.String),
+     * that requests workspaces page by page, while they are consumed
+     * @param enabled - the same as in getWorkspaces
+     * @param pageSize count of workspaces in one request
+     * @return iterator over all Workspaces in current Account
+     */
+    public PagedIterator<Workspace> iterateWorkspaces(final Boolean enabled, int pageSize) {
+        return iterate(pageSize, (skip, limit) -> {
+            logger.info("Get page of workspaces for account id=" + getId() + " skip=" + skip);
+            return utils.executeResult(createWorkspacesRequest(enabled, String.valueOf(limit), skip),
+                    JsonCodecs.listOf(reader -> Workspace.fromJSON(utils, reader)));
+        });
+    }
 
-        return workspaces;
+    private Request createWorkspacesRequest(Boolean enabled, String limit, Integer skip) {
+        String uri = utils.getAddress() + String.format("/api/v4/workspaces?accountId=%s", encode(getId()));
+        uri = addParamToUrl(uri, "enabled", enabled);
+        uri = addParamToUrl(uri, "limit", limit);
+        uri = addParamToUrl(uri, "skip", skip);
+        return utils.createGet(uri);
     }
 
     public static Account fromJSON(BlazeMeterUtils utils, JSONObject obj) {
         return new Account(utils, obj.getString("id"), obj.getString("name"));
     }
+
+    /**
+     * Typed version of @link com.blazemeter.api.explorer.Account#fromJSON(com.blazemeter.api.utils.BlazeMeterUtils, net.sf.json.JSONObject),
+     * that reads only used fields
+     */
+    public static Account fromJSON(BlazeMeterUtils utils, JsonReader reader) throws IOException {
+        String[] fields = JsonCodecs.readFields(reader, "id", "name");
+        return new Account(utils, fields[0], fields[1]);
+    }
 }
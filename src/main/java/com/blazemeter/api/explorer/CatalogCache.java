@@ -0,0 +1,348 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.api.explorer;
+
+import com.blazemeter.api.explorer.base.PagedIterator;
+import com.blazemeter.api.explorer.test.AbstractTest;
+import com.blazemeter.api.explorer.test.MultiTest;
+import com.blazemeter.api.explorer.test.SingleTest;
+import com.blazemeter.api.logging.Logger;
+import com.blazemeter.api.utils.BlazeMeterUtils;
+import com.blazemeter.api.utils.VirtualThreads;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of accounts, workspaces, projects and tests lists, that are available for credentials.
+ * Each level has own TTL. Expired list is returned as is and refreshed in background:
+ * tests lists request only tests sorted by '-updated' until the last synced test,
+ * other lists are requested fully. Count of cached lists is limited, least recently used are evicted.
+ * Use create* methods of cache (or invalidate) to see created objects before TTL expiration.
+ * Note: incremental refresh does not detect deleted tests, they disappear after invalidate or eviction.
+ */
+public class CatalogCache {
+
+    public enum Level {
+        ACCOUNTS, WORKSPACES, PROJECTS, SINGLE_TESTS, MULTI_TESTS
+    }
+
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+    public static final int REFRESH_PAGE_SIZE = 100;
+
+    private final BlazeMeterUtils utils;
+    private final Logger logger;
+    private final Map<Level, Long> ttl = new EnumMap<>(Level.class);
+    private final LinkedHashMap<String, Entry<?>> entries;
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+    private volatile Executor refreshExecutor;
+
+    private static ExecutorService defaultRefreshExecutor;
+
+    public CatalogCache(BlazeMeterUtils utils) {
+        this.utils = utils;
+        this.logger = utils.getLogger();
+        this.refreshExecutor = getDefaultRefreshExecutor();
+        this.entries = new LinkedHashMap<String, Entry<?>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<?>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        ttl.put(Level.ACCOUNTS, TimeUnit.MINUTES.toMillis(30));
+        ttl.put(Level.WORKSPACES, TimeUnit.MINUTES.toMillis(10));
+        ttl.put(Level.PROJECTS, TimeUnit.MINUTES.toMillis(5));
+        ttl.put(Level.SINGLE_TESTS, TimeUnit.MINUTES.toMillis(1));
+        ttl.put(Level.MULTI_TESTS, TimeUnit.MINUTES.toMillis(1));
+    }
+
+    /**
+     * Get Accounts of user
+     * @see com.blazemeter.api.explorer.User#getAccounts()
+     */
+    public List<Account> getAccounts(final User user) throws IOException {
+        return get(Level.ACCOUNTS, "", user::getAccounts);
+    }
+
+    /**
+     * Get enabled Workspaces of Account
+     * @see com.blazemeter.api.explorer.Account#getWorkspaces()
+     */
+    public List<Workspace> getWorkspaces(Account account) throws IOException {
+        return get(Level.WORKSPACES, account.getId(), account::getWorkspaces);
+    }
+
+    /**
+     * Get Projects of Workspace
+     * @see com.blazemeter.api.explorer.Workspace#getProjects()
+     */
+    public List<Project> getProjects(Workspace workspace) throws IOException {
+        return get(Level.PROJECTS, workspace.getId(), workspace::getProjects);
+    }
+
+    /**
+     * Get Single tests of Workspace
+     * @see com.blazemeter.api.explorer.Workspace#getSingleTests()
+     */
+    public List<SingleTest> getSingleTests(final Workspace workspace) throws IOException {
+        return get(Level.SINGLE_TESTS, workspace.getId(), workspace::getSingleTests,
+                () -> workspace.iterateSingleTests(REFRESH_PAGE_SIZE, "-updated"));
+    }
+
+    /**
+     * Get Multi tests of Workspace
+     * @see com.blazemeter.api.explorer.Workspace#getMultiTests()
+     */
+    public List<MultiTest> getMultiTests(final Workspace workspace) throws IOException {
+        return get(Level.MULTI_TESTS, workspace.getId(), workspace::getMultiTests,
+                () -> workspace.iterateMultiTests(REFRESH_PAGE_SIZE, "-updated"));
+    }
+
+    /**
+     * Creates Workspace and invalidates cached workspaces of Account
+     */
+    public Workspace createWorkspace(Account account, String name) throws IOException {
+        Workspace workspace = account.createWorkspace(name);
+        invalidate(Level.WORKSPACES, account.getId());
+        return workspace;
+    }
+
+    /**
+     * Creates Project and invalidates cached projects of Workspace
+     */
+    public Project createProject(Workspace workspace, String name) throws IOException {
+        Project project = workspace.createProject(name);
+        invalidate(Level.PROJECTS, workspace.getId());
+        return project;
+    }
+
+    /**
+     * Creates Single test and invalidates all cached single tests lists,
+     * because Project does not know its Workspace
+     */
+    public SingleTest createSingleTest(Project project, String name) throws IOException {
+        SingleTest test = project.createSingleTest(name);
+        invalidate(Level.SINGLE_TESTS);
+        return test;
+    }
+
+    /**
+     * Removes cached list of level for parent object (account, workspace)
+     */
+    public synchronized void invalidate(Level level, String parentId) {
+        entries.remove(key(level, parentId));
+    }
+
+    /**
+     * Removes all cached lists of level
+     */
+    public synchronized void invalidate(Level level) {
+        Iterator<Entry<?>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().level == level) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getTtl(Level level) {
+        return ttl.get(level);
+    }
+
+    public synchronized void setTtl(Level level, long duration, TimeUnit unit) {
+        ttl.put(level, unit.toMillis(duration));
+    }
+
+    public synchronized int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public synchronized void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @param refreshExecutor - executor for background refresh, by default shared executor of daemon (or virtual) threads.
+     *                        Refresh blocks on requests, so it must not be executor of utils client pool
+     */
+    public void setRefreshExecutor(Executor refreshExecutor) {
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    private static synchronized ExecutorService getDefaultRefreshExecutor() {
+        if (defaultRefreshExecutor == null) {
+            defaultRefreshExecutor = VirtualThreads.newThreadPerTaskExecutor("bzm-catalog-refresh-");
+        }
+        return defaultRefreshExecutor;
+    }
+
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private <T> List<T> get(Level level, String parentId, Loader<T> loader) throws IOException {
+        return get(level, parentId, loader, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> get(Level level, String parentId, Loader<T> loader, Updates<T> updates) throws IOException {
+        String key = key(level, parentId);
+        Entry<T> entry;
+        synchronized (this) {
+            entry = (Entry<T>) entries.get(key);
+            if (entry != null && (entry.refreshing || currentTimeMillis() - entry.loaded < ttl.get(level))) {
+                return entry.items;
+            }
+            if (entry != null) {
+                entry.refreshing = true;
+            }
+        }
+        if (entry == null) {
+            return put(key, new Entry<>(level, parentId, loader.load(), currentTimeMillis())).items;
+        }
+        refresh(key, entry, loader, updates);
+        return entry.items;
+    }
+
+    private <T> void refresh(final String key, final Entry<T> entry, final Loader<T> loader, final Updates<T> updates) {
+        refreshExecutor.execute(() -> {
+            try {
+                long now = currentTimeMillis();
+                long since = updatedSince(entry.items);
+                List<T> items = (updates != null && since > 0) ? merge(entry.items, updates, since) : loader.load();
+                synchronized (CatalogCache.this) {
+                    if (entries.get(key) == entry) {
+                        entries.put(key, new Entry<>(entry.level, entry.parentId, items, now));
+                    }
+                }
+            } catch (IOException | RuntimeException ex) {
+                logger.warn("Failed to refresh cached " + key + ". Reason is: " + ex.getMessage(), ex);
+                synchronized (CatalogCache.this) {
+                    entry.refreshing = false;
+                }
+            }
+        });
+    }
+
+    /**
+     * Replaces cached tests with updated ones and adds new tests to the end of list
+     */
+    private <T> List<T> merge(List<T> cached, Updates<T> updates, long since) throws IOException {
+        Map<String, T> changed = new LinkedHashMap<>();
+        try (PagedIterator<T> iterator = updates.iterate()) {
+            while (iterator.hasNext()) {
+                T item = iterator.next();
+                if (((AbstractTest) item).getUpdated() < since) {
+                    break;
+                }
+                changed.put(((AbstractTest) item).getId(), item);
+            }
+        }
+        logger.info("Refreshed " + changed.size() + " updated tests");
+        List<T> result = new ArrayList<>(cached.size() + changed.size());
+        for (T item : cached) {
+            T update = changed.remove(((AbstractTest) item).getId());
+            result.add(update != null ? update : item);
+        }
+        result.addAll(changed.values());
+        return result;
+    }
+
+    /**
+     * @return the latest update time of tests, tests updated in the same second are requested again
+     */
+    private static long updatedSince(List<?> items) {
+        long since = 0;
+        for (Object item : items) {
+            if (item instanceof AbstractTest) {
+                since = Math.max(since, ((AbstractTest) item).getUpdated());
+            }
+        }
+        return since;
+    }
+
+    /**
+     * @return cached lists, that are saved to snapshot
+     */
+    synchronized List<Entry<?>> getEntries() {
+        return new ArrayList<>(entries.values());
+    }
+
+    /**
+     * Puts list from snapshot, if cache has no newer list for the same level and parent
+     */
+    synchronized <T> boolean restore(Level level, String parentId, List<T> items, long loaded) {
+        String key = key(level, parentId);
+        Entry<?> current = entries.get(key);
+        if (current != null && current.loaded >= loaded) {
+            return false;
+        }
+        entries.put(key, new Entry<>(level, parentId, items, loaded));
+        return true;
+    }
+
+    BlazeMeterUtils getUtils() {
+        return utils;
+    }
+
+    private synchronized <T> Entry<T> put(String key, Entry<T> entry) {
+        entries.put(key, entry);
+        return entry;
+    }
+
+    private static String key(Level level, String parentId) {
+        return level + ":" + parentId;
+    }
+
+    private interface Loader<T> {
+        List<T> load() throws IOException;
+    }
+
+    private interface Updates<T> {
+        PagedIterator<T> iterate();
+    }
+
+    static class Entry<T> {
+        final Level level;
+        final String parentId;
+        final List<T> items;
+        final long loaded;
+        private boolean refreshing;
+
+        Entry(Level level, String parentId, List<T> items, long loaded) {
+            this.level = level;
+            this.parentId = parentId;
+            this.items = Collections.unmodifiableList(items);
+            this.loaded = loaded;
+        }
+    }
+}
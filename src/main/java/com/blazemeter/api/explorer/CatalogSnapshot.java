@@ -0,0 +1,285 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.api.explorer;
+
+import com.blazemeter.api.explorer.base.BZAObject;
+import com.blazemeter.api.explorer.test.AbstractTest;
+import com.blazemeter.api.explorer.test.MultiTest;
+import com.blazemeter.api.explorer.test.SingleTest;
+import com.blazemeter.api.logging.Logger;
+import com.blazemeter.api.utils.BlazeMeterUtils;
+import okhttp3.Request;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binary snapshot of CatalogCache on disk, that lets to show cached tests right after restart.
+ * Snapshot is written to temp file and atomically moved over the old one,
+ * it is read at once into heap buffer (not mapped, because mapped file cannot be replaced on Windows
+ * while mapping is alive). Processes on the same host share it under lock of '{file}.lock':
+ * exclusive for save and shared for load.
+ * Lists are restored with their original load time, so CatalogCache TTLs decide, what is refreshed in background.
+ * Snapshot keeps API address and hash of credentials, it is restored only for the same address and credentials.
+ */
+public class CatalogSnapshot {
+
+    private static final int MAGIC = 0x425A4D43; // 'BZMC'
+    private static final int VERSION = 2;
+
+    private final File file;
+    private final File lockFile;
+    private final Logger logger;
+    private long maxAge = TimeUnit.DAYS.toMillis(7);
+
+    public CatalogSnapshot(File file, Logger logger) {
+        this.file = file;
+        this.lockFile = new File(file.getPath() + ".lock");
+        this.logger = logger;
+    }
+
+    /**
+     * Writes all cached lists to snapshot file
+     */
+    public void save(CatalogCache cache) throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Cannot create directory " + dir);
+        }
+        List<CatalogCache.Entry<?>> entries = cache.getEntries();
+        synchronized (CatalogSnapshot.class) {
+            try (FileChannel lockChannel = openLock()) {
+                FileLock lock = lockChannel.lock();
+                try {
+                    File temp = File.createTempFile(file.getName(), ".tmp", dir);
+                    try {
+                        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                            write(out, owner(cache.getUtils()), entries);
+                        }
+                        move(temp);
+                    } finally {
+                        Files.deleteIfExists(temp.toPath());
+                    }
+                } finally {
+                    lock.release();
+                }
+            }
+        }
+        logger.info("Saved catalog snapshot with " + entries.size() + " lists to " + file);
+    }
+
+    /**
+     * Reads snapshot file into cache, lists, that are older than in cache, are skipped.
+     *
+     * @return count of restored lists, 0 if snapshot is absent, outdated or broken
+     */
+    public int load(CatalogCache cache) throws IOException {
+        if (!file.exists()) {
+            return 0;
+        }
+        List<CatalogCache.Entry<?>> entries;
+        synchronized (CatalogSnapshot.class) {
+            try (FileChannel lockChannel = openLock()) {
+                FileLock lock = lockChannel.lock(0, Long.MAX_VALUE, true);
+                try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                    entries = read(readFully(channel), cache.getUtils());
+                } finally {
+                    lock.release();
+                }
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | BufferUnderflowException ex) {
+                logger.warn("Cannot read catalog snapshot " + file + ". Reason is: " + ex.getMessage(), ex);
+                return 0;
+            }
+        }
+        if (entries == null) {
+            return 0;
+        }
+
+        int count = 0;
+        for (CatalogCache.Entry<?> entry : entries) {
+            if (cache.restore(entry.level, entry.parentId, entry.items, entry.loaded)) {
+                count++;
+            }
+        }
+        logger.info("Loaded " + count + " lists from catalog snapshot " + file);
+        return count;
+    }
+
+    public long getMaxAge() {
+        return maxAge;
+    }
+
+    /**
+     * @param maxAge - snapshot, that was saved earlier, is ignored
+     */
+    public void setMaxAge(long maxAge, TimeUnit unit) {
+        this.maxAge = unit.toMillis(maxAge);
+    }
+
+    private FileChannel openLock() throws IOException {
+        return FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private void move(File temp) throws IOException {
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void write(DataOutputStream out, String owner, List<CatalogCache.Entry<?>> entries) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(System.currentTimeMillis());
+        writeString(out, owner);
+        out.writeInt(entries.size());
+        for (CatalogCache.Entry<?> entry : entries) {
+            out.writeByte(entry.level.ordinal());
+            writeString(out, entry.parentId);
+            out.writeLong(entry.loaded);
+            out.writeInt(entry.items.size());
+            for (Object item : entry.items) {
+                BZAObject obj = (BZAObject) item;
+                writeString(out, obj.getId());
+                writeString(out, obj.getName());
+                if (obj instanceof AbstractTest) {
+                    writeString(out, ((AbstractTest) obj).getTestType());
+                    out.writeLong(((AbstractTest) obj).getUpdated());
+                }
+            }
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Snapshot is too large: " + size + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // read until end of file
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private List<CatalogCache.Entry<?>> read(ByteBuffer buffer, BlazeMeterUtils utils) {
+        if (buffer.remaining() < 20 || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            logger.warn("Skip catalog snapshot " + file + " with unknown format");
+            return null;
+        }
+        long saved = buffer.getLong();
+        if (System.currentTimeMillis() - saved > maxAge) {
+            logger.info("Skip outdated catalog snapshot " + file);
+            return null;
+        }
+        if (!owner(utils).equals(readString(buffer))) {
+            logger.info("Skip catalog snapshot " + file + " of other address or credentials");
+            return null;
+        }
+
+        int count = buffer.getInt();
+        List<CatalogCache.Entry<?>> entries = new ArrayList<>(Math.min(count, buffer.remaining()));
+        for (int i = 0; i < count; i++) {
+            CatalogCache.Level level = CatalogCache.Level.values()[buffer.get()];
+            String parentId = readString(buffer);
+            long loaded = buffer.getLong();
+            int size = buffer.getInt();
+            List<BZAObject> items = new ArrayList<>(Math.min(size, buffer.remaining()));
+            for (int j = 0; j < size; j++) {
+                items.add(readItem(buffer, level, utils));
+            }
+            entries.add(new CatalogCache.Entry<>(level, parentId, items, loaded));
+        }
+        return entries;
+    }
+
+    private BZAObject readItem(ByteBuffer buffer, CatalogCache.Level level, BlazeMeterUtils utils) {
+        String id = readString(buffer);
+        String name = readString(buffer);
+        switch (level) {
+            case ACCOUNTS:
+                return new Account(utils, id, name);
+            case WORKSPACES:
+                return new Workspace(utils, id, name);
+            case PROJECTS:
+                return new Project(utils, id, name);
+            default:
+                String testType = readString(buffer);
+                AbstractTest test = (level == CatalogCache.Level.SINGLE_TESTS) ?
+                        new SingleTest(utils, id, name, testType) :
+                        new MultiTest(utils, id, name, testType);
+                test.setUpdated(buffer.getLong());
+                return test;
+        }
+    }
+
+    /**
+     * @return API address and SHA-256 of URL and headers of API request, that contain credentials,
+     * so snapshot of one user or key is not restored for other
+     */
+    protected static String owner(BlazeMeterUtils utils) {
+        Request request = utils.createGet(utils.getAddress() + "/api/v4/user");
+        String credentials = request.url() + "\n" + request.headers();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(credentials.getBytes(StandardCharsets.UTF_8));
+            return utils.getAddress() + " " + Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not supported", ex);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        } else if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -15,11 +15,16 @@
 package com.blazemeter.api.explorer;
 
 import com.blazemeter.api.exception.InterruptRuntimeException;
+import com.blazemeter.api.exception.UnexpectedResponseException;
 import com.blazemeter.api.explorer.base.BZAObject;
+import com.blazemeter.api.json.JsonCodecs;
+import com.blazemeter.api.json.JsonReader;
 import com.blazemeter.api.utils.BlazeMeterUtils;
+import com.blazemeter.api.utils.VirtualThreads;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
 import okhttp3.MediaType;
+import okhttp3.Request;
 import okhttp3.RequestBody;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang3.StringEscapeUtils;
@@ -28,18 +33,38 @@ import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 
 /**
  * Master is returned as a result of starting any test.
  * It has at least(or more) @link com.blazemeter.api.explorer.Session
+ * GET responses of '/api/v4/masters/{masterId}', '/api/v4/user' and test are kept in snapshot,
+ * so post-process reads them once. Use @link com.blazemeter.api.explorer.Master#refresh() to request them again.
  */
 public class Master extends BZAObject {
 
+    private static final int PROPERTIES_ATTEMPTS = 3;
+
+    private final Map<String, JSONObject> snapshot = new ConcurrentHashMap<>();
+
     public Master(BlazeMeterUtils utils, String id, String name) {
         super(utils, id, name);
     }
 
+    /**
+     * Drops snapshot of GET responses, next calls request server again
+     */
+    public void refresh() {
+        snapshot.clear();
+    }
+
     public void setTestType(String testType) {
         this.testType = testType;
     }
@@ -51,11 +76,25 @@ public class Master extends BZAObject {
      */
     public String getPublicReport() throws IOException, InterruptedException {
         logger.info("Get link to public report for master id=" + getId());
+        return extractPublicReport(utils.execute(createPublicReportRequest()));
+    }
+
+    /**
+     * Async version of @link com.blazemeter.api.explorer.Master#getPublicReport()
+     */
+    public CompletableFuture<String> getPublicReportAsync() {
+        logger.info("Get link to public report for master id=" + getId());
+        return utils.executeAsync(createPublicReportRequest()).thenApply(this::extractPublicReport);
+    }
+
+    private Request createPublicReportRequest() {
         String uri = utils.getAddress() + String.format("/api/v4/masters/%s/public-token", encode(getId()));
         JSONObject request = new JSONObject();
         request.put("publicToken", "None");
-        JSONObject response = utils.execute(utils.createPost(uri, request.toString()));
+        return utils.createPost(uri, request.toString());
+    }
 
+    private String extractPublicReport(JSONObject response) {
         // generated public url for functionalGui test
         if (testType != null && testType.equals(FUNCTIONAL_GUI_TEST)) {
             return String.format("%s/app/?public-token=%s#/accounts/-1/workspaces/-1/projects/-1/masters/%s/cross-browser-summary",
@@ -72,11 +111,11 @@ public class Master extends BZAObject {
 
     public String getServerReport(String workspaceId, String testId) throws IOException {
         String uri = utils.getAddress() + "/api/v4/user";
-        JSONObject response = utils.execute(utils.createGet(uri));
+        JSONObject response = getSnapshot(utils.createGet(uri));
         String accountId = response.getJSONObject("result").getJSONObject("defaultProject").getString("accountId");
 
         uri = utils.getAddress() + String.format("/api/v4/tests/%s", testId);
-        response = utils.execute(utils.createGet(uri));
+        response = getSnapshot(utils.createGet(uri));
         String projectsId = response.getJSONObject("result").getString("projectId");
 
         String reportUrl = String.format("/app/#/accounts/%s/workspaces/%s/projects/%s/masters/%s/cross-browser-summary", accountId, workspaceId, projectsId, getId());
@@ -86,11 +125,11 @@ public class Master extends BZAObject {
     public String getServerReportForTestSuite(String workspaceId, String testId) throws IOException
     {
         String uri = utils.getAddress() + "/api/v4/user";
-        JSONObject response = utils.execute(utils.createGet(uri));
+        JSONObject response = getSnapshot(utils.createGet(uri));
         String accountId = response.getJSONObject("result").getJSONObject("defaultProject").getString("accountId");
 
         uri = utils.getAddress() + String.format("/api/v4/multi-tests/%s", testId);
-        response = utils.execute(utils.createGet(uri));
+        response = getSnapshot(utils.createGet(uri));
         String projectsId = response.getJSONObject("result").getString("projectId");
 
         String reportUrl = String.format("/app/#/accounts/%s/workspaces/%s/projects/%s/masters/%s/suite-report", accountId, workspaceId, projectsId, getId());
@@ -104,8 +143,20 @@ public class Master extends BZAObject {
      */
     public String getJUnitReport() throws IOException {
         logger.info("Get JUnit report for master id=" + getId());
+        return utils.executeRequest(createJUnitReportRequest());
+    }
+
+    /**
+     * Async version of @link com.blazemeter.api.explorer.Master#getJUnitReport()
+     */
+    public CompletableFuture<String> getJUnitReportAsync() {
+        logger.info("Get JUnit report for master id=" + getId());
+        return utils.executeRequestAsync(createJUnitReportRequest());
+    }
+
+    private Request createJUnitReportRequest() {
         String uri = utils.getAddress() + String.format("/api/v4/masters/%s/reports/thresholds?format=junit", encode(getId()));
-        return utils.executeRequest(utils.createGet(uri));
+        return utils.createGet(uri);
     }
 
     /**
@@ -115,9 +166,24 @@ public class Master extends BZAObject {
      */
     public List<Session> getSessions() throws IOException {
         logger.info("Get list of sessions for master id=" + getId());
+        return utils.executeResult(createSessionsRequest(), JsonCodecs.listOf(reader -> Session.fromJSON(utils, reader)));
+    }
+
+    /**
+     * Async version of @link com.blazemeter.api.explorer.Master#getSessions()
+     */
+    public CompletableFuture<List<Session>> getSessionsAsync() {
+        logger.info("Get list of sessions for master id=" + getId());
+        return utils.executeAsync(createSessionsRequest()).thenApply(this::extractSessions);
+    }
+
+    private Request createSessionsRequest() {
         String uri = utils.getAddress() + String.format("/api/v4/sessions?masterId=%s", encode(getId()));
+        return utils.createGet(uri);
+    }
+
+    private List<Session> extractSessions(JSONObject response) {
         List<Session> sessions = new ArrayList<>();
-        JSONObject response = utils.execute(utils.createGet(uri));
         JSONArray result = response.getJSONArray("result");
         for (int i = 0; i < result.size(); i++) {
             JSONObject so = result.getJSONObject(i);
@@ -150,28 +216,145 @@ public class Master extends BZAObject {
     }
 
     protected void postProperties(String properties, List<Session> sessions) throws IOException, InterruptedException {
-        JSONArray propertiesArray = Session.convertProperties(properties);
+        sendProperties(properties, sessions);
+    }
+
+    /**
+     * Post properties to all sessions of master.
+     * Properties of several sessions are posted concurrently, no more than 'bzm.properties.concurrency' (8 by default)
+     * requests at the same time, and each post is retried on network and server errors.
+     *
+     * @return sessions, that got properties, and failed sessions
+     */
+    public PropertiesResult sendProperties(String properties) throws IOException, InterruptedException {
+        if (StringUtils.isBlank(properties)) {
+            logger.warn("Properties are empty, won't be sent to master = " + getId());
+            return new PropertiesResult();
+        }
+        logger.info("Post properties to master id=" + getId());
+        try {
+            List<Session> sessions = getSessions();
+            return sendProperties(properties, sessions);
+        } catch (InterruptedException | InterruptRuntimeException | InterruptedIOException ex) {
+            logger.warn("Interrupt while post properties", ex);
+            throw new InterruptedException("Interrupt while post properties");
+        } catch (Exception ioe) {
+            logger.error("Failed to get sessions for master id=" + getId(), ioe);
+            return new PropertiesResult();
+        }
+    }
+
+    protected PropertiesResult sendProperties(String properties, List<Session> sessions) throws IOException, InterruptedException {
+        // properties are serialized once for all sessions
+        byte[] body = Session.toBody(Session.convertProperties(properties));
+        PropertiesResult result = new PropertiesResult();
+        int concurrency = getPropertiesConcurrency();
+        if (sessions.size() > 1 && concurrency > 1) {
+            postPropertiesConcurrently(body, sessions, concurrency, result);
+            if (!result.isSuccessful()) {
+                logger.warn("Properties were not sent to sessions: " + result.getFailed().keySet());
+            }
+            return result;
+        }
         for (Session session : sessions) {
             try {
-                session.postProperties(propertiesArray);
+                session.postProperties(body);
+                result.addPosted(session.getId());
             } catch (InterruptedException | InterruptRuntimeException | InterruptedIOException ex) {
                 logger.warn("Interrupt while post properties to session", ex);
                 throw new InterruptedException("Interrupt while post properties to session");
             } catch (Exception e) {
                 logger.error("Failed to send properties for session id=" + session.getId(), e);
+                result.addFailed(session.getId(), e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    private void postPropertiesConcurrently(final byte[] body, List<Session> sessions, int concurrency, final PropertiesResult result)
+            throws IOException, InterruptedException {
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("bzm-properties-");
+        final Semaphore permits = new Semaphore(concurrency);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (final Session session : sessions) {
+                permits.acquire();
+                futures.add(executor.submit(() -> {
+                    try {
+                        postPropertiesWithRetry(session, body, result);
+                        return null;
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            logger.warn("Interrupt while post properties to session", ex);
+            throw new InterruptedException("Interrupt while post properties to session");
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof InterruptedException) {
+                logger.warn("Interrupt while post properties to session", cause);
+                throw new InterruptedException("Interrupt while post properties to session");
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void postPropertiesWithRetry(Session session, byte[] body, PropertiesResult result) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                session.postProperties(body);
+                result.addPosted(session.getId());
+                return;
+            } catch (InterruptedException | InterruptRuntimeException | InterruptedIOException ex) {
+                throw new InterruptedException("Interrupt while post properties to session");
+            } catch (Exception e) {
+                boolean retryable = !(e instanceof UnexpectedResponseException) || ((UnexpectedResponseException) e).isServerError();
+                if (!retryable || attempt >= PROPERTIES_ATTEMPTS) {
+                    logger.error("Failed to send properties for session id=" + session.getId(), e);
+                    result.addFailed(session.getId(), e.getMessage());
+                    return;
+                }
+                logger.warn(String.format("Failed to send properties for session id=%s, attempt %d. Reason is: %s", session.getId(), attempt, e.getMessage()));
+                Thread.sleep(500L * attempt);
             }
         }
     }
 
+    /**
+     * @return max count of concurrent posts of properties, 'bzm.properties.concurrency' (8 by default)
+     */
+    protected int getPropertiesConcurrency() {
+        return Integer.getInteger("bzm.properties.concurrency", 8);
+    }
+
     /**
      * Stop Master
      * POST request to 'https://a.blazemeter.com/api/v4/masters/{masterId}/stop'
      */
     public JSONArray stop() throws IOException {
         logger.info("Stop master id=" + getId());
-        String uri = utils.getAddress() + String.format("/api/v4/masters/%s/stop", encode(getId()));
-        RequestBody emptyBody = RequestBody.create(null, new byte[0]);
-        return utils.execute(utils.createPost(uri, emptyBody)).getJSONArray("result");
+        return utils.execute(createEmptyPost("/api/v4/masters/%s/stop")).getJSONArray("result");
+    }
+
+    /**
+     * Async version of @link com.blazemeter.api.explorer.Master#stop()
+     */
+    public CompletableFuture<JSONArray> stopAsync() {
+        logger.info("Stop master id=" + getId());
+        return utils.executeAsync(createEmptyPost("/api/v4/masters/%s/stop")).thenApply(this::extractResultArray);
     }
 
     /**
@@ -180,9 +363,21 @@ public class Master extends BZAObject {
      */
     public JSONArray terminate() throws IOException {
         logger.info("Terminate master id=" + getId());
-        String uri = utils.getAddress() + String.format("/api/v4/masters/%s/terminate", encode(getId()));
+        return utils.execute(createEmptyPost("/api/v4/masters/%s/terminate")).getJSONArray("result");
+    }
+
+    /**
+     * Async version of @link com.blazemeter.api.explorer.Master#terminate()
+     */
+    public CompletableFuture<JSONArray> terminateAsync() {
+        logger.info("Terminate master id=" + getId());
+        return utils.executeAsync(createEmptyPost("/api/v4/masters/%s/terminate")).thenApply(this::extractResultArray);
+    }
+
+    private Request createEmptyPost(String path) {
+        String uri = utils.getAddress() + String.format(path, encode(getId()));
         RequestBody emptyBody = RequestBody.create(null, new byte[0]);
-        return utils.execute(utils.createPost(uri, emptyBody)).getJSONArray("result");
+        return utils.createPost(uri, emptyBody);
     }
 
     /**
@@ -192,9 +387,24 @@ public class Master extends BZAObject {
      */
     public int getStatus() throws IOException {
         logger.info("Get master status id=" + getId());
+        return extractStatus(utils.execute(createStatusRequest()));
+    }
+
+    /**
+     * Async version of @link com.blazemeter.api.explorer.Master#getStatus()
+     */
+    public CompletableFuture<Integer> getStatusAsync() {
+        logger.info("Get master status id=" + getId());
+        return utils.executeAsync(createStatusRequest()).thenApply(this::extractStatus);
+    }
+
+    private Request createStatusRequest() {
         String uri = utils.getAddress() + String.format("/api/v4/masters/%s/status?events=false", encode(getId()));
-        JSONObject result = utils.execute(utils.createGet(uri)).getJSONObject("result");
-        return result.getInt("progress");
+        return utils.createGet(uri);
+    }
+
+    private int extractStatus(JSONObject response) {
+        return response.getJSONObject("result").getInt("progress");
     }
 
     /**
@@ -204,8 +414,19 @@ public class Master extends BZAObject {
      */
     public JSONObject getSummary() throws IOException {
         logger.info("Get summary for master id=" + getId());
-        String uri = utils.getAddress() + String.format("/api/v4/masters/%s/reports/main/summary", encode(getId()));
-        JSONObject result = utils.execute(utils.createGet(uri)).getJSONObject("result");
+        return extractSummaryResult(utils.execute(createMasterGet("/api/v4/masters/%s/reports/main/summary")));
+    }
+
+    /**
+     * Async version of @link com.blazemeter.api.explorer.Master#getSummary()
+     */
+    public CompletableFuture<JSONObject> getSummaryAsync() {
+        logger.info("Get summary for master id=" + getId());
+        return utils.executeAsync(createMasterGet("/api/v4/masters/%s/reports/main/summary")).thenApply(this::extractSummaryResult);
+    }
+
+    private JSONObject extractSummaryResult(JSONObject response) {
+        JSONObject result = response.getJSONObject("result");
         JSONArray summary = result.getJSONArray("summary");
         if (!summary.isEmpty()) {
             return extractSummary(summary.getJSONObject(0));
@@ -220,8 +441,19 @@ public class Master extends BZAObject {
      */
     public JSONObject getFunctionalReport() throws IOException {
         logger.info("Get functional report for master id=" + getId());
-        String uri = utils.getAddress() + String.format("/api/v4/masters/%s", encode(getId()));
-        JSONObject result = utils.execute(utils.createGet(uri)).getJSONObject("result");
+        return extractFunctionalReport(getSnapshot(createMasterGet("/api/v4/masters/%s")));
+    }
+
+    /**
+     * Async version of @link com.blazemeter.api.explorer.Master#getFunctionalReport()
+     */
+    public CompletableFuture<JSONObject> getFunctionalReportAsync() {
+        logger.info("Get functional report for master id=" + getId());
+        return getSnapshotAsync(createMasterGet("/api/v4/masters/%s")).thenApply(this::extractFunctionalReport);
+    }
+
+    private JSONObject extractFunctionalReport(JSONObject response) {
+        JSONObject result = response.getJSONObject("result");
         return result.has("functionalSummary") ? result.getJSONObject("functionalSummary") : new JSONObject();
     }
 
@@ -236,12 +468,28 @@ public class Master extends BZAObject {
             return StringUtils.EMPTY;
         }
         logger.info("Post notes to master id=" + getId());
+        JSONObject result = utils.execute(createPostNotesRequest(note)).getJSONObject("result");
+        return result.getString("note");
+    }
+
+    /**
+     * Async version of @link com.blazemeter.api.explorer.Master#postNotes(java.lang.String)
+     */
+    public CompletableFuture<String> postNotesAsync(String note) {
+        if (StringUtils.isBlank(note)) {
+            logger.warn("Cannot send null or empty notes");
+            return CompletableFuture.completedFuture(StringUtils.EMPTY);
+        }
+        logger.info("Post notes to master id=" + getId());
+        return utils.executeAsync(createPostNotesRequest(note)).thenApply(response -> response.getJSONObject("result").getString("note"));
+    }
+
+    private Request createPostNotesRequest(String note) {
         String uri = utils.getAddress() + String.format("/api/v4/masters/%s", encode(getId()));
         // Hack to escape '\r\n' chars..
         JSONObject noteEscape = JSONObject.fromObject(StringEscapeUtils.escapeJson("{'note':'" + note + "'}"));
         RequestBody body = RequestBody.create(MediaType.parse("text/plain; charset=ISO-8859-1"), noteEscape.toString());
-        JSONObject result = utils.execute(utils.createPatch(uri, body)).getJSONObject("result");
-        return result.getString("note");
+        return utils.createPatch(uri, body);
     }
 
     /**
@@ -255,11 +503,27 @@ public class Master extends BZAObject {
             return StringUtils.EMPTY;
         }
         logger.info("Setting Report Name for master id=" + getId());
+        JSONObject result = utils.execute(createReportNameRequest(reportName)).getJSONObject("result");
+        return result.getString("name");
+    }
+
+    /**
+     * Async version of @link com.blazemeter.api.explorer.Master#setReportName(java.lang.String)
+     */
+    public CompletableFuture<String> setReportNameAsync(String reportName) {
+        if (StringUtils.isBlank(reportName)) {
+            logger.warn("Report name is null or empty");
+            return CompletableFuture.completedFuture(StringUtils.EMPTY);
+        }
+        logger.info("Setting Report Name for master id=" + getId());
+        return utils.executeAsync(createReportNameRequest(reportName)).thenApply(response -> response.getJSONObject("result").getString("name"));
+    }
+
+    private Request createReportNameRequest(String reportName) {
         String uri = utils.getAddress() + String.format("/api/v4/masters/%s", encode(getId()));
         JSONObject request = new JSONObject();
         request.put("name", reportName);
-        JSONObject result = utils.execute(utils.createPatch(uri, request.toString())).getJSONObject("result");
-        return result.getString("name");
+        return utils.createPatch(uri, request.toString());
     }
 
     /**
@@ -269,8 +533,28 @@ public class Master extends BZAObject {
      */
     public JSONObject getCIStatus() throws IOException {
         logger.info("Get CI status for master id=" + getId());
-        String uri = utils.getAddress() + String.format("/api/v4/masters/%s/ci-status", encode(getId()));
-        return utils.execute(utils.createGet(uri)).getJSONObject("result");
+        return utils.execute(createMasterGet("/api/v4/masters/%s/ci-status")).getJSONObject("result");
+    }
+
+    /**
+     * Async version of @link com.blazemeter.api.explorer.Master#getCIStatus()
+     */
+    public CompletableFuture<JSONObject> getCIStatusAsync() {
+        logger.info("Get CI status for master id=" + getId());
+        return utils.executeAsync(createMasterGet("/api/v4/masters/%s/ci-status")).thenApply(this::extractResult);
+    }
+
+    private Request createMasterGet(String path) {
+        String uri = utils.getAddress() + String.format(path, encode(getId()));
+        return utils.createGet(uri);
+    }
+
+    private JSONObject extractResult(JSONObject response) {
+        return response.getJSONObject("result");
+    }
+
+    private JSONArray extractResultArray(JSONObject response) {
+        return response.getJSONArray("result");
     }
 
     private String extractPublicToken(JSONObject result) {
@@ -297,23 +581,68 @@ public class Master extends BZAObject {
         return new Master(utils, obj.getString("id"), obj.getString("name"));
     }
 
+    /**
+     * Typed version of @link com.blazemeter.api.explorer.Master#fromJSON(com.blazemeter.api.utils.BlazeMeterUtils, net.sf.json.JSONObject),
+     * that reads only used fields
+     */
+    public static Master fromJSON(BlazeMeterUtils utils, JsonReader reader) throws IOException {
+        String[] fields = JsonCodecs.readFields(reader, "id", "name");
+        return new Master(utils, fields[0], fields[1]);
+    }
+
+    /**
+     * Always requests server, because status is polled until result appears. Response replaces snapshot.
+     */
     public JSONObject getFunctionalCIStatus() throws IOException {
         logger.info("Get CI status for master id=" + getId());
-        String uri = utils.getAddress() + String.format("/api/v4/masters/%s", encode(getId()));
-        return utils.execute(utils.createGet(uri)).getJSONObject("result");
+        Request request = createMasterGet("/api/v4/masters/%s");
+        return putSnapshot(request, utils.execute(request)).getJSONObject("result");
+    }
+
+    public CompletableFuture<JSONObject> getFunctionalCIStatusAsync() {
+        logger.info("Get CI status for master id=" + getId());
+        final Request request = createMasterGet("/api/v4/masters/%s");
+        return utils.executeAsync(request).thenApply(response -> putSnapshot(request, response)).thenApply(this::extractResult);
     }
 
     public JSONObject getPerformanceCIStatus() throws IOException {
         logger.info("Get CI status for master id=" + getId());
-        String uri = utils.getAddress() + String.format("/api/v4/masters/%s/ci-status", encode(getId()));
-        return utils.execute(utils.createGet(uri)).getJSONObject("result");
+        return utils.execute(createMasterGet("/api/v4/masters/%s/ci-status")).getJSONObject("result");
     }
+
+    public CompletableFuture<JSONObject> getPerformanceCIStatusAsync() {
+        logger.info("Get CI status for master id=" + getId());
+        return utils.executeAsync(createMasterGet("/api/v4/masters/%s/ci-status")).thenApply(this::extractResult);
+    }
+
     //  Calling API to get the No Data/Not Set result in hasData variable
     // hasData=true summary data is present, hasData=false summary data is NA
     public JSONObject getHasDataStatus() throws IOException
     {
         logger.info("Get CI status for master id=" + getId());
-        String uri = utils.getAddress() + String.format("/api/v4/masters/%s", encode(getId()));
-        return utils.execute(utils.createGet(uri)).getJSONObject("result");
+        return getSnapshot(createMasterGet("/api/v4/masters/%s")).getJSONObject("result");
+    }
+
+    public CompletableFuture<JSONObject> getHasDataStatusAsync() {
+        logger.info("Get CI status for master id=" + getId());
+        return getSnapshotAsync(createMasterGet("/api/v4/masters/%s")).thenApply(this::extractResult);
+    }
+
+    private JSONObject getSnapshot(Request request) throws IOException {
+        JSONObject response = snapshot.get(request.url().toString());
+        return (response != null) ? response : putSnapshot(request, utils.execute(request));
+    }
+
+    private CompletableFuture<JSONObject> getSnapshotAsync(final Request request) {
+        JSONObject response = snapshot.get(request.url().toString());
+        if (response != null) {
+            return CompletableFuture.completedFuture(response);
+        }
+        return utils.executeAsync(request).thenApply(result -> putSnapshot(request, result));
+    }
+
+    private JSONObject putSnapshot(Request request, JSONObject response) {
+        snapshot.put(request.url().toString(), response);
+        return response;
     }
 }
\ No newline at end of file
@@ -15,15 +15,20 @@
 package com.blazemeter.api.explorer;
 
 import com.blazemeter.api.explorer.base.BZAObject;
+import com.blazemeter.api.explorer.base.PagedIterator;
 import com.blazemeter.api.explorer.test.MultiTest;
 import com.blazemeter.api.explorer.test.SingleTest;
+import com.blazemeter.api.json.JsonCodecs;
+import com.blazemeter.api.json.JsonReader;
 import com.blazemeter.api.utils.BlazeMeterUtils;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
+import okhttp3.Request;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Project is set of tests.
@@ -44,9 +49,21 @@ public class Project extends BZAObject {
      */
     public SingleTest createSingleTest(String name) throws IOException {
         logger.info("Create single test with name=" + name);
+        return utils.executeResult(createSingleTestRequest(name), reader -> SingleTest.fromJSON(utils, reader));
+    }
+
+    /**
+     * Async version of @link com.blazemeter.api.explorer.Project#createSingleTest(java.lang.String)
+     */
+    public CompletableFuture<SingleTest> createSingleTestAsync(String name) {
+        logger.info("Create single test with name=" + name);
+        return utils.executeAsync(createSingleTestRequest(name))
+                .thenApply(response -> SingleTest.fromJSON(utils, response.getJSONObject("result")));
+    }
+
+    private Request createSingleTestRequest(String name) {
         String uri = utils.getAddress() + "/api/v4/tests";
-        JSONObject response = utils.execute(utils.createPost(uri, generateRequestBody(name).toString()));
-        return SingleTest.fromJSON(utils, response.getJSONObject("result"));
+        return utils.createPost(uri, generateRequestBody(name).toString());
     }
 
     private JSONObject generateRequestBody(String name) {
@@ -62,6 +79,7 @@ public class Project extends BZAObject {
     /**
      * Get Single tests for Project
      * limit = 10000, sorted by name
+     * For longer lists use @link com.blazemeter.api.explorer.Project#iterateSingleTests
      */
     public List<SingleTest> getSingleTests() throws IOException {
         return getSingleTests("10000", "name");
@@ -77,11 +95,39 @@ public class Project extends BZAObject {
      */
     public List<SingleTest> getSingleTests(String limit, String sort) throws IOException {
         logger.info("Get list of single tests for project id=" + getId());
+        return utils.executeResult(createSingleTestsRequest(limit, sort, null), JsonCodecs.listOf(reader -> SingleTest.fromJSON(utils, reader)));
+    }
+
+    /**
+     * Async version of @link com.blazemeter.api.explorer.Project#getSingleTests(java.lang.String, java.lang.String)
+     */
+    public CompletableFuture<List<SingleTest>> getSingleTestsAsync(String limit, String sort) {
+        logger.info("Get list of single tests for project id=" + getId());
+        return utils.executeAsync(createSingleTestsRequest(limit, sort, null))
+                .thenApply(response -> extractSingleTests(response.getJSONArray("result")));
+    }
+
+    /**
+     * Lazy version of @link com.blazemeter.api.explorer.Project#getSingleTests(java.lang.String, java.lang.String),
+     * that requests tests page by page, while they are consumed
+     * @param pageSize count of tests in one request
+     * @param sort sort type: 'name', 'updated' or other
+     * @return iterator over all Tests in current Project
+     */
+    public PagedIterator<SingleTest> iterateSingleTests(int pageSize, final String sort) {
+        return iterate(pageSize, (skip, limit) -> {
+            logger.info("Get page of single tests for project id=" + getId() + " skip=" + skip);
+            return utils.executeResult(createSingleTestsRequest(String.valueOf(limit), sort, skip),
+                    JsonCodecs.listOf(reader -> SingleTest.fromJSON(utils, reader)));
+        });
+    }
+
+    private Request createSingleTestsRequest(String limit, String sort, Integer skip) {
         String uri = utils.getAddress() + "/api/v4/tests?projectId=" + encode(getId());
         uri = addParamToUrl(uri, "sort%5B%5D", sort); // 'sort%5B%5D' == 'sort[]'
         uri = addParamToUrl(uri, "limit", limit);
-        JSONObject response = utils.execute(utils.createGet(uri));
-        return extractSingleTests(response.getJSONArray("result"));
+        uri = addParamToUrl(uri, "skip", skip);
+        return utils.createGet(uri);
     }
 
 
@@ -102,11 +148,23 @@ public class Project extends BZAObject {
      */
     public List<MultiTest> getMultiTests(String limit, String sort) throws IOException {
         logger.info("Get list of multi tests for project id=" + getId());
+        return utils.executeResult(createMultiTestsRequest(limit, sort), JsonCodecs.listOf(reader -> MultiTest.fromJSON(utils, reader)));
+    }
+
+    /**
+     * Async version of @link com.blazemeter.api.explorer.Project#getMultiTests(java.lang.String, java.lang.String)
+     */
+    public CompletableFuture<List<MultiTest>> getMultiTestsAsync(String limit, String sort) {
+        logger.info("Get list of multi tests for project id=" + getId());
+        return utils.executeAsync(createMultiTestsRequest(limit, sort))
+                .thenApply(response -> extractMultiTests(response.getJSONArray("result")));
+    }
+
+    private Request createMultiTestsRequest(String limit, String sort) {
         String uri = utils.getAddress() + "/api/v4/multi-tests?projectId=" + encode(getId());
         uri = addParamToUrl(uri, "limit", limit);
         uri = addParamToUrl(uri, "sort%5B%5D", sort); // 'sort%5B%5D' == 'sort[]'
-        JSONObject response = utils.execute(utils.createGet(uri));
-        return extractMultiTests(response.getJSONArray("result"));
+        return utils.createGet(uri);
     }
 
 
@@ -133,4 +191,13 @@ public class Project extends BZAObject {
     public static Project fromJSON(BlazeMeterUtils utils, JSONObject obj) {
         return new Project(utils, obj.getString("id"), obj.getString("name"));
     }
+
+    /**
+     * Typed version of @link com.blazemeter.api.explorer.Project#fromJSON(com.blazemeter.api.utils.BlazeMeterUtils, net.sf.json.JSONObject),
+     * that reads only used fields
+     */
+    public static Project fromJSON(BlazeMeterUtils utils, JsonReader reader) throws IOException {
+        String[] fields = JsonCodecs.readFields(reader, "id", "name");
+        return new Project(utils, fields[0], fields[1]);
+    }
 }
@@ -0,0 +1,63 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazemeter.api.explorer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of posting properties to sessions of master: sessions, that got properties,
+ * and failed sessions with reason of failure.
+ */
+public class PropertiesResult {
+
+    private final List<String> posted = new ArrayList<>();
+    private final Map<String, String> failed = new LinkedHashMap<>();
+
+    synchronized void addPosted(String sessionId) {
+        posted.add(sessionId);
+    }
+
+    synchronized void addFailed(String sessionId, String reason) {
+        failed.put(sessionId, reason);
+    }
+
+    /**
+     * @return ids of sessions, that got properties
+     */
+    public synchronized List<String> getPosted() {
+        return Collections.unmodifiableList(new ArrayList<>(posted));
+    }
+
+    /**
+     * @return ids of failed sessions -> reason of failure
+     */
+    public synchronized Map<String, String> getFailed() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(failed));
+    }
+
+    public synchronized boolean isSuccessful() {
+        return failed.isEmpty();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("posted=%d, failed=%s", posted.size(), failed.keySet());
+    }
+}
@@ -16,16 +16,21 @@ package com.blazemeter.api.explorer;
 
 
 import com.blazemeter.api.explorer.base.BZAObject;
+import com.blazemeter.api.json.JsonCodecs;
+import com.blazemeter.api.json.JsonReader;
 import com.blazemeter.api.utils.BlazeMeterUtils;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
 import okhttp3.MediaType;
+import okhttp3.Request;
 import okhttp3.RequestBody;
 import org.apache.commons.lang.StringUtils;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Each session belongs to some Master object.
@@ -34,6 +39,8 @@ public class Session extends BZAObject {
 
     public static final String UNDEFINED = "undefined";
 
+    private static final MediaType JSON_UTF_8 = MediaType.parse("application/json; charset=utf-8");
+
     private final String userId;
     private final String testId;
     private final String signature;
@@ -53,13 +60,28 @@ public class Session extends BZAObject {
      */
     public JSONObject sendData(JSONObject data) throws IOException {
         logger.info("Send data to session id=" + getId());
+        return extractSession(utils.execute(createSendDataRequest(data)));
+    }
+
+    /**
+     * Async version of @link com.blazemeter.api.explorer.Session#sendData(net.sf.json.JSONObject)
+     */
+    public CompletableFuture<JSONObject> sendDataAsync(JSONObject data) {
+        logger.info("Send data to session id=" + getId());
+        return utils.executeAsync(createSendDataRequest(data)).thenApply(this::extractSession);
+    }
+
+    private Request createSendDataRequest(JSONObject data) {
         String uri = utils.getDataAddress() +
                 String.format("/submit.php?session_id=%s&signature=%s&test_id=%s&user_id=%s",
                         getId(), signature, testId, userId);
         uri += "&pq=0&target=labels_bulk&update=1"; //TODO: % self.kpi_target
         String dataStr = data.toString();
         logger.debug("Sending active test data: " + dataStr);
-        JSONObject response = utils.execute(utils.createPost(uri, dataStr));
+        return utils.createPost(uri, dataStr);
+    }
+
+    private JSONObject extractSession(JSONObject response) {
         return response.getJSONObject("result").getJSONObject("session");
     }
 
@@ -85,11 +107,45 @@ public class Session extends BZAObject {
      * @param properties - in JSONArray. For convert from String use @link com.blazemeter.api.explorer.Session#convertProperties(java.lang.String)
      */
     void postProperties(JSONArray properties) throws IOException, InterruptedException {
+        postProperties(toBody(properties));
+    }
+
+    /**
+     * Send properties, that are serialized once for several sessions.
+     *
+     * @param body - JSON array of properties in UTF-8, @link com.blazemeter.api.explorer.Session#toBody(net.sf.json.JSONArray)
+     */
+    void postProperties(byte[] body) throws IOException, InterruptedException {
         logger.info("Post properties to session id=" + getId());
+        utils.execute(createPostPropertiesRequest(body));
+    }
+
+    /**
+     * Async version of @link com.blazemeter.api.explorer.Session#postProperties(java.lang.String)
+     */
+    public CompletableFuture<JSONObject> postPropertiesAsync(String properties) {
+        if (StringUtils.isBlank(properties)) {
+            logger.warn("Properties are empty, won't be sent to session = " + getId());
+            return CompletableFuture.completedFuture(null);
+        }
+        logger.info("Post properties to session id=" + getId());
+        return utils.executeAsync(createPostPropertiesRequest(convertProperties(properties)));
+    }
+
+    private Request createPostPropertiesRequest(JSONArray properties) {
+        return createPostPropertiesRequest(toBody(properties));
+    }
+
+    private Request createPostPropertiesRequest(byte[] properties) {
         String uri = utils.getAddress() + String.format("/api/v4/sessions/%s/properties?target=all", encode(getId()));
-        RequestBody body = RequestBody.create(MediaType.parse("application/json; charset=utf-8"),
-                properties.toString());
-        utils.execute(utils.createPost(uri, body));
+        return utils.createPost(uri, RequestBody.create(JSON_UTF_8, properties));
+    }
+
+    /**
+     * @return body of properties request, @link com.blazemeter.api.explorer.Session#convertProperties(java.lang.String)
+     */
+    static byte[] toBody(JSONArray properties) {
+        return properties.toString().getBytes(StandardCharsets.UTF_8);
     }
 
 
@@ -100,23 +156,47 @@ public class Session extends BZAObject {
      */
     public String getJTLReport() throws IOException {
         logger.info("Get JTL report for session id=" + getId());
-        String uri = utils.getAddress() + String.format("/api/v4/sessions/%s/reports/logs", encode(getId()));
-        JSONObject o = utils.execute(utils.createGet(uri));
+        JSONObject o = utils.execute(createJTLReportRequest());
         return extractDataUrl(o);
     }
 
+    /**
+     * Async version of @link com.blazemeter.api.explorer.Session#getJTLReport()
+     */
+    public CompletableFuture<String> getJTLReportAsync() {
+        logger.info("Get JTL report for session id=" + getId());
+        return utils.executeAsync(createJTLReportRequest()).thenApply(this::extractDataUrl);
+    }
+
+    private Request createJTLReportRequest() {
+        String uri = utils.getAddress() + String.format("/api/v4/sessions/%s/reports/logs", encode(getId()));
+        return utils.createGet(uri);
+    }
+
     /**
      * Stop anonymous session
      * POST request to 'https://a.blazemeter.com/api/v4/sessions/{sessionId}/terminate-external'
      */
     public void terminateExternal() throws IOException {
         logger.info("Terminate external session id=" + getId());
+        utils.executeRequest(createTerminateExternalRequest());
+    }
+
+    /**
+     * Async version of @link com.blazemeter.api.explorer.Session#terminateExternal()
+     */
+    public CompletableFuture<String> terminateExternalAsync() {
+        logger.info("Terminate external session id=" + getId());
+        return utils.executeRequestAsync(createTerminateExternalRequest());
+    }
+
+    private Request createTerminateExternalRequest() {
         String uri = utils.getAddress() + String.format("/api/v4/sessions/%s/terminate-external", encode(getId()));
         JSONObject data = new JSONObject();
         data.put("signature", signature);
         data.put("testId", testId);
         data.put("sessionId", getId());
-        utils.executeRequest(utils.createPost(uri, data.toString()));
+        return utils.createPost(uri, data.toString());
     }
 
     public String getUserId() {
@@ -170,6 +250,15 @@ public class Session extends BZAObject {
                 so.getString("userId"), so.getString("testId"), Session.UNDEFINED);
     }
 
+    /**
+     * Typed version of @link com.blazemeter.api.explorer.Session#fromJSON(com.blazemeter.api.utils.BlazeMeterUtils, net.sf.json.JSONObject),
+     * that reads only used fields
+     */
+    public static Session fromJSON(BlazeMeterUtils utils, JsonReader reader) throws IOException {
+        String[] fields = JsonCodecs.readFields(reader, "id", "name", "userId", "testId");
+        return new Session(utils, fields[0], fields[1], fields[2], fields[3], Session.UNDEFINED);
+    }
+
     public static Session fromJSON(BlazeMeterUtils utils, String testId, String signature, JSONObject session) {
         return new Session(utils, session.getString("id"), session.getString("name"), session.getString("userId"), testId, signature);
     }
@@ -15,13 +15,15 @@
 package com.blazemeter.api.explorer;
 
 import com.blazemeter.api.explorer.base.BZAObject;
+import com.blazemeter.api.explorer.base.PagedIterator;
+import com.blazemeter.api.json.JsonCodecs;
+import com.blazemeter.api.json.JsonReader;
 import com.blazemeter.api.logging.Logger;
 import com.blazemeter.api.utils.BlazeMeterUtils;
-import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
+import okhttp3.Request;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -46,13 +48,13 @@ public class User extends BZAObject {
         Logger logger = utils.getLogger();
         logger.info("Get User");
         String uri = utils.getAddress() + "/api/v4/user";
-        JSONObject response = utils.execute(utils.createGet(uri));
-        return User.fromJSON(utils, response.getJSONObject("result"));
+        return utils.executeResult(utils.createGet(uri), reader -> User.fromJSON(utils, reader));
     }
 
     /**
      * Get Account
      * limit = 1000, sorted by name
+     * For longer lists use @link com.blazemeter.api.explorer.User#iterateAccounts
      */
     public List<Account> getAccounts() throws IOException {
         return getAccounts("1000", "name");
@@ -66,24 +68,42 @@ public class User extends BZAObject {
      */
     public List<Account> getAccounts(String limit, String sort) throws IOException {
         logger.info("Get list of accounts");
-        String uri = utils.getAddress()+ "/api/v4/accounts";
-        uri = addParamToUrl(uri, "sort%5B%5D", sort); // 'sort%5B%5D' == 'sort[]'
-        uri = addParamToUrl(uri, "limit", limit);
-        JSONObject response = utils.execute(utils.createGet(uri));
-        return extractAccounts(response.getJSONArray("result"));
+        return utils.executeResult(createAccountsRequest(limit, sort, null), JsonCodecs.listOf(reader -> Account.fromJSON(utils, reader)));
     }
 
-    private List<Account> extractAccounts(JSONArray result) {
-        List<Account> accounts = new ArrayList<>();
-
-        for (Object obj : result) {
-            accounts.add(Account.fromJSON(utils, (JSONObject) obj));
-        }
+    /**
+     * Lazy version of @link com.blazemeter.api.explorer.User#getAccounts(java.lang.String, java.lang.String),
+     * that requests accounts page by page, while they are consumed
+     * @param pageSize count of accounts in one request
+     * @param sort sort type: 'name', 'updated' or other
+     * @return iterator over all Accounts for user token
+     */
+    public PagedIterator<Account> iterateAccounts(int pageSize, final String sort) {
+        return iterate(pageSize, (skip, limit) -> {
+            logger.info("Get page of accounts skip=" + skip);
+            return utils.executeResult(createAccountsRequest(String.valueOf(limit), sort, skip),
+                    JsonCodecs.listOf(reader -> Account.fromJSON(utils, reader)));
+        });
+    }
 
-        return accounts;
+    private Request createAccountsRequest(String limit, String sort, Integer skip) {
+        String uri = utils.getAddress()+ "/api/v4/accounts";
+        uri = addParamToUrl(uri, "sort%5B%5D", sort); // 'sort%5B%5D' == 'sort[]'
+        uri = addParamToUrl(uri, "limit", limit);
+        uri = addParamToUrl(uri, "skip", skip);
+        return utils.createGet(uri);
     }
 
     public static User fromJSON(BlazeMeterUtils utils, JSONObject result) {
         return new User(utils, result.getString("id"), result.getString("email"));
     }
+
+    /**
+     * Typed version of @link com.blazemeter.api.explorer.User#fromJSON(com.blazemeter.api.utils.BlazeMeterUtils, net.sf.json.JSONObject),
+     * that reads only used fields
+     */
+    public static User fromJSON(BlazeMeterUtils utils, JsonReader reader) throws IOException {
+        String[] fields = JsonCodecs.readFields(reader, "id", "email");
+        return new User(utils, fields[0], fields[1]);
+    }
 }
@@ -15,16 +15,21 @@
 package com.blazemeter.api.explorer;
 
 import com.blazemeter.api.explorer.base.BZAObject;
+import com.blazemeter.api.explorer.base.PagedIterator;
 import com.blazemeter.api.explorer.test.MultiTest;
 import com.blazemeter.api.explorer.test.SingleTest;
+import com.blazemeter.api.json.JsonCodecs;
+import com.blazemeter.api.json.JsonReader;
 import com.blazemeter.api.logging.Logger;
 import com.blazemeter.api.utils.BlazeMeterUtils;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
+import okhttp3.Request;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Workspace belongs to Account and has at least one Project.
@@ -45,9 +50,21 @@ public class Workspace extends BZAObject {
     public static Workspace getWorkspace(BlazeMeterUtils utils, String id) throws IOException {
         Logger logger = utils.getLogger();
         logger.info("Get Workspace id=" + id);
-        String uri = utils.getAddress() + String.format("/api/v4/workspaces/%s", BZAObject.encode(logger, id));
-        JSONObject response = utils.execute(utils.createGet(uri));
-        return Workspace.fromJSON(utils, response.getJSONObject("result"));
+        return utils.executeResult(createGetWorkspaceRequest(utils, id), reader -> Workspace.fromJSON(utils, reader));
+    }
+
+    /**
+     * Async version of @link com.blazemeter.api.explorer.Workspace#getWorkspace(com.blazemeter.api.utils.BlazeMeterUtils, java.lang.String)
+     */
+    public static CompletableFuture<Workspace> getWorkspaceAsync(final BlazeMeterUtils utils, String id) {
+        utils.getLogger().info("Get Workspace id=" + id);
+        return utils.executeAsync(createGetWorkspaceRequest(utils, id))
+                .thenApply(response -> Workspace.fromJSON(utils, response.getJSONObject("result")));
+    }
+
+    private static Request createGetWorkspaceRequest(BlazeMeterUtils utils, String id) {
+        String uri = utils.getAddress() + String.format("/api/v4/workspaces/%s", BZAObject.encode(utils.getLogger(), id));
+        return utils.createGet(uri);
     }
 
     /**
@@ -57,12 +74,24 @@ public class Workspace extends BZAObject {
      */
     public Project createProject(String name) throws IOException {
         logger.info("Create project with name=" + name);
+        return utils.executeResult(createProjectRequest(name), reader -> Project.fromJSON(utils, reader));
+    }
+
+    /**
+     * Async version of @link com.blazemeter.api.explorer.Workspace#createProject(java.lang.String)
+     */
+    public CompletableFuture<Project> createProjectAsync(String name) {
+        logger.info("Create project with name=" + name);
+        return utils.executeAsync(createProjectRequest(name))
+                .thenApply(response -> Project.fromJSON(utils, response.getJSONObject("result")));
+    }
+
+    private Request createProjectRequest(String name) {
         String uri = utils.getAddress() + "/api/v4/projects";
         JSONObject data = new JSONObject();
         data.put("name", name);
         data.put("workspaceId", Long.parseLong(getId()));
-        JSONObject response = utils.execute(utils.createPost(uri, data.toString()));
-        return Project.fromJSON(utils, response.getJSONObject("result"));
+        return utils.createPost(uri, data.toString());
     }
 
     /**
@@ -82,16 +111,29 @@ public class Workspace extends BZAObject {
      */
     public List<Project> getProjects(String limit, String sort) throws IOException {
         logger.info("Get list of projects for workspace id=" + getId());
+        return utils.executeResult(createProjectsRequest(limit, sort), JsonCodecs.listOf(reader -> Project.fromJSON(utils, reader)));
+    }
+
+    /**
+     * Async version of @link com.blazemeter.api.explorer.Workspace#getProjects(java.lang.String, java.lang.String)
+     */
+    public CompletableFuture<List<Project>> getProjectsAsync(String limit, String sort) {
+        logger.info("Get list of projects for workspace id=" + getId());
+        return utils.executeAsync(createProjectsRequest(limit, sort))
+                .thenApply(response -> extractProjects(response.getJSONArray("result")));
+    }
+
+    private Request createProjectsRequest(String limit, String sort) {
         String uri = utils.getAddress() + String.format("/api/v4/projects?workspaceId=%s", encode(getId()));
         uri = addParamToUrl(uri, "sort%5B%5D", sort); // 'sort%5B%5D' == 'sort[]'
         uri = addParamToUrl(uri, "limit", limit);
-        JSONObject response = utils.execute(utils.createGet(uri));
-        return extractProjects(response.getJSONArray("result"));
+        return utils.createGet(uri);
     }
 
     /**
      * Get Single tests for Workspace
      * limit = 10000, sorted by name
+     * For longer lists use @link com.blazemeter.api.explorer.Workspace#iterateSingleTests
      */
     public List<SingleTest> getSingleTests() throws IOException {
         return getSingleTests("10000", "name");
@@ -106,16 +148,45 @@ public class Workspace extends BZAObject {
      */
     public List<SingleTest> getSingleTests(String limit, String sort) throws IOException {
         logger.info("Get list of single tests for workspace id=" + getId());
+        return utils.executeResult(createSingleTestsRequest(limit, sort, null), JsonCodecs.listOf(reader -> SingleTest.fromJSON(utils, reader)));
+    }
+
+    /**
+     * Async version of @link com.blazemeter.api.explorer.Workspace#getSingleTests(java.lang.String, java.lang.String)
+     */
+    public CompletableFuture<List<SingleTest>> getSingleTestsAsync(String limit, String sort) {
+        logger.info("Get list of single tests for workspace id=" + getId());
+        return utils.executeAsync(createSingleTestsRequest(limit, sort, null))
+                .thenApply(response -> extractSingleTests(response.getJSONArray("result")));
+    }
+
+    /**
+     * Lazy version of @link com.blazemeter.api.explorer.Workspace#getSingleTests(java.lang.String, java.lang.String),
+     * that requests tests page by page, while they are consumed
+     * @param pageSize count of tests in one request
+     * @param sort sort type: 'name', 'updated' or other
+     * @return iterator over all Tests in current Workspace
+     */
+    public PagedIterator<SingleTest> iterateSingleTests(int pageSize, final String sort) {
+        return iterate(pageSize, (skip, limit) -> {
+            logger.info("Get page of single tests for workspace id=" + getId() + " skip=" + skip);
+            return utils.executeResult(createSingleTestsRequest(String.valueOf(limit), sort, skip),
+                    JsonCodecs.listOf(reader -> SingleTest.fromJSON(utils, reader)));
+        });
+    }
+
+    private Request createSingleTestsRequest(String limit, String sort, Integer skip) {
         String uri = utils.getAddress() + "/api/v4/tests?workspaceId=" + encode(getId());
         uri = addParamToUrl(uri, "sort%5B%5D", sort); // 'sort%5B%5D' == 'sort[]'
         uri = addParamToUrl(uri, "limit", limit);
-        JSONObject response = utils.execute(utils.createGet(uri));
-        return extractSingleTests(response.getJSONArray("result"));
+        uri = addParamToUrl(uri, "skip", skip);
+        return utils.createGet(uri);
     }
 
     /**
      * Get Multi tests for Workspace
      * limit = 10000, sorted by name
+     * For longer lists use @link com.blazemeter.api.explorer.Workspace#iterateMultiTests
      */
     public List<MultiTest> getMultiTests() throws IOException {
         return getMultiTests("10000", "name");
@@ -139,11 +210,39 @@ public class Workspace extends BZAObject {
      */
     public List<MultiTest> getMultiTests(String limit, String sort) throws IOException {
         logger.info("Get list of multi tests for workspace id=" + getId());
+        return utils.executeResult(createMultiTestsRequest(limit, sort, null), JsonCodecs.listOf(reader -> MultiTest.fromJSON(utils, reader)));
+    }
+
+    /**
+     * Async version of @link com.blazemeter.api.explorer.Workspace#getMultiTests(java.lang.String, java.lang.String)
+     */
+    public CompletableFuture<List<MultiTest>> getMultiTestsAsync(String limit, String sort) {
+        logger.info("Get list of multi tests for workspace id=" + getId());
+        return utils.executeAsync(createMultiTestsRequest(limit, sort, null))
+                .thenApply(response -> extractMultiTests(response.getJSONArray("result")));
+    }
+
+    /**
+     * Lazy version of @link com.blazemeter.api.explorer.Workspace#getMultiTests(java.lang.String, java.lang.String),
+     * that requests tests page by page, while they are consumed
+     * @param pageSize count of tests in one request
+     * @param sort sort type: 'name', 'updated' or other
+     * @return iterator over all Multi-Tests in current Workspace
+     */
+    public PagedIterator<MultiTest> iterateMultiTests(int pageSize, final String sort) {
+        return iterate(pageSize, (skip, limit) -> {
+            logger.info("Get page of multi tests for workspace id=" + getId() + " skip=" + skip);
+            return utils.executeResult(createMultiTestsRequest(String.valueOf(limit), sort, skip),
+                    JsonCodecs.listOf(reader -> MultiTest.fromJSON(utils, reader)));
+        });
+    }
+
+    private Request createMultiTestsRequest(String limit, String sort, Integer skip) {
         String uri = utils.getAddress() + "/api/v4/multi-tests?workspaceId=" + encode(getId());
         uri = addParamToUrl(uri, "sort%5B%5D", sort); // 'sort%5B%5D' == 'sort[]'
         uri = addParamToUrl(uri, "limit", limit);
-        JSONObject response = utils.execute(utils.createGet(uri));
-        return extractMultiTests(response.getJSONArray("result"));
+        uri = addParamToUrl(uri, "skip", skip);
+        return utils.createGet(uri);
     }
 
     /**
@@ -156,11 +255,23 @@ public class Workspace extends BZAObject {
     public List<MultiTest> getTestSuite(String limit, String sort) throws IOException
     {
         logger.info("Get list of test suite for workspace id=" + getId());
+        return utils.executeResult(createTestSuiteRequest(limit, sort), JsonCodecs.listOf(reader -> MultiTest.fromJSON(utils, reader)));
+    }
+
+    /**
+     * Async version of @link com.blazemeter.api.explorer.Workspace#getTestSuite(java.lang.String, java.lang.String)
+     */
+    public CompletableFuture<List<MultiTest>> getTestSuiteAsync(String limit, String sort) {
+        logger.info("Get list of test suite for workspace id=" + getId());
+        return utils.executeAsync(createTestSuiteRequest(limit, sort))
+                .thenApply(response -> extractMultiTests(response.getJSONArray("result")));
+    }
+
+    private Request createTestSuiteRequest(String limit, String sort) {
         String uri = utils.getAddress() + "/api/v4/multi-tests?workspaceId="+encode(getId())+"&platform=functional";
         uri = addParamToUrl(uri, "sort%5B%5D", sort);
         uri = addParamToUrl(uri, "limit", limit);
-        JSONObject response = utils.execute(utils.createGet(uri));
-        return extractMultiTests(response.getJSONArray("result"));
+        return utils.createGet(uri);
     }
 
     private List<SingleTest> extractSingleTests(JSONArray result) {
@@ -196,4 +307,13 @@ public class Workspace extends BZAObject {
     public static Workspace fromJSON(BlazeMeterUtils utils, JSONObject obj) {
         return new Workspace(utils, obj.getString("id"), obj.getString("name"));
     }
+
+    /**
+     * Typed version of @link com.blazemeter.api.explorer.Workspace#fromJSON(com.blazemeter.api.utils.BlazeMeterUtils, net.sf.json.JSONObject),
+     * that reads only used fields
+     */
+    public static Workspace fromJSON(BlazeMeterUtils utils, JsonReader reader) throws IOException {
+        String[] fields = JsonCodecs.readFields(reader, "id", "name");
+        return new Workspace(utils, fields[0], fields[1]);
+    }
 }
\ No newline at end of file
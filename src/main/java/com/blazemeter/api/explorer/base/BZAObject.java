@@ -16,9 +16,11 @@ package com.blazemeter.api.explorer.base;
 
 import com.blazemeter.api.logging.Logger;
 import com.blazemeter.api.utils.BlazeMeterUtils;
+import com.blazemeter.api.utils.VirtualThreads;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.util.concurrent.ExecutorService;
 
 
 /**
@@ -37,6 +39,8 @@ public class BZAObject {
     protected BlazeMeterUtils utils;
     protected Logger logger;
 
+    private static ExecutorService prefetchExecutor;
+
     public BZAObject(BlazeMeterUtils utils, String id, String name) {
         this.utils = utils;
         this.id = id;
@@ -89,6 +93,21 @@ public class BZAObject {
         }
     }
 
+    /**
+     * @return lazy iterator over pages loaded by 'loader', next page is prefetched in separate executor,
+     * because loader blocks on request, that is executed in executor of client pool
+     */
+    protected <T> PagedIterator<T> iterate(int pageSize, PagedIterator.PageLoader<T> loader) {
+        return new PagedIterator<>(loader, pageSize, getPrefetchExecutor());
+    }
+
+    private static synchronized ExecutorService getPrefetchExecutor() {
+        if (prefetchExecutor == null) {
+            prefetchExecutor = VirtualThreads.newThreadPerTaskExecutor("bzm-prefetch-");
+        }
+        return prefetchExecutor;
+    }
+
     protected String addParamToUrl(String url, String paramName, Object paramValue) {
         if (paramValue == null) {
             return url;
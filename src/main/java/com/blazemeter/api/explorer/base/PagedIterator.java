@@ -0,0 +1,150 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.api.explorer.base;
+
+import com.blazemeter.api.exception.InterruptRuntimeException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy iterator over paged server list (requests with 'skip' and 'limit' params).
+ * First page is loaded on first access, next page is prefetched in background
+ * while current page is consumed. Iteration stops on first page that is shorter than page size.
+ * Request errors are thrown as UncheckedIOException.
+ */
+public class PagedIterator<T> implements Iterator<T>, Closeable {
+
+    /**
+     * Loads one page of list
+     */
+    public interface PageLoader<T> {
+        List<T> load(int skip, int limit) throws IOException;
+    }
+
+    private final PageLoader<T> loader;
+    private final int pageSize;
+    private final Executor executor;
+
+    private Iterator<T> page = Collections.emptyIterator();
+    private Future<List<T>> nextPage;
+    private int skip;
+    private boolean lastPage;
+    private boolean closed;
+
+    /**
+     * @param loader   - loads page by 'skip' and 'limit'
+     * @param pageSize - count of items in one request
+     * @param executor - executor for prefetch of next page, it must not be executor of client pool,
+     *                 because loader waits there for its own request
+     */
+    public PagedIterator(PageLoader<T> loader, int pageSize, Executor executor) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        }
+        this.loader = loader;
+        this.pageSize = pageSize;
+        this.executor = executor;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!page.hasNext()) {
+            if (lastPage || closed) {
+                return false;
+            }
+            List<T> items = (nextPage != null) ? await(nextPage) : load(skip);
+            nextPage = null;
+            skip += items.size();
+            lastPage = items.size() < pageSize;
+            if (!lastPage) {
+                prefetch(skip);
+            }
+            page = items.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return page.next();
+    }
+
+    /**
+     * Cancels prefetch of next page and interrupts its request. Iterator returns only already loaded items after close.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (nextPage != null) {
+            nextPage.cancel(true);
+            nextPage = null;
+        }
+    }
+
+    /**
+     * @return sequential Stream over this iterator, closing of Stream closes iterator
+     */
+    public Stream<T> stream() {
+        Spliterator<T> spliterator = Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    private void prefetch(final int from) {
+        // FutureTask interrupts loader on cancel
+        FutureTask<List<T>> task = new FutureTask<>(() -> load(from));
+        executor.execute(task);
+        nextPage = task;
+    }
+
+    private List<T> load(int from) {
+        try {
+            return loader.load(from, pageSize);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private List<T> await(Future<List<T>> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptRuntimeException("Interrupted while waiting for next page", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
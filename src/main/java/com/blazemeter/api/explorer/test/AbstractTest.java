@@ -40,6 +40,10 @@ public abstract class AbstractTest extends BZAObject implements ITest {
      * Type of test: it can be '.http', '.multi', '.multi-location', '.taurus', '.jmeter' etc.
      */
     protected String testType;
+    /**
+     * Time of last update on server (seconds), 0 - if unknown
+     */
+    protected long updated;
 
     public AbstractTest(BlazeMeterUtils utils, String id, String name, String testType) {
         super(utils, id, name);
@@ -86,4 +90,12 @@ public abstract class AbstractTest extends BZAObject implements ITest {
     public String getTestType() {
         return testType;
     }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public void setUpdated(long updated) {
+        this.updated = updated;
+    }
 }
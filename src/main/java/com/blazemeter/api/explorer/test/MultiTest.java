@@ -17,6 +17,8 @@ package com.blazemeter.api.explorer.test;
 import com.blazemeter.api.explorer.Master;
 import com.blazemeter.api.explorer.Session;
 import com.blazemeter.api.explorer.base.BZAObject;
+import com.blazemeter.api.json.JsonCodecs;
+import com.blazemeter.api.json.JsonReader;
 import com.blazemeter.api.logging.Logger;
 import com.blazemeter.api.utils.BlazeMeterUtils;
 import net.sf.json.JSONArray;
@@ -102,8 +104,7 @@ public class MultiTest extends AbstractTest {
         Logger logger = utils.getLogger();
         logger.info("Get Multi Test id=" + id);
         String uri = utils.getAddress() + String.format(MULTI_TESTS + "/%s", BZAObject.encode(logger, id));
-        JSONObject response = utils.execute(utils.createGet(uri));
-        return MultiTest.fromJSON(utils, response.getJSONObject("result"));
+        return utils.executeResult(utils.createGet(uri), reader -> MultiTest.fromJSON(utils, reader));
     }
 
     @Override
@@ -113,6 +114,43 @@ public class MultiTest extends AbstractTest {
     }
 
     public static MultiTest fromJSON(BlazeMeterUtils utils, JSONObject obj) {
-        return new MultiTest(utils, obj.getString("id"), obj.getString("name"), obj.getString("collectionType"));
+        MultiTest test = new MultiTest(utils, obj.getString("id"), obj.getString("name"), obj.getString("collectionType"));
+        test.setUpdated(obj.optLong("updated"));
+        return test;
+    }
+
+    /**
+     * Typed version of @link com.blazemeter.api.explorer.test.MultiTest#fromJSON(com.blazemeter.api.utils.BlazeMeterUtils, net.sf.json.JSONObject),
+     * that reads only used fields
+     */
+    public static MultiTest fromJSON(BlazeMeterUtils utils, JsonReader reader) throws IOException {
+        String id = null;
+        String name = null;
+        String collectionType = null;
+        long updated = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = reader.nextAsString();
+                    break;
+                case "name":
+                    name = reader.nextAsString();
+                    break;
+                case "collectionType":
+                    collectionType = reader.nextAsString();
+                    break;
+                case "updated":
+                    updated = JsonCodecs.readLong(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        MultiTest test = new MultiTest(utils, JsonCodecs.require(id, "id"), JsonCodecs.require(name, "name"),
+                JsonCodecs.require(collectionType, "collectionType"));
+        test.setUpdated(updated);
+        return test;
     }
 }
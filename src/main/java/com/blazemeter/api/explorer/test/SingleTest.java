@@ -17,6 +17,11 @@ package com.blazemeter.api.explorer.test;
 import com.blazemeter.api.explorer.Master;
 import com.blazemeter.api.explorer.Session;
 import com.blazemeter.api.explorer.base.BZAObject;
+import com.blazemeter.api.http.BandwidthThrottle;
+import com.blazemeter.api.http.ProgressListener;
+import com.blazemeter.api.http.ZipBundleBody;
+import com.blazemeter.api.json.JsonCodecs;
+import com.blazemeter.api.json.JsonReader;
 import com.blazemeter.api.logging.Logger;
 import com.blazemeter.api.utils.BlazeMeterUtils;
 import net.sf.json.JSONArray;
@@ -80,6 +85,29 @@ public class SingleTest extends AbstractTest {
         logger.info("File uploaded with response: " + object);
     }
 
+    /**
+     * Upload file, that is streamed from disk and is not buffered for logging
+     * @param listener - receives count of uploaded bytes, null - no progress events
+     * @param throttle - limits upload rate, null - unlimited
+     */
+    public void uploadFile(File file, ProgressListener listener, BandwidthThrottle throttle) throws IOException {
+        logger.info("Upload file to single test id=" + getId());
+        String uri = utils.getAddress() + String.format(TESTS + "/%s/files", encode(getId()));
+        JSONObject object = utils.executeUpload(utils.createPost(uri, file, listener, throttle));
+        logger.info("File uploaded with response: " + object);
+    }
+
+    /**
+     * Upload several files in one zip archive, that is packed while it is sent
+     * @param bundleName - name of archive
+     */
+    public void uploadBundle(String bundleName, List<File> files) throws IOException {
+        logger.info(String.format("Upload bundle %s of %d files to single test id=%s", bundleName, files.size(), getId()));
+        String uri = utils.getAddress() + String.format(TESTS + "/%s/files", encode(getId()));
+        JSONObject object = utils.executeUpload(utils.createPost(uri, bundleName, new ZipBundleBody(files)));
+        logger.info("Bundle uploaded with response: " + object);
+    }
+
     @Override
     public void update(String data) throws IOException {
         logger.info(String.format("Update single test id=%s data=%s", getId(), data));
@@ -149,8 +177,7 @@ public class SingleTest extends AbstractTest {
         Logger logger = utils.getLogger();
         logger.info("Get Single Test id=" + id);
         String uri = utils.getAddress() + String.format(TESTS + "/%s", BZAObject.encode(logger, id));
-        JSONObject response = utils.execute(utils.createGet(uri));
-        return SingleTest.fromJSON(utils, response.getJSONObject("result"));
+        return utils.executeResult(utils.createGet(uri), reader -> SingleTest.fromJSON(utils, reader));
     }
 
     public void validateFiles(List<String> fileNames) throws IOException {
@@ -192,7 +219,44 @@ public class SingleTest extends AbstractTest {
     }
 
     public static SingleTest fromJSON(BlazeMeterUtils utils, JSONObject obj) {
-        return new SingleTest(utils, obj.getString("id"), obj.getString("name"),
+        SingleTest test = new SingleTest(utils, obj.getString("id"), obj.getString("name"),
                 obj.getJSONObject("configuration").getString("type"));
+        test.setUpdated(obj.optLong("updated"));
+        return test;
+    }
+
+    /**
+     * Typed version of @link com.blazemeter.api.explorer.test.SingleTest#fromJSON(com.blazemeter.api.utils.BlazeMeterUtils, net.sf.json.JSONObject),
+     * that reads only used fields
+     */
+    public static SingleTest fromJSON(BlazeMeterUtils utils, JsonReader reader) throws IOException {
+        String id = null;
+        String name = null;
+        String type = null;
+        long updated = 0;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id":
+                    id = reader.nextAsString();
+                    break;
+                case "name":
+                    name = reader.nextAsString();
+                    break;
+                case "configuration":
+                    type = JsonCodecs.readField(reader, "type");
+                    break;
+                case "updated":
+                    updated = JsonCodecs.readLong(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        SingleTest test = new SingleTest(utils, JsonCodecs.require(id, "id"), JsonCodecs.require(name, "name"),
+                JsonCodecs.require(type, "configuration"));
+        test.setUpdated(updated);
+        return test;
     }
 }
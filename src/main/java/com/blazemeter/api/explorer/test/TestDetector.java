@@ -14,34 +14,73 @@
 
 package com.blazemeter.api.explorer.test;
 
+import com.blazemeter.api.exception.InterruptRuntimeException;
 import com.blazemeter.api.exception.UnexpectedResponseException;
 import com.blazemeter.api.logging.Logger;
 import com.blazemeter.api.utils.BlazeMeterUtils;
+import com.blazemeter.api.utils.VirtualThreads;
 import org.apache.commons.lang.StringUtils;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class TestDetector {
 
+    /**
+     * If 'true', Single and Multi tests are requested at the same time
+     */
+    public static final String CONCURRENT_DETECTION = "bzm.detectTest.concurrent";
+    /**
+     * Path of file, where detected test types are kept between builds
+     */
+    public static final String TEST_TYPE_CACHE_FILE = "bzm.testTypeCache";
+
+    private static TestTypeCache typeCache;
+    private static ExecutorService detectExecutor;
+
     /**
      * @param utils - BlazeMeterUtils that contains logging and http setup
      * @param test  - test Id for detected
      *              Detect test type by test id. If test not found that return null
      */
     public static AbstractTest detectTest(BlazeMeterUtils utils, String test) throws IOException {
-        final Logger logger = utils.getLogger();
         String testType = getTestTypeSuffix(test);
         String testId = getTestId(test);
         if (!StringUtils.isBlank(testType)) {
             return detectTestBySuffix(utils, testId, testType);
         }
 
+        TestTypeCache cache = getTypeCache();
+        AbstractTest result = (cache != null) ? getCachedTest(utils, cache, testId) : null;
+        if (result != null) {
+            return result;
+        }
+
+        result = isConcurrentDetection() ? detectTestConcurrently(utils, testId) : detectSingleOrMultiTest(utils, testId);
+        if (cache != null && result != null) {
+            try {
+                cache.put(utils.getAddress(), testId, (result instanceof MultiTest) ? TestTypeCache.Kind.MULTI : TestTypeCache.Kind.SINGLE);
+            } catch (IOException ex) {
+                utils.getLogger().warn("Cannot save test type to " + cache.getFile() + ". Reason is: " + ex.getMessage(), ex);
+            }
+        }
+        return result;
+    }
+
+    private static AbstractTest detectSingleOrMultiTest(BlazeMeterUtils utils, String testId) throws IOException {
+        final Logger logger = utils.getLogger();
         try {
             logger.info("Attempt to detect Single test type with id=" + testId);
             return SingleTest.getSingleTest(utils, testId);
         } catch (UnexpectedResponseException ex) {
-            String msg = ex.getMessage();
-            if (msg.toLowerCase().contains("not found")) {
+            if (ex.isNotFound()) {
                 logger.info("Single test with id=" + testId + " not found");
                 return detectMultiTest(utils, testId);
             } else {
@@ -57,8 +96,7 @@ public class TestDetector {
             logger.info("Attempt to detect Multi test type with id=" + testId);
             return MultiTest.getMultiTest(utils, testId);
         } catch (UnexpectedResponseException ex) {
-            String msg = ex.getMessage();
-            if (msg.toLowerCase().contains("not found")) {
+            if (ex.isNotFound()) {
                 logger.info("Multi test with id=" + testId + " not found");
                 return null;
             } else {
@@ -68,6 +106,120 @@ public class TestDetector {
         }
     }
 
+    /**
+     * Requests Single and Multi test with the same id at the same time and returns the first found test.
+     * If both are not found, returns null. Other errors are thrown only if test is not found.
+     */
+    public static AbstractTest detectTestConcurrently(final BlazeMeterUtils utils, final String testId) throws IOException {
+        final Logger logger = utils.getLogger();
+        logger.info("Attempt to detect Single and Multi test type with id=" + testId);
+        final CompletableFuture<AbstractTest> first = new CompletableFuture<>();
+        final AtomicInteger pending = new AtomicInteger(2);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Future<?> single = submitDetection(first, pending, failure, () -> SingleTest.getSingleTest(utils, testId), logger, "Single", testId);
+        Future<?> multi = submitDetection(first, pending, failure, () -> MultiTest.getMultiTest(utils, testId), logger, "Multi", testId);
+        try {
+            return first.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptRuntimeException("Test detection has been interrupted", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        } finally {
+            single.cancel(true);
+            multi.cancel(true);
+        }
+    }
+
+    private static Future<?> submitDetection(final CompletableFuture<AbstractTest> first, final AtomicInteger pending,
+                                             final AtomicReference<Throwable> failure, final Callable<AbstractTest> lookup,
+                                             final Logger logger, final String type, final String testId) {
+        return getDetectExecutor().submit(() -> {
+            try {
+                first.complete(lookup.call());
+            } catch (UnexpectedResponseException ex) {
+                if (ex.isNotFound()) {
+                    logger.info(type + " test with id=" + testId + " not found");
+                } else {
+                    logger.error("Fail for detect " + type + " test type id=" + testId + ". Reason is: " + ex.getMessage(), ex);
+                    failure.compareAndSet(null, ex);
+                }
+            } catch (Throwable ex) {
+                if (first.isDone() || Thread.currentThread().isInterrupted() || ex instanceof InterruptRuntimeException) {
+                    // the other lookup has found test or detection has been interrupted
+                    logger.debug(type + " test detection with id=" + testId + " has been cancelled: " + ex.getMessage());
+                } else {
+                    logger.error("Fail for detect " + type + " test type id=" + testId + ". Reason is: " + ex.getMessage(), ex);
+                    failure.compareAndSet(null, ex);
+                }
+            } finally {
+                if (pending.decrementAndGet() == 0) {
+                    Throwable ex = failure.get();
+                    if (ex != null) {
+                        first.completeExceptionally(ex);
+                    } else {
+                        first.complete(null);
+                    }
+                }
+            }
+        });
+    }
+
+    private static AbstractTest getCachedTest(BlazeMeterUtils utils, TestTypeCache cache, String testId) throws IOException {
+        TestTypeCache.Kind kind = cache.get(utils.getAddress(), testId);
+        if (kind == null) {
+            return null;
+        }
+        final Logger logger = utils.getLogger();
+        logger.info("Test type of id=" + testId + " is taken from cache: " + kind);
+        try {
+            return (kind == TestTypeCache.Kind.MULTI) ? MultiTest.getMultiTest(utils, testId) : SingleTest.getSingleTest(utils, testId);
+        } catch (UnexpectedResponseException ex) {
+            if (!ex.isNotFound()) {
+                throw ex;
+            }
+            logger.info("Cached test id=" + testId + " not found, detect test type again");
+            cache.remove(utils.getAddress(), testId);
+            return null;
+        }
+    }
+
+    public static boolean isConcurrentDetection() {
+        return Boolean.parseBoolean(System.getProperty(CONCURRENT_DETECTION, "false"));
+    }
+
+    /**
+     * @return cache of test types, by default it is created for file from 'bzm.testTypeCache' property
+     * or null, if property is not set
+     */
+    public static synchronized TestTypeCache getTypeCache() {
+        String path = System.getProperty(TEST_TYPE_CACHE_FILE);
+        if (typeCache == null && !StringUtils.isBlank(path)) {
+            typeCache = new TestTypeCache(TestTypeCache.DEFAULT_MAX_SIZE, new File(path));
+        }
+        return typeCache;
+    }
+
+    /**
+     * @param cache - cache of detected test types, null - cache from 'bzm.testTypeCache' property (if it is set)
+     */
+    public static synchronized void setTypeCache(TestTypeCache cache) {
+        typeCache = cache;
+    }
+
+    private static synchronized ExecutorService getDetectExecutor() {
+        if (detectExecutor == null) {
+            detectExecutor = VirtualThreads.newThreadPerTaskExecutor("bzm-test-detector-");
+        }
+        return detectExecutor;
+    }
 
     public static AbstractTest detectTestBySuffix(BlazeMeterUtils utils, String testId, String testType) throws IOException {
         switch (testType) {
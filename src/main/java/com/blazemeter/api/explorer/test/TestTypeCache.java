@@ -0,0 +1,150 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.api.explorer.test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Bounded cache of detected test types: 'server address + test id' -> SINGLE or MULTI.
+ * If file is set, cache is loaded from it on creation and saved after each change,
+ * so the next build of the same test skips detection.
+ */
+public class TestTypeCache {
+
+    public enum Kind {
+        SINGLE, MULTI
+    }
+
+    public static final int DEFAULT_MAX_SIZE = 1000;
+
+    private final LinkedHashMap<String, Kind> types;
+    private final int maxSize;
+    private final File file;
+
+    public TestTypeCache() {
+        this(DEFAULT_MAX_SIZE, null);
+    }
+
+    /**
+     * @param maxSize - max count of tests, least recently used are evicted
+     * @param file    - properties file for persisting cache, null - cache is kept in memory only
+     */
+    public TestTypeCache(final int maxSize, File file) {
+        this.maxSize = maxSize;
+        this.file = file;
+        this.types = new LinkedHashMap<String, Kind>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Kind> eldest) {
+                return size() > maxSize;
+            }
+        };
+        if (file != null && file.exists()) {
+            load();
+        }
+    }
+
+    public synchronized Kind get(String address, String testId) {
+        return types.get(key(address, testId));
+    }
+
+    public void put(String address, String testId, Kind kind) throws IOException {
+        synchronized (this) {
+            if (types.put(key(address, testId), kind) == kind) {
+                return;
+            }
+        }
+        save();
+    }
+
+    public void remove(String address, String testId) throws IOException {
+        synchronized (this) {
+            if (types.remove(key(address, testId)) == null) {
+                return;
+            }
+        }
+        save();
+    }
+
+    public synchronized int size() {
+        return types.size();
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    private void load() {
+        Properties props = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            props.load(in);
+        } catch (IOException ex) {
+            return;
+        }
+        synchronized (this) {
+            for (String key : props.stringPropertyNames()) {
+                try {
+                    types.put(key, Kind.valueOf(props.getProperty(key)));
+                } catch (IllegalArgumentException ex) {
+                    // skip unknown value
+                }
+            }
+        }
+    }
+
+    private void save() throws IOException {
+        if (file == null) {
+            return;
+        }
+        Properties props = new Properties();
+        synchronized (this) {
+            for (Map.Entry<String, Kind> entry : types.entrySet()) {
+                props.setProperty(entry.getKey(), entry.getValue().name());
+            }
+        }
+        File dir = file.getAbsoluteFile().getParentFile();
+        File temp = File.createTempFile(file.getName(), ".tmp", dir);
+        try {
+            try (OutputStream out = new FileOutputStream(temp)) {
+                props.store(out, "BlazeMeter test types");
+            }
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    private static String key(String address, String testId) {
+        return address + "/" + testId;
+    }
+}
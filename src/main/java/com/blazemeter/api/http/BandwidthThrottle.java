@@ -0,0 +1,70 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazemeter.api.http;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits rate of uploaded bytes. One throttle can be shared by several uploads,
+ * then their total rate is limited.
+ */
+public class BandwidthThrottle {
+
+    private final long bytesPerSecond;
+    private long nextFree;
+
+    /**
+     * @param bytesPerSecond - max upload rate
+     */
+    public BandwidthThrottle(long bytesPerSecond) {
+        if (bytesPerSecond <= 0) {
+            throw new IllegalArgumentException("Upload rate must be positive: " + bytesPerSecond);
+        }
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * Blocks until 'bytes' can be sent without exceeding the rate
+     */
+    public void acquire(long bytes) throws InterruptedIOException {
+        long wait;
+        synchronized (this) {
+            long now = nanoTime();
+            if (nextFree < now) {
+                nextFree = now;
+            }
+            wait = nextFree - now;
+            nextFree += bytes * TimeUnit.SECONDS.toNanos(1) / bytesPerSecond;
+        }
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Upload has been interrupted");
+            }
+        }
+    }
+
+    public long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    protected long nanoTime() {
+        return System.nanoTime();
+    }
+}
@@ -0,0 +1,225 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazemeter.api.http;
+
+import com.blazemeter.api.exception.InterruptRuntimeException;
+import com.blazemeter.api.exception.UnexpectedResponseException;
+import com.blazemeter.api.logging.Logger;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Resumable upload of large file by chunks to url, that supports 'Content-Range' uploads:
+ * each chunk is sent with PUT and 'Content-Range: bytes first-last/total',
+ * server confirms received bytes with 308 status and 'Range: bytes=0-last' header
+ * and responds with 2xx to the last chunk.
+ * After network or 5xx error upload asks server for confirmed bytes with empty PUT,
+ * that has unknown range in 'Content-Range', and continues from the first not confirmed byte.
+ */
+public class ChunkedUpload {
+
+    public static final long DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    protected static final int RESUME_INCOMPLETE = 308;
+    protected static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+
+    private final HttpUtils utils;
+    private final Logger logger;
+    private final String url;
+    private final File file;
+
+    private long chunkSize = DEFAULT_CHUNK_SIZE;
+    private int maxRetries = 5;
+    private long retryDelay = 1000;
+    private ProgressListener listener;
+    private BandwidthThrottle throttle;
+
+    private long confirmed;
+    private int retries;
+
+    public ChunkedUpload(HttpUtils utils, String url, File file) {
+        this.utils = utils;
+        this.logger = utils.getLogger();
+        this.url = url;
+        this.file = file;
+    }
+
+    /**
+     * Uploads not confirmed part of file
+     * @return response body of the last chunk
+     */
+    public String upload() throws IOException {
+        long total = file.length();
+        int failures = 0;
+        boolean query = false;
+        while (true) {
+            try {
+                String result = query ? send(createStatusRequest(total), total) : send(createChunkRequest(total), total);
+                if (result != null) {
+                    return result;
+                }
+                failures = 0;
+                query = false;
+            } catch (IOException | RetryableException ex) {
+                if (++failures > maxRetries) {
+                    if (ex instanceof RetryableException) {
+                        throw ((RetryableException) ex).toResponseException();
+                    }
+                    throw (IOException) ex;
+                }
+                retries++;
+                logger.warn(String.format("Failed to upload chunk of %s from byte %d, retry %d of %d. Reason is: %s",
+                        file.getName(), confirmed, failures, maxRetries, ex.getMessage()));
+                sleep(retryDelay * failures);
+                query = true;
+            }
+        }
+    }
+
+    private Request createChunkRequest(long total) {
+        long length = Math.min(chunkSize, total - confirmed);
+        RequestBody body = new FileRegionBody(OCTET_STREAM, file, confirmed, length, listener, throttle);
+        String range = (length > 0) ? String.format("bytes %d-%d/%d", confirmed, confirmed + length - 1, total) : "bytes */" + total;
+        return utils.createPut(url, body).newBuilder().header("Content-Range", range).build();
+    }
+
+    private Request createStatusRequest(long total) {
+        RequestBody body = RequestBody.create(OCTET_STREAM, new byte[0]);
+        return utils.createPut(url, body).newBuilder().header("Content-Range", "bytes */" + total).build();
+    }
+
+    /**
+     * @return response body if upload is finished, null - if server waits for the next chunk
+     */
+    private String send(Request request, long total) throws IOException {
+        try (Response response = utils.sendTransferRequest(request)) {
+            ResponseBody body = response.body();
+            String content = (body != null) ? body.string() : "";
+            int code = response.code();
+            if (code == RESUME_INCOMPLETE) {
+                confirmed = parseRange(response.header("Range"));
+                if (listener != null) {
+                    listener.onProgress(confirmed, total);
+                }
+                return null;
+            } else if (response.isSuccessful()) {
+                confirmed = total;
+                return content;
+            } else if (code >= 500 || code == 408 || code == 429) {
+                throw new RetryableException("Server responded with " + code + ": " + content, code);
+            }
+            throw new UnexpectedResponseException("Upload failed with " + code + ": " + content, code);
+        }
+    }
+
+    /**
+     * @return count of confirmed bytes from 'Range: bytes=0-last' header, 0 - if header is absent
+     */
+    protected static long parseRange(String range) {
+        if (range == null) {
+            return 0;
+        }
+        int dash = range.lastIndexOf('-');
+        try {
+            return Long.parseLong(range.substring(dash + 1).trim()) + 1;
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    private static void sleep(long delay) {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptRuntimeException("Upload has been interrupted", ex);
+        }
+    }
+
+    /**
+     * @return count of bytes, that are confirmed by server
+     */
+    public long getConfirmed() {
+        return confirmed;
+    }
+
+    /**
+     * Continue previous upload from this position, e.g. after restart of process
+     */
+    public void setConfirmed(long confirmed) {
+        this.confirmed = confirmed;
+    }
+
+    /**
+     * @return count of retried requests
+     */
+    public int getRetries() {
+        return retries;
+    }
+
+    public long getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(long chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * @param maxRetries - max count of failed requests in a row
+     */
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * @param retryDelay - ms before the first retry, next retries wait longer
+     */
+    public void setRetryDelay(long retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+
+    public void setProgressListener(ProgressListener listener) {
+        this.listener = listener;
+    }
+
+    public void setThrottle(BandwidthThrottle throttle) {
+        this.throttle = throttle;
+    }
+
+    private static class RetryableException extends RuntimeException {
+        private final int code;
+
+        private RetryableException(String message, int code) {
+            super(message);
+            this.code = code;
+        }
+
+        private UnexpectedResponseException toResponseException() {
+            return new UnexpectedResponseException(getMessage(), code);
+        }
+    }
+}
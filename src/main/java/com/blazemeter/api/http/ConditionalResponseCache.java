@@ -0,0 +1,308 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.api.http;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of GET responses with ETag or Last-Modified header for read-mostly endpoints.
+ * Cached response is revalidated by conditional request (If-None-Match / If-Modified-Since),
+ * on '304 Not Modified' the cached body is returned. Entries are keyed by URL and hash of Authorization header,
+ * count of entries is limited, least recently used are evicted.
+ * If file is set, cache is loaded from it on creation and written by save().
+ */
+public class ConditionalResponseCache implements Interceptor {
+
+    public static final List<String> DEFAULT_PATHS = Arrays.asList("/api/v4/tests/", "/api/v4/multi-tests/",
+            "/api/v4/user", "/api/v4/accounts", "/api/v4/workspaces", "/api/v4/projects");
+    public static final int DEFAULT_MAX_ENTRIES = 500;
+    public static final int MAX_BODY_SIZE = 1024 * 1024;
+
+    private static final int MAGIC = 0x425A4843; // 'BZHC'
+    private static final int VERSION = 1;
+
+    private final LinkedHashMap<String, Entry> entries;
+    private final List<String> paths;
+    private final File file;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+
+    public ConditionalResponseCache() {
+        this(DEFAULT_PATHS, DEFAULT_MAX_ENTRIES, null);
+    }
+
+    /**
+     * @param paths      - prefixes of cached URL paths
+     * @param maxEntries - max count of cached responses
+     * @param file       - file for persisting cache, null - cache is kept in memory only
+     */
+    public ConditionalResponseCache(List<String> paths, final int maxEntries, File file) {
+        this.paths = new ArrayList<>(paths);
+        this.file = file;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        if (file != null && file.exists()) {
+            load();
+        }
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!isCacheable(request)) {
+            return chain.proceed(request);
+        }
+
+        String key = key(request);
+        Entry cached;
+        synchronized (this) {
+            cached = entries.get(key);
+        }
+        if (cached == null) {
+            misses.incrementAndGet();
+            return store(key, chain.proceed(request));
+        }
+
+        revalidations.incrementAndGet();
+        Request.Builder conditional = request.newBuilder();
+        if (cached.etag != null) {
+            conditional.header("If-None-Match", cached.etag);
+        }
+        if (cached.lastModified != null) {
+            conditional.header("If-Modified-Since", cached.lastModified);
+        }
+        Response response = chain.proceed(conditional.build());
+        if (response.code() == 304) {
+            hits.incrementAndGet();
+            if (response.body() != null) {
+                response.body().close();
+            }
+            return response.newBuilder()
+                    .request(request)
+                    .code(200)
+                    .message("OK")
+                    .body(ResponseBody.create(cached.contentType != null ? MediaType.parse(cached.contentType) : null, cached.body))
+                    .build();
+        }
+        return store(key, response);
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return count of responses, that were returned from cache after revalidation
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return count of requests without cached response
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return count of conditional requests
+     */
+    public long getRevalidations() {
+        return revalidations.get();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Writes cached responses to file
+     */
+    public void save() throws IOException {
+        if (file == null) {
+            return;
+        }
+        Map<String, Entry> copy;
+        synchronized (this) {
+            copy = new LinkedHashMap<>(entries);
+        }
+        File dir = file.getAbsoluteFile().getParentFile();
+        File temp = File.createTempFile(file.getName(), ".tmp", dir);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(copy.size());
+                for (Map.Entry<String, Entry> entry : copy.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    writeString(out, entry.getValue().etag);
+                    writeString(out, entry.getValue().lastModified);
+                    writeString(out, entry.getValue().contentType);
+                    out.writeInt(entry.getValue().body.length);
+                    out.write(entry.getValue().body);
+                }
+            }
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    protected boolean isCacheable(Request request) {
+        if (!"GET".equals(request.method())) {
+            return false;
+        }
+        String path = request.url().encodedPath();
+        for (String prefix : paths) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Response store(String key, Response response) throws IOException {
+        String etag = response.header("ETag");
+        String lastModified = response.header("Last-Modified");
+        ResponseBody body = response.body();
+        if (response.code() != 200 || (etag == null && lastModified == null) || body == null
+                || body.contentLength() > MAX_BODY_SIZE) {
+            return response;
+        }
+
+        MediaType contentType = body.contentType();
+        byte[] bytes = body.bytes();
+        if (bytes.length <= MAX_BODY_SIZE) {
+            Entry entry = new Entry(etag, lastModified, contentType != null ? contentType.toString() : null, bytes);
+            synchronized (this) {
+                entries.put(key, entry);
+            }
+        }
+        return response.newBuilder().body(ResponseBody.create(contentType, bytes)).build();
+    }
+
+    private void load() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return;
+            }
+            int count = in.readInt();
+            Map<String, Entry> loaded = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                String etag = readString(in);
+                String lastModified = readString(in);
+                String contentType = readString(in);
+                int length = in.readInt();
+                if (length < 0 || length > MAX_BODY_SIZE) {
+                    return;
+                }
+                byte[] body = new byte[length];
+                in.readFully(body);
+                loaded.put(key, new Entry(etag, lastModified, contentType, body));
+            }
+            synchronized (this) {
+                entries.putAll(loaded);
+            }
+        } catch (IOException ex) {
+            // broken cache file is ignored
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Credentials are not kept in key as is, because key is written to file
+     */
+    private static String key(Request request) {
+        String auth = request.header(HttpUtils.AUTHORIZATION);
+        return request.url() + " " + (auth == null ? "" : sha256(auth));
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder();
+            for (byte b : digest) {
+                builder.append(String.format("%02x", b));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static class Entry {
+        private final String etag;
+        private final String lastModified;
+        private final String contentType;
+        private final byte[] body;
+
+        private Entry(String etag, String lastModified, String contentType, byte[] body) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.api.http;
+
+import okhttp3.Request;
+import okhttp3.Response;
+import org.apache.commons.lang.StringUtils;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retries 5xx responses, 429 and timeouts with exponential backoff and full jitter.
+ * 4xx responses are not retried, except 429 and 408. '304 Not Modified' is a success of conditional request.
+ * Only GET and HEAD requests or requests with 'Idempotency-Key' header are retried.
+ * Retry-After header of 429 and 503 responses is used as delay instead of backoff.
+ * <p>
+ * Retries are limited by budget: each retry takes one token, each successful response returns
+ * 'tokenRatio' token, so failing backend does not get more requests than it was asked for.
+ */
+public class DefaultRetryPolicy implements RetryPolicy {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String RETRY_AFTER = "Retry-After";
+
+    public enum FailureType {
+        SUCCESS, CLIENT_ERROR, TOO_MANY_REQUESTS, SERVER_ERROR, TIMEOUT, OTHER
+    }
+
+    private final int maxAttempts;
+    private final long baseDelay;
+    private final long maxDelay;
+    private final long maxRetryAfter;
+    private final double maxTokens;
+    private final double tokenRatio;
+    private double tokens;
+
+    public DefaultRetryPolicy() {
+        this(-1, 1000, 30000, 120000, 10, 0.1);
+    }
+
+    /**
+     * @param maxAttempts   - max count of attempts, if it is negative - 'bzm.request.retries.count' is used
+     * @param baseDelay     - backoff delay of the first retry in ms, each next retry doubles it
+     * @param maxDelay      - max backoff delay in ms
+     * @param maxRetryAfter - max accepted Retry-After delay in ms, request is not retried, if server asks to wait longer
+     * @param maxTokens     - retries budget
+     * @param tokenRatio    - part of token, that is returned to budget by successful response
+     */
+    public DefaultRetryPolicy(int maxAttempts, long baseDelay, long maxDelay, long maxRetryAfter,
+                              double maxTokens, double tokenRatio) {
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.maxRetryAfter = maxRetryAfter;
+        this.maxTokens = maxTokens;
+        this.tokenRatio = tokenRatio;
+        this.tokens = maxTokens;
+    }
+
+    @Override
+    public long getRetryDelay(Request request, Response response, IOException ex, int attempt) {
+        FailureType type = classify(response, ex);
+        if (type == FailureType.SUCCESS) {
+            returnToken();
+            return NO_RETRY;
+        }
+
+        if (type == FailureType.CLIENT_ERROR || !isRetryable(request) || attempt >= getMaxAttempts()) {
+            return NO_RETRY;
+        }
+
+        long delay = backoff(attempt);
+        if (response != null && (type == FailureType.TOO_MANY_REQUESTS || response.code() == 503)) {
+            long retryAfter = getRetryAfter(response);
+            if (retryAfter > maxRetryAfter) {
+                return NO_RETRY;
+            } else if (retryAfter >= 0) {
+                delay = retryAfter;
+            }
+        }
+
+        return takeToken() ? delay : NO_RETRY;
+    }
+
+    public FailureType classify(Response response, IOException ex) {
+        if (response == null) {
+            return (ex instanceof SocketTimeoutException) ? FailureType.TIMEOUT : FailureType.OTHER;
+        }
+
+        int code = response.code();
+        if (response.isSuccessful() || code == 304) {
+            return FailureType.SUCCESS;
+        } else if (code == 429) {
+            return FailureType.TOO_MANY_REQUESTS;
+        } else if (code == 408) {
+            return FailureType.TIMEOUT;
+        } else if (code >= 400 && code < 500) {
+            return FailureType.CLIENT_ERROR;
+        } else if (code >= 500 && code < 600) {
+            return FailureType.SERVER_ERROR;
+        }
+        return FailureType.OTHER;
+    }
+
+    protected boolean isRetryable(Request request) {
+        String method = request.method();
+        return "GET".equals(method) || "HEAD".equals(method) || !StringUtils.isBlank(request.header(IDEMPOTENCY_KEY));
+    }
+
+    /**
+     * @return random delay in [0, min(maxDelay, baseDelay * 2 ^ (attempt - 1))]
+     */
+    protected long backoff(int attempt) {
+        long delay = baseDelay << Math.min(attempt - 1, 30);
+        if (delay <= 0 || delay > maxDelay) {
+            delay = maxDelay;
+        }
+        return ThreadLocalRandom.current().nextLong(delay + 1);
+    }
+
+    /**
+     * @return Retry-After header value in ms or -1, if header is absent or invalid
+     */
+    protected long getRetryAfter(Response response) {
+        String value = response.header(RETRY_AFTER);
+        if (StringUtils.isBlank(value)) {
+            return -1;
+        }
+
+        value = value.trim();
+        try {
+            return Math.max(0, Long.parseLong(value) * 1000);
+        } catch (NumberFormatException ex) {
+            try {
+                ZonedDateTime date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, date.toInstant().toEpochMilli() - System.currentTimeMillis());
+            } catch (DateTimeParseException e) {
+                return -1;
+            }
+        }
+    }
+
+    public int getMaxAttempts() {
+        return (maxAttempts < 0) ? RetryInterceptor.getRetriesCount() : maxAttempts;
+    }
+
+    public synchronized double getTokens() {
+        return tokens;
+    }
+
+    protected synchronized boolean takeToken() {
+        if (tokens >= 1) {
+            tokens--;
+            return true;
+        }
+        return false;
+    }
+
+    protected synchronized void returnToken() {
+        tokens = Math.min(maxTokens, tokens + tokenRatio);
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazemeter.api.http;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * Request body, that streams region of file from disk by blocks.
+ * Each block is passed through throttle and reported to progress listener.
+ */
+public class FileRegionBody extends RequestBody {
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    private final MediaType contentType;
+    private final File file;
+    private final long offset;
+    private final long length;
+    private final ProgressListener listener;
+    private final BandwidthThrottle throttle;
+
+    /**
+     * @param offset   - first byte of region
+     * @param length   - size of region
+     * @param listener - receives position in file after each block, null - no progress events
+     * @param throttle - limits upload rate, null - unlimited
+     */
+    public FileRegionBody(MediaType contentType, File file, long offset, long length,
+                          ProgressListener listener, BandwidthThrottle throttle) {
+        this.contentType = contentType;
+        this.file = file;
+        this.offset = offset;
+        this.length = length;
+        this.listener = listener;
+        this.throttle = throttle;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return contentType;
+    }
+
+    @Override
+    public long contentLength() {
+        return length;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        long total = file.length();
+        byte[] block = new byte[BLOCK_SIZE];
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            in.seek(offset);
+            long written = 0;
+            while (written < length) {
+                int count = in.read(block, 0, (int) Math.min(block.length, length - written));
+                if (count < 0) {
+                    throw new IOException("File " + file.getName() + " was truncated during upload");
+                }
+                if (throttle != null) {
+                    throttle.acquire(count);
+                }
+                sink.write(block, 0, count);
+                written += count;
+                if (listener != null) {
+                    sink.flush();
+                    listener.onProgress(offset + written, total);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.api.http;
+
+import com.blazemeter.api.utils.VirtualThreads;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connection pool, dispatcher and executor, that can be shared by many HttpUtils instances.
+ * Instances with different credentials, but the same host reuse connections and TLS sessions.
+ * <pre>
+ * HttpClientPool pool = new HttpClientPool.Builder().maxIdleConnections(50).maxRequestsPerHost(100).build();
+ * BlazeMeterUtils utils1 = new BlazeMeterUtils(key1, secret1, address, dataAddress, notifier, logger, pool);
+ * BlazeMeterUtils utils2 = new BlazeMeterUtils(key2, secret2, address, dataAddress, notifier, logger, pool);
+ * </pre>
+ * With virtual threads enabled (see @link com.blazemeter.api.utils.VirtualThreads) each blocking request
+ * and each async call runs on its own virtual thread instead of pooled platform threads.
+ */
+public class HttpClientPool {
+
+    private final ConnectionPool connectionPool;
+    private final Dispatcher dispatcher;
+    private final ExecutorService executor;
+
+    public HttpClientPool() {
+        this(new Builder());
+    }
+
+    protected HttpClientPool(Builder builder) {
+        this.connectionPool = new ConnectionPool(builder.maxIdleConnections, builder.keepAliveDuration, TimeUnit.MILLISECONDS);
+        ExecutorService virtualExecutor = builder.virtualThreads ? VirtualThreads.newVirtualThreadPerTaskExecutor() : null;
+        this.executor = (virtualExecutor != null) ? virtualExecutor : createExecutor(builder.executorThreads, builder.threadNamePrefix);
+        this.dispatcher = new Dispatcher((virtualExecutor != null) ? virtualExecutor : createDispatcherExecutor(builder.threadNamePrefix));
+        this.dispatcher.setMaxRequests(builder.maxRequests);
+        this.dispatcher.setMaxRequestsPerHost(builder.maxRequestsPerHost);
+    }
+
+    protected ExecutorService createExecutor(int threads, String threadNamePrefix) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new DaemonThreadFactory(threadNamePrefix + "-request-"));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Same as OkHttp default dispatcher executor, but with named threads
+     */
+    protected ExecutorService createDispatcherExecutor(String threadNamePrefix) {
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), new DaemonThreadFactory(threadNamePrefix + "-dispatcher-"));
+    }
+
+    public ConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+
+    public Dispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * @return executor for blocking requests @link com.blazemeter.api.http.HttpUtils#executeRequest(okhttp3.Request)
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    public boolean isVirtualThreads() {
+        return dispatcher.executorService() == executor;
+    }
+
+    /**
+     * Cancels all calls, stops threads and closes idle connections
+     */
+    public void shutdown() {
+        dispatcher.cancelAll();
+        dispatcher.executorService().shutdown();
+        executor.shutdown();
+        connectionPool.evictAll();
+    }
+
+    public static class Builder {
+        private int maxIdleConnections = 5;
+        private long keepAliveDuration = TimeUnit.MINUTES.toMillis(5);
+        private int maxRequests = 64;
+        private int maxRequestsPerHost = 5;
+        private int executorThreads = 4;
+        private String threadNamePrefix = "bzm-http";
+        private boolean virtualThreads = VirtualThreads.isEnabled();
+
+        /**
+         * @param maxIdleConnections - max count of idle connections, that are kept in pool
+         */
+        public Builder maxIdleConnections(int maxIdleConnections) {
+            this.maxIdleConnections = maxIdleConnections;
+            return this;
+        }
+
+        /**
+         * @param keepAliveDuration - time to keep idle connection in pool
+         */
+        public Builder keepAliveDuration(long keepAliveDuration, TimeUnit unit) {
+            this.keepAliveDuration = unit.toMillis(keepAliveDuration);
+            return this;
+        }
+
+        /**
+         * @param maxRequests - max count of async requests that are executed concurrently
+         */
+        public Builder maxRequests(int maxRequests) {
+            this.maxRequests = maxRequests;
+            return this;
+        }
+
+        /**
+         * @param maxRequestsPerHost - max count of async requests that are executed concurrently for each host
+         */
+        public Builder maxRequestsPerHost(int maxRequestsPerHost) {
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            return this;
+        }
+
+        /**
+         * @param executorThreads - threads count for blocking requests
+         */
+        public Builder executorThreads(int executorThreads) {
+            this.executorThreads = executorThreads;
+            return this;
+        }
+
+        public Builder threadNamePrefix(String threadNamePrefix) {
+            this.threadNamePrefix = threadNamePrefix;
+            return this;
+        }
+
+        /**
+         * @param virtualThreads - run requests on virtual threads, if runtime supports them (Java 21+).
+         *                       Default value is taken from 'bzm.virtualThreads' system property
+         */
+        public Builder virtualThreads(boolean virtualThreads) {
+            this.virtualThreads = virtualThreads;
+            return this;
+        }
+
+        public HttpClientPool build() {
+            return new HttpClientPool(this);
+        }
+    }
+
+    protected static class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+        private final String prefix;
+
+        public DaemonThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -15,6 +15,9 @@
 package com.blazemeter.api.http;
 
 import com.blazemeter.api.exception.InterruptRuntimeException;
+import com.blazemeter.api.exception.UnexpectedResponseException;
+import com.blazemeter.api.json.JsonDecoder;
+import com.blazemeter.api.json.JsonReader;
 import com.blazemeter.api.logging.Logger;
 import net.sf.json.JSONObject;
 import okhttp3.*;
@@ -22,7 +25,10 @@ import okhttp3.logging.HttpLoggingInterceptor;
 import org.apache.commons.lang.StringUtils;
 
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
 import java.util.concurrent.*;
@@ -48,11 +54,27 @@ public class HttpUtils {
     protected Logger logger;
 
     protected OkHttpClient httpClient;
-    protected final ExecutorService service = Executors.newFixedThreadPool(4);
+    protected final HttpClientPool clientPool;
+    protected final ExecutorService service;
+    private final boolean streaming;
+    private volatile SingleFlight singleFlight;
+    private volatile ConditionalResponseCache responseCache;
+    private OkHttpClient transferClient;
 
     public HttpUtils(Logger logger) {
+        this(logger, new HttpClientPool());
+    }
+
+    /**
+     * @param logger - logger, for log events of http requests / response etc.
+     * @param clientPool - connection pool, dispatcher and executor, that can be shared with other HttpUtils
+     */
+    public HttpUtils(Logger logger, HttpClientPool clientPool) {
         this.logger = logger;
+        this.clientPool = clientPool;
+        this.service = clientPool.getExecutor();
         this.httpClient = createHTTPClient();
+        this.streaming = isStreamingSupported();
     }
 
     /**
@@ -80,12 +102,36 @@ public class HttpUtils {
      * Create Post Request with json body
      */
     public Request createPost(String url, File data) {
+        return createPost(url, data.getAbsolutePath(), RequestBody.create(FILE_STREAM, data));
+    }
+
+    /**
+     * Create Post Request with multipart file body, that is streamed from disk
+     * @param listener - receives count of written bytes, null - no progress events
+     * @param throttle - limits upload rate, null - unlimited
+     */
+    public Request createPost(String url, File data, ProgressListener listener, BandwidthThrottle throttle) {
+        return createPost(url, data.getAbsolutePath(), new FileRegionBody(FILE_STREAM, data, 0, data.length(), listener, throttle));
+    }
+
+    /**
+     * Create Post Request with multipart file body
+     * @param fileName - name of file in form data
+     */
+    public Request createPost(String url, String fileName, RequestBody data) {
         MultipartBody.Builder bodyBuilder = new MultipartBody.Builder();
-        bodyBuilder.addPart(MultipartBody.Part.createFormData("file", data.getAbsolutePath(), RequestBody.create(FILE_STREAM, data)));
+        bodyBuilder.addPart(MultipartBody.Part.createFormData("file", fileName, data));
         bodyBuilder.setType(MultipartBody.FORM);
         return createRequestBuilder(url).post(bodyBuilder.build()).build();
     }
 
+    /**
+     * Create Put Request
+     */
+    public Request createPut(String url, RequestBody data) {
+        return createRequestBuilder(url).put(data).build();
+    }
+
     /**
      * Create Patch Request
      */
@@ -106,24 +152,183 @@ public class HttpUtils {
      * @return - response in JSONObject
      */
     public JSONObject execute(Request request) throws IOException {
-        return processResponse(executeRequest(request));
+        return streaming ? execute(request, this::decodeResponse) : processResponse(executeRequest(request));
+    }
+
+    /**
+     * Execute Http request and decode response body while it is read from connection
+     * @param request - HTTP Request
+     * @param decoder - reads value from response body
+     * @return - decoded response
+     */
+    public <T> T execute(Request request, JsonDecoder<T> decoder) throws IOException {
+        if (!streaming) {
+            return decoder.decode(JsonReader.of(executeRequest(request)));
+        }
+
+        final SingleFlight flight = singleFlight;
+        if (flight != null) {
+            Content content = flight.execute(request, () -> readContent(request));
+            return withStatus(content.code, () -> decoder.decode(JsonReader.of(content.body)));
+        }
+
+        try (Response response = sendRequest(request)) {
+            return withStatus(response.code(), () -> decoder.decode(new JsonReader(response.body().source())));
+        }
+    }
+
+    /**
+     * Error, that is found in body of unsuccessful response, gets HTTP status of response as its code
+     */
+    private static <T> T withStatus(int code, BodyReader<T> reader) throws IOException {
+        try {
+            return reader.read();
+        } catch (UnexpectedResponseException ex) {
+            if (code < 300 || ex.getCode() == code) {
+                throw ex;
+            }
+            throw new UnexpectedResponseException(ex.getMessage(), code, ex);
+        }
+    }
+
+    private Content readContent(Request request) throws IOException {
+        try (Response response = sendRequest(request)) {
+            return new Content(response.code(), response.body().string());
+        }
     }
 
     protected JSONObject processResponse(String response) {
         return JSONObject.fromObject(response);
     }
 
+    /**
+     * Streaming twin of processResponse(String)
+     */
+    protected JSONObject decodeResponse(JsonReader reader) throws IOException {
+        return reader.readJSONObject();
+    }
+
+    /**
+     * Opt-in for decoding of responses from stream: execute(Request) calls decodeResponse(JsonReader)
+     * instead of processResponse(executeRequest(Request)).
+     * Subclass, that returns true, must keep decodeResponse(JsonReader) consistent with processResponse(String)
+     * and must not rely on overridden executeRequest(Request) in execute(Request).
+     * It is called from constructor, so it must not depend on fields of subclass.
+     * @return false - response is read to String and processed as before
+     */
+    protected boolean isStreamingSupported() {
+        return false;
+    }
+
     /**
      * Execute Http request
      * @param request - HTTP Request
      * @return - response in String
      */
-    public String executeRequest(Request request) throws IOException {
-        RequestTask task = new RequestTask(httpClient, request);
-        Future<Response> future = service.submit(task);
+    public String executeRequest(final Request request) throws IOException {
+        SingleFlight flight = singleFlight;
+        if (flight != null) {
+            return flight.execute(request, () -> readContent(request)).body;
+        }
+        return sendRequest(request).body().string();
+    }
+
+    protected Response sendRequest(Request request) throws IOException {
+        return send(httpClient, request);
+    }
+
+    /**
+     * Execute upload request. Request body is written to connection only once
+     * and it is not logged, so large and streamed bodies are not buffered in memory.
+     * @param request - HTTP Request
+     * @return - response in JSONObject
+     */
+    public JSONObject executeUpload(Request request) throws IOException {
+        try (Response response = sendTransferRequest(request)) {
+            final String body = response.body().string();
+            return withStatus(response.code(), () -> processResponse(body));
+        }
+    }
+
+    /**
+     * Create Get Request of artifact, e.g. signed url of report archive.
+     * Credentials and API headers are not added.
+     */
+    public Request createDownload(String url) {
+        return new Request.Builder().url(url).get().build();
+    }
+
+    /**
+     * Download response body with shared connection pool, proxy and interceptors.
+     * Body is passed to reader while it is received, it is not buffered in memory and not logged.
+     * Interrupt of current thread cancels the call.
+     * @param request - HTTP Request
+     * @param reader - reads response body, e.g. saves it to disk
+     * @return - value returned by reader
+     */
+    public <T> T download(Request request, StreamReader<T> reader) throws IOException {
+        final Call call = getTransferClient().newCall(request);
+        final CompletableFuture<Response> future = new CompletableFuture<>();
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                future.completeExceptionally(e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                if (!future.complete(response)) {
+                    response.close();
+                }
+            }
+        });
+
         Response response;
         try {
             response = future.get();
+        } catch (InterruptedException e) {
+            call.cancel();
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Download has been interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw (cause instanceof IOException) ? (IOException) cause : new IOException(cause.getMessage(), cause);
+        }
+
+        try (ResponseBody body = response.body()) {
+            if (!response.isSuccessful()) {
+                throw new IOException("Unexpected response code " + response.code() + " for " + request.url());
+            }
+            return reader.read(new CallInputStream(body.byteStream(), call));
+        }
+    }
+
+    protected Response sendTransferRequest(Request request) throws IOException {
+        return send(getTransferClient(), request);
+    }
+
+    /**
+     * @return client for uploads and downloads, that shares connections and interceptors with main client,
+     * but logs only headers, so request and response bodies are not buffered in memory
+     */
+    protected synchronized OkHttpClient getTransferClient() {
+        if (transferClient == null) {
+            OkHttpClient.Builder builder = httpClient.newBuilder();
+            builder.interceptors().removeIf(interceptor -> interceptor instanceof HttpLoggingInterceptor
+                    || interceptor instanceof LimitedLoggingInterceptor);
+            HttpLoggingInterceptor httpLog = new HttpLoggingInterceptor(new HttpLogger(logger));
+            httpLog.setLevel(HttpLoggingInterceptor.Level.HEADERS);
+            transferClient = builder.addInterceptor(httpLog).build();
+        }
+        return transferClient;
+    }
+
+    private Response send(OkHttpClient client, Request request) throws IOException {
+        RequestTask task = new RequestTask(client, request);
+        Future<Response> future = service.submit(task);
+        try {
+            return future.get();
         } catch (InterruptedException e) {
             future.cancel(true);
             logger.warn("Caught InterruptedException ", e);
@@ -133,7 +338,48 @@ public class HttpUtils {
             logger.warn("Caught ExecutionException ", e);
             throw new IOException(e.getMessage(), e);
         }
-        return response.body().string();
+    }
+
+    /**
+     * Execute Http request without blocking current thread
+     * @param request - HTTP Request
+     * @return - future of response in JSONObject
+     */
+    public CompletableFuture<JSONObject> executeAsync(Request request) {
+        CompletableFuture<String> response = executeRequestAsync(request);
+        return cancelWith(response.thenApply(this::processResponse), response);
+    }
+
+    /**
+     * Execute Http request without blocking current thread.
+     * Request is enqueued to OkHttp dispatcher, cancel of returned future cancels the call.
+     * @param request - HTTP Request
+     * @return - future of response in String
+     */
+    public CompletableFuture<String> executeRequestAsync(Request request) {
+        final Call call = httpClient.newCall(request);
+        CompletableFuture<String> future = new CompletableFuture<String>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                call.cancel();
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        call.enqueue(new RequestCallback(future));
+        return future;
+    }
+
+    /**
+     * Cancels 'source' future, when 'dependent' future has been cancelled
+     * @return dependent future
+     */
+    public static <T> CompletableFuture<T> cancelWith(CompletableFuture<T> dependent, final Future<?> source) {
+        dependent.whenComplete((result, ex) -> {
+            if (ex instanceof CancellationException) {
+                source.cancel(true);
+            }
+        });
+        return dependent;
     }
 
     protected String extractErrorMessage(String response) {
@@ -163,10 +409,57 @@ public class HttpUtils {
         return logger;
     }
 
+    public HttpClientPool getClientPool() {
+        return clientPool;
+    }
+
+    /**
+     * @return true - if execute(Request) decodes response from stream
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    private Response interceptWithCache(Interceptor.Chain chain) throws IOException {
+        ConditionalResponseCache cache = responseCache;
+        return (cache != null) ? cache.intercept(chain) : chain.proceed(chain.request());
+    }
+
+    public ConditionalResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * @param responseCache - cache of read-mostly GET responses, that are revalidated by conditional requests,
+     *                      null - disabled (by default)
+     */
+    public void setResponseCache(ConditionalResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    public SingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+
+    /**
+     * @param singleFlight - coalesces identical concurrent GET requests of executeRequest, null - disabled (by default).
+     *                     Coalesced responses are decoded from String, not from stream.
+     */
+    public void setSingleFlight(SingleFlight singleFlight) {
+        this.singleFlight = singleFlight;
+    }
+
     public void setLogger(Logger logger) {
         this.logger = logger;
     }
 
+    /**
+     * Override this method if you want to change retries of failed requests
+     */
+    protected RetryPolicy createRetryPolicy() {
+        return new DefaultRetryPolicy();
+    }
+
     protected OkHttpClient createHTTPClient() {
         Proxy proxy = Proxy.NO_PROXY;
         Authenticator auth = Authenticator.NONE;
@@ -179,12 +472,15 @@ public class HttpUtils {
                 auth = createAuthenticator();
             }
 
-            HttpLoggingInterceptor httpLog = new HttpLoggingInterceptor(new HttpLogger(logger));
-            httpLog.setLevel(HttpLoggingInterceptor.Level.BODY);
+            // bodies are logged up to limit, so streamed responses are not buffered for logging
+            Interceptor httpLog = new LimitedLoggingInterceptor(new HttpLogger(logger));
 
             return new OkHttpClient.Builder()
-                    .addInterceptor(new RetryInterceptor(logger))
+                    .addInterceptor(this::interceptWithCache)
+                    .addInterceptor(new RetryInterceptor(logger, createRetryPolicy()))
                     .addInterceptor(httpLog)
+                    .connectionPool(clientPool.getConnectionPool())
+                    .dispatcher(clientPool.getDispatcher())
                     .connectTimeout(180, TimeUnit.SECONDS)
                     .readTimeout(60, TimeUnit.SECONDS)
                     .proxy(proxy)
@@ -217,6 +513,37 @@ public class HttpUtils {
         return Authenticator.NONE;
     }
 
+    /**
+     * Cancels call, when thread, that reads response body, is interrupted
+     */
+    private static class CallInputStream extends FilterInputStream {
+        private final Call call;
+
+        private CallInputStream(InputStream in, Call call) {
+            super(in);
+            this.call = call;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkInterrupted();
+            return super.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkInterrupted();
+            return super.read(b, off, len);
+        }
+
+        private void checkInterrupted() throws InterruptedIOException {
+            if (Thread.currentThread().isInterrupted()) {
+                call.cancel();
+                throw new InterruptedIOException("Download has been interrupted");
+            }
+        }
+    }
+
     protected static class AuthenticatorExt implements Authenticator {
         private final String proxyUser;
         private final String proxyPass;
@@ -238,4 +565,21 @@ public class HttpUtils {
                     .build();
         }
     }
+
+    private interface BodyReader<T> {
+        T read() throws IOException;
+    }
+
+    /**
+     * Status and body of response
+     */
+    private static class Content {
+        private final int code;
+        private final String body;
+
+        private Content(int code, String body) {
+            this.code = code;
+            this.body = body;
+        }
+    }
 }
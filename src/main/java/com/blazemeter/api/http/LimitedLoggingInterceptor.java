@@ -0,0 +1,167 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazemeter.api.http;
+
+import okhttp3.Headers;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okhttp3.logging.HttpLoggingInterceptor;
+import okio.Buffer;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs requests and responses in format of HttpLoggingInterceptor with BODY level,
+ * but only first 'bodyLimit' bytes of bodies are logged. Response body is peeked up to limit,
+ * so large response is not buffered in memory for logging and is decoded while it is read from connection.
+ */
+public class LimitedLoggingInterceptor implements Interceptor {
+
+    public static final long DEFAULT_BODY_LIMIT = 64 * 1024;
+
+    private final HttpLoggingInterceptor.Logger logger;
+    private final long bodyLimit;
+
+    public LimitedLoggingInterceptor(HttpLoggingInterceptor.Logger logger) {
+        this(logger, DEFAULT_BODY_LIMIT);
+    }
+
+    /**
+     * @param bodyLimit - max count of logged bytes of request and response body
+     */
+    public LimitedLoggingInterceptor(HttpLoggingInterceptor.Logger logger, long bodyLimit) {
+        this.logger = logger;
+        this.bodyLimit = bodyLimit;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        logRequest(request);
+
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException ex) {
+            logger.log("<-- HTTP FAILED: " + ex);
+            throw ex;
+        }
+        long tookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logResponse(response, tookMs);
+        return response;
+    }
+
+    private void logRequest(Request request) throws IOException {
+        RequestBody body = request.body();
+        logger.log("--> " + request.method() + ' ' + request.url());
+        if (body != null && body.contentType() != null) {
+            logger.log("Content-Type: " + body.contentType());
+        }
+        logHeaders(request.headers());
+        if (body == null) {
+            logger.log("--> END " + request.method());
+            return;
+        }
+        long length = body.contentLength();
+        if (length < 0 || length > bodyLimit) {
+            logger.log("--> END " + request.method() + " (" + (length < 0 ? "unknown-length" : length + "-byte") + " body omitted)");
+            return;
+        }
+        Buffer buffer = new Buffer();
+        body.writeTo(buffer);
+        if (!isPlaintext(buffer)) {
+            logger.log("--> END " + request.method() + " (binary " + length + "-byte body omitted)");
+            return;
+        }
+        logger.log("");
+        logger.log(buffer.readString(charset(body.contentType())));
+        logger.log("--> END " + request.method() + " (" + length + "-byte body)");
+    }
+
+    private void logResponse(Response response, long tookMs) throws IOException {
+        logger.log("<-- " + response.code() + (response.message().isEmpty() ? "" : ' ' + response.message())
+                + ' ' + response.request().url() + " (" + tookMs + "ms)");
+        logHeaders(response.headers());
+        ResponseBody body = response.body();
+        if (body == null) {
+            logger.log("<-- END HTTP");
+            return;
+        }
+        ResponseBody peeked = response.peekBody(bodyLimit);
+        long length = body.contentLength();
+        Buffer buffer = new Buffer();
+        buffer.writeAll(peeked.source());
+        long peekedLength = buffer.size();
+        if (!isPlaintext(buffer)) {
+            logger.log("<-- END HTTP (binary body omitted)");
+            return;
+        }
+        if (peekedLength > 0) {
+            logger.log("");
+            logger.log(buffer.readString(charset(body.contentType())));
+        }
+        if (length >= 0 && length <= bodyLimit) {
+            logger.log("<-- END HTTP (" + length + "-byte body)");
+        } else if (peekedLength < bodyLimit) {
+            logger.log("<-- END HTTP (" + peekedLength + "-byte body)");
+        } else {
+            logger.log("<-- END HTTP (first " + bodyLimit + " bytes of " + (length < 0 ? "unknown-length" : length + "-byte") + " body)");
+        }
+    }
+
+    private void logHeaders(Headers headers) {
+        for (int i = 0; i < headers.size(); i++) {
+            logger.log(headers.name(i) + ": " + headers.value(i));
+        }
+    }
+
+    /**
+     * @return true - if the first characters of body are not control characters, so body is probably a text
+     */
+    protected static boolean isPlaintext(Buffer buffer) {
+        try {
+            Buffer prefix = new Buffer();
+            buffer.copyTo(prefix, 0, Math.min(buffer.size(), 64));
+            for (int i = 0; i < 16 && !prefix.exhausted(); i++) {
+                int codePoint = prefix.readUtf8CodePoint();
+                if (Character.isISOControl(codePoint) && !Character.isWhitespace(codePoint)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (EOFException ex) {
+            return false;
+        }
+    }
+
+    private static Charset charset(MediaType contentType) {
+        Charset charset = (contentType != null) ? contentType.charset(StandardCharsets.UTF_8) : null;
+        return (charset != null) ? charset : StandardCharsets.UTF_8;
+    }
+
+    public long getBodyLimit() {
+        return bodyLimit;
+    }
+}
@@ -0,0 +1,28 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazemeter.api.http;
+
+/**
+ * Receives progress of request body upload or response body download
+ */
+public interface ProgressListener {
+
+    /**
+     * @param written - count of bytes, that are written to connection or received from it
+     * @param total   - size of transferred content, -1 - if it is unknown
+     */
+    void onProgress(long written, long total);
+}
@@ -0,0 +1,556 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazemeter.api.http;
+
+import com.blazemeter.api.exception.InterruptRuntimeException;
+import com.blazemeter.api.exception.UnexpectedResponseException;
+import com.blazemeter.api.logging.Logger;
+import com.blazemeter.api.utils.VirtualThreads;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resumable download of large file by ranges: the first request asks for 'Range: bytes=0-0'
+ * and 206 response with 'Content-Range: bytes 0-0/total' means that server supports ranges.
+ * Then file is split into chunks, that are fetched in parallel and written to preallocated
+ * '.part' file by positional writes. Downloaded bytes of each chunk are saved to '.state' file,
+ * so failed or interrupted download continues from them, even after restart of process,
+ * if server responds with the same 'ETag' and 'Last-Modified'.
+ * If server does not support ranges, file is downloaded by one request.
+ * Size of file and MD5 from 'x-goog-hash' or 'Content-MD5' headers are verified before
+ * '.part' file is renamed to target file.
+ */
+public class RangedDownload {
+
+    public static final long DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    protected static final int PARTIAL_CONTENT = 206;
+    protected static final int RANGE_NOT_SATISFIABLE = 416;
+    protected static final String PART_SUFFIX = ".part";
+    protected static final String STATE_SUFFIX = ".state";
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+
+    private final HttpUtils utils;
+    private final Logger logger;
+    private final String url;
+    private final File file;
+    private final File partFile;
+    private final File stateFile;
+
+    private long chunkSize = DEFAULT_CHUNK_SIZE;
+    private int concurrency = 4;
+    private int maxRetries = 3;
+    private long retryDelay = 1000;
+    private ProgressListener listener;
+
+    private final AtomicLong downloaded = new AtomicLong();
+    private final AtomicInteger retries = new AtomicInteger();
+    private long resumed;
+    private boolean ranged;
+
+    public RangedDownload(HttpUtils utils, String url, File file) {
+        this.utils = utils;
+        this.logger = utils.getLogger();
+        this.url = url;
+        this.file = file;
+        this.partFile = new File(file.getPath() + PART_SUFFIX);
+        this.stateFile = new File(file.getPath() + STATE_SUFFIX);
+    }
+
+    /**
+     * Downloads not saved part of file and verifies it
+     * @return downloaded file
+     */
+    public File download() throws IOException {
+        Resource resource;
+        try (Response response = utils.sendTransferRequest(createRangeRequest(0, 0, null))) {
+            if (response.code() == PARTIAL_CONTENT) {
+                resource = Resource.fromPartial(response);
+            } else if (response.isSuccessful()) {
+                return downloadWhole(response);
+            } else if (response.code() == RANGE_NOT_SATISFIABLE) {
+                // empty file has no ranges
+                try (Response whole = utils.sendTransferRequest(utils.createDownload(url))) {
+                    return downloadWhole(whole);
+                }
+            } else {
+                throw new UnexpectedResponseException("Download failed with " + response.code(), response.code());
+            }
+        }
+        ranged = true;
+        List<Chunk> chunks = prepare(resource);
+        fetch(resource, chunks);
+        verify(resource);
+        return complete();
+    }
+
+    private File downloadWhole(Response response) throws IOException {
+        if (!response.isSuccessful()) {
+            throw new UnexpectedResponseException("Download failed with " + response.code(), response.code());
+        }
+        ranged = false;
+        saveWhole(response);
+        verify(Resource.fromWhole(response));
+        return complete();
+    }
+
+    private Request createRangeRequest(long first, long last, String validator) {
+        Request.Builder builder = utils.createDownload(url).newBuilder()
+                .header("Range", "bytes=" + first + "-" + last)
+                .header("Accept-Encoding", "identity");
+        if (validator != null) {
+            builder.header("If-Range", validator);
+        }
+        return builder.build();
+    }
+
+    private void saveWhole(Response response) throws IOException {
+        ResponseBody body = response.body();
+        if (body == null) {
+            throw new IOException("Empty response for " + file.getName());
+        }
+        deleteState();
+        byte[] block = new byte[BLOCK_SIZE];
+        long total = body.contentLength();
+        try (InputStream in = body.byteStream(); OutputStream out = new FileOutputStream(partFile)) {
+            int count;
+            while ((count = in.read(block)) != -1) {
+                out.write(block, 0, count);
+                onProgress(count, total);
+            }
+        }
+    }
+
+    /**
+     * @return chunks of resource, that are not saved yet; '.part' file is reused if '.state' matches resource
+     */
+    private List<Chunk> prepare(Resource resource) throws IOException {
+        Properties state = loadState();
+        boolean resume = partFile.length() == resource.length && resource.isSameAs(state)
+                && String.valueOf(chunkSize).equals(state.getProperty("chunkSize"));
+        if (!resume) {
+            deleteState();
+            try (RandomAccessFile raf = new RandomAccessFile(partFile, "rw")) {
+                raf.setLength(resource.length);
+            }
+        }
+
+        List<Chunk> chunks = new ArrayList<>();
+        for (long first = 0; first < resource.length; first += chunkSize) {
+            Chunk chunk = new Chunk(chunks.size(), first, Math.min(first + chunkSize, resource.length) - 1);
+            if (resume) {
+                chunk.saved = Math.max(0, Math.min(parseLong(state.getProperty("chunk." + chunk.index)), chunk.length()));
+                resumed += chunk.saved;
+            }
+            chunks.add(chunk);
+        }
+        if (resumed > 0) {
+            logger.info(String.format("Resume download of %s from %d of %d bytes", file.getName(), resumed, resource.length));
+            onProgress(resumed, resource.length);
+        }
+        return chunks;
+    }
+
+    private void fetch(final Resource resource, final List<Chunk> chunks) throws IOException {
+        final Queue<Chunk> queue = new ConcurrentLinkedQueue<>();
+        for (Chunk chunk : chunks) {
+            if (!chunk.isDone()) {
+                queue.add(chunk);
+            }
+        }
+        int workers = Math.max(1, Math.min(concurrency, queue.size()));
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("bzm-download-");
+        try (FileChannel channel = FileChannel.open(partFile.toPath(), StandardOpenOption.WRITE)) {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(() -> {
+                    Chunk chunk;
+                    while ((chunk = queue.poll()) != null) {
+                        fetch(channel, resource, chunk);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+            channel.force(false);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptRuntimeException("Download has been interrupted", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw (cause instanceof IOException) ? (IOException) cause : new IOException(cause.getMessage(), cause);
+        } finally {
+            executor.shutdownNow();
+            saveState(resource, chunks);
+        }
+    }
+
+    private void fetch(FileChannel channel, Resource resource, Chunk chunk) throws IOException {
+        int failures = 0;
+        while (!chunk.isDone()) {
+            try {
+                fetchRange(channel, resource, chunk);
+            } catch (IOException ex) {
+                if (++failures > maxRetries) {
+                    throw ex;
+                }
+                retries.incrementAndGet();
+                logger.warn(String.format("Failed to download chunk of %s from byte %d, retry %d of %d. Reason is: %s",
+                        file.getName(), chunk.first + chunk.saved, failures, maxRetries, ex.getMessage()));
+                sleep(retryDelay * failures);
+            }
+        }
+    }
+
+    private void fetchRange(FileChannel channel, Resource resource, Chunk chunk) throws IOException {
+        long first = chunk.first + chunk.saved;
+        try (Response response = utils.sendTransferRequest(createRangeRequest(first, chunk.last, resource.validator()))) {
+            int code = response.code();
+            if (code == 200) {
+                throw new UnexpectedResponseException("File " + file.getName() + " has been changed during download", code);
+            } else if (code >= 500 || code == 408 || code == 429) {
+                throw new IOException("Server responded with " + code);
+            } else if (code != PARTIAL_CONTENT) {
+                throw new UnexpectedResponseException("Download failed with " + code, code);
+            }
+            long start = parseContentRangeStart(response.header("Content-Range"));
+            if (start != first) {
+                throw new IOException("Server responded with range from " + start + " instead of " + first);
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE);
+            try (InputStream in = response.body().byteStream()) {
+                int count;
+                while (!chunk.isDone() && (count = in.read(buffer.array(), 0, (int) Math.min(BLOCK_SIZE, chunk.length() - chunk.saved))) != -1) {
+                    buffer.limit(count);
+                    long position = chunk.first + chunk.saved;
+                    while (buffer.hasRemaining()) {
+                        position += channel.write(buffer, position);
+                    }
+                    buffer.clear();
+                    chunk.saved += count;
+                    onProgress(count, resource.length);
+                }
+            }
+            if (!chunk.isDone()) {
+                throw new IOException("Unexpected end of range " + first + "-" + chunk.last);
+            }
+        }
+    }
+
+    private void verify(Resource resource) throws IOException {
+        if (resource.length >= 0 && partFile.length() != resource.length) {
+            discard();
+            throw new IOException(String.format("Downloaded %d bytes of %s instead of %d",
+                    partFile.length(), file.getName(), resource.length));
+        }
+        if (resource.md5 != null) {
+            String actual = md5(partFile);
+            if (!resource.md5.equals(actual)) {
+                discard();
+                throw new IOException(String.format("MD5 of %s is %s instead of %s", file.getName(), actual, resource.md5));
+            }
+        }
+    }
+
+    private File complete() throws IOException {
+        Files.move(partFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        deleteState();
+        return file;
+    }
+
+    private void discard() {
+        partFile.delete();
+        deleteState();
+    }
+
+    private void deleteState() {
+        stateFile.delete();
+    }
+
+    private Properties loadState() {
+        Properties state = new Properties();
+        if (stateFile.exists() && partFile.exists()) {
+            try (InputStream in = new FileInputStream(stateFile)) {
+                state.load(in);
+            } catch (IOException ex) {
+                logger.warn("Failed to read state of download " + stateFile.getName(), ex);
+            }
+        }
+        return state;
+    }
+
+    private void saveState(Resource resource, List<Chunk> chunks) {
+        Properties state = new Properties();
+        state.setProperty("length", String.valueOf(resource.length));
+        if (resource.etag != null) {
+            state.setProperty("etag", resource.etag);
+        }
+        if (resource.lastModified != null) {
+            state.setProperty("lastModified", resource.lastModified);
+        }
+        state.setProperty("chunkSize", String.valueOf(chunkSize));
+        for (Chunk chunk : chunks) {
+            state.setProperty("chunk." + chunk.index, String.valueOf(chunk.saved));
+        }
+        try (OutputStream out = new FileOutputStream(stateFile)) {
+            state.store(out, null);
+        } catch (IOException ex) {
+            logger.warn("Failed to save state of download " + stateFile.getName(), ex);
+        }
+    }
+
+    private void onProgress(long count, long total) {
+        long current = downloaded.addAndGet(count);
+        if (listener != null) {
+            listener.onProgress(current, total);
+        }
+    }
+
+    /**
+     * @return first byte from 'Content-Range: bytes first-last/total' header, -1 - if header is absent
+     */
+    protected static long parseContentRangeStart(String range) {
+        if (range == null || !range.startsWith("bytes ") || range.indexOf('-') < 0) {
+            return -1;
+        }
+        return parseLong(range.substring("bytes ".length(), range.indexOf('-')).trim());
+    }
+
+    /**
+     * @return total size from 'Content-Range: bytes first-last/total' header, -1 - if it is unknown
+     */
+    protected static long parseContentRangeTotal(String range) {
+        if (range == null || range.indexOf('/') < 0) {
+            return -1;
+        }
+        return parseLong(range.substring(range.indexOf('/') + 1).trim());
+    }
+
+    /**
+     * @return base64 MD5 from 'x-goog-hash: crc32c=..., md5=...' header, null - if it is absent
+     */
+    protected static String parseMd5(String hashes) {
+        if (hashes == null) {
+            return null;
+        }
+        for (String hash : hashes.split(",")) {
+            hash = hash.trim();
+            if (hash.startsWith("md5=")) {
+                return hash.substring("md5=".length());
+            }
+        }
+        return null;
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return (value == null) ? -1 : Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    protected static String md5(File file) throws IOException {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            byte[] block = new byte[BLOCK_SIZE];
+            try (InputStream in = new FileInputStream(file)) {
+                int count;
+                while ((count = in.read(block)) != -1) {
+                    digest.update(block, 0, count);
+                }
+            }
+            return Base64.getEncoder().encodeToString(digest.digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException("MD5 is not supported", ex);
+        }
+    }
+
+    private static void sleep(long delay) {
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptRuntimeException("Download has been interrupted", ex);
+        }
+    }
+
+    /**
+     * @return count of bytes, that were saved by previous download and were not requested again
+     */
+    public long getResumed() {
+        return resumed;
+    }
+
+    /**
+     * @return true - if server supports ranges and file has been downloaded by chunks
+     */
+    public boolean isRanged() {
+        return ranged;
+    }
+
+    /**
+     * @return count of retried requests
+     */
+    public int getRetries() {
+        return retries.get();
+    }
+
+    public long getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(long chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * @param concurrency - max count of chunks, that are downloaded at the same time
+     */
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * @param maxRetries - max count of failed requests of chunk in a row
+     */
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * @param retryDelay - ms before the first retry, next retries wait longer
+     */
+    public void setRetryDelay(long retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+
+    public void setProgressListener(ProgressListener listener) {
+        this.listener = listener;
+    }
+
+    private static class Chunk {
+        private final int index;
+        private final long first;
+        private final long last;
+        private volatile long saved;
+
+        private Chunk(int index, long first, long last) {
+            this.index = index;
+            this.first = first;
+            this.last = last;
+        }
+
+        private long length() {
+            return last - first + 1;
+        }
+
+        private boolean isDone() {
+            return saved >= length();
+        }
+    }
+
+    /**
+     * Size and validators of downloaded file
+     */
+    private static class Resource {
+        private final long length;
+        private final String etag;
+        private final String lastModified;
+        private final String md5;
+
+        private Resource(long length, String etag, String lastModified, String md5) {
+            this.length = length;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.md5 = md5;
+        }
+
+        private static Resource fromPartial(Response response) throws IOException {
+            long length = parseContentRangeTotal(response.header("Content-Range"));
+            if (length < 0) {
+                throw new IOException("Server responded without size of file: Content-Range=" + response.header("Content-Range"));
+            }
+            return new Resource(length, response.header("ETag"), response.header("Last-Modified"),
+                    parseMd5(response.header("x-goog-hash")));
+        }
+
+        private static Resource fromWhole(Response response) {
+            String md5 = parseMd5(response.header("x-goog-hash"));
+            return new Resource(response.body().contentLength(), response.header("ETag"), response.header("Last-Modified"),
+                    (md5 != null) ? md5 : response.header("Content-MD5"));
+        }
+
+        /**
+         * @return value for 'If-Range' header, so server responds with whole file if it has been changed
+         */
+        private String validator() {
+            return (etag != null && !etag.startsWith("W/")) ? etag : lastModified;
+        }
+
+        private boolean isSameAs(Properties state) {
+            return String.valueOf(length).equals(state.getProperty("length"))
+                    && equals(etag, state.getProperty("etag"))
+                    && equals(lastModified, state.getProperty("lastModified"));
+        }
+
+        private static boolean equals(String a, String b) {
+            return (a == null) ? b == null : a.equals(b);
+        }
+    }
+}
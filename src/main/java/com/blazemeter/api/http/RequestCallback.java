@@ -0,0 +1,49 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.api.http;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Completes future with response body, when call enqueued to OkHttp dispatcher is done
+ */
+public class RequestCallback implements Callback {
+
+    private final CompletableFuture<String> future;
+
+    public RequestCallback(CompletableFuture<String> future) {
+        this.future = future;
+    }
+
+    @Override
+    public void onFailure(Call call, IOException e) {
+        future.completeExceptionally(e);
+    }
+
+    @Override
+    public void onResponse(Call call, Response response) {
+        try (ResponseBody body = response.body()) {
+            future.complete(body.string());
+        } catch (IOException e) {
+            future.completeExceptionally(e);
+        }
+    }
+}
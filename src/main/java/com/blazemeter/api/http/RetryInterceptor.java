@@ -24,57 +24,62 @@ import java.io.IOException;
 import java.net.SocketTimeoutException;
 
 /**
- * If request was not successful, retry will be taken two times more.
+ * If request was not successful, it will be retried according to @link com.blazemeter.api.http.RetryPolicy.
+ * By default @link com.blazemeter.api.http.DefaultRetryPolicy is used.
  */
 public class RetryInterceptor implements Interceptor {
 
     private final Logger logger;
+    private final RetryPolicy policy;
 
     public RetryInterceptor(Logger logger) {
+        this(logger, new DefaultRetryPolicy());
+    }
+
+    public RetryInterceptor(Logger logger, RetryPolicy policy) {
         this.logger = logger;
+        this.policy = policy;
     }
 
     @Override
     public Response intercept(Chain chain) throws IOException {
         Request request = chain.request();
-        String method = request.method();
         int retry = 1;
-        int maxRetries = retry + getRetriesCount();
-        Response response = null;
-        do {
+        while (true) {
+            Response response = null;
+            SocketTimeoutException timeout = null;
             try {
                 response = chain.proceed(request);
                 logger.info("Response code = " + response.code() + " -> done " + retry + " attempt");
-                if (respSuccess(response) ||!shouldRetry(method, retry, maxRetries - 1)) {
-                    break;
-                }
             } catch (SocketTimeoutException ex) {
                 logger.info("Server does not send response -> done " + retry + " attempt");
                 logger.warn("Server does not send response", ex);
-                if (!shouldRetry(method, retry, maxRetries - 1)) {
-                    throw ex;
+                timeout = ex;
+            }
+
+            long delay = policy.getRetryDelay(request, response, timeout, retry);
+            if (delay < 0) {
+                if (timeout != null) {
+                    throw timeout;
                 }
+                return response;
             }
 
+            if (response != null && response.body() != null) {
+                response.body().close();
+            }
 
             try {
-                Thread.sleep(1000 * retry);
+                Thread.sleep(delay);
             } catch (InterruptedException e) {
                 throw new InterruptRuntimeException("Retry was interrupted on sleep at retry # " + retry);
             }
             retry++;
-
-        } while (!respSuccess(response) && shouldRetry(method, retry, maxRetries));
-
-        return response;
-    }
-
-    private boolean shouldRetry(String method, int currentRetry, int maxRetries) {
-        return "GET".equals(method) && currentRetry < maxRetries;
+        }
     }
 
-    private boolean respSuccess(Response response) {
-        return response != null && response.isSuccessful();
+    public RetryPolicy getPolicy() {
+        return policy;
     }
 
     public static int getRetriesCount() {
@@ -0,0 +1,39 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.api.http;
+
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+
+/**
+ * Decides if request should be retried by @link com.blazemeter.api.http.RetryInterceptor
+ */
+public interface RetryPolicy {
+
+    long NO_RETRY = -1;
+
+    /**
+     * Called after each attempt, including successful one.
+     *
+     * @param request  - sent request
+     * @param response - received response or null, if attempt failed with exception
+     * @param ex       - exception of attempt or null, if response was received
+     * @param attempt  - number of done attempt, starts from 1
+     * @return delay in milliseconds before next attempt or NO_RETRY
+     */
+    long getRetryDelay(Request request, Response response, IOException ex, int attempt);
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.api.http;
+
+import com.blazemeter.api.exception.InterruptRuntimeException;
+import okhttp3.Request;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces identical concurrent GET requests: requests with the same method, URL and Authorization header,
+ * that come while the first one is in flight, wait for it and get its response body.
+ * Optional reuse window lets requests, that come shortly after completion, to get the same body.
+ * Endpoints with non-idempotent semantics can be excluded by path prefix.
+ */
+public class SingleFlight {
+
+    /**
+     * Sends request and reads response body
+     */
+    public interface Call<T> {
+        T call() throws IOException;
+    }
+
+    private final ConcurrentHashMap<String, Flight<?>> flights = new ConcurrentHashMap<>();
+    private final List<String> excludedPaths = new CopyOnWriteArrayList<>();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong shared = new AtomicLong();
+    private volatile long reuseWindow;
+
+    /**
+     * @return response body of own call or of identical call in flight
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Request request, Call<T> call) throws IOException {
+        if (!isSupported(request)) {
+            calls.incrementAndGet();
+            return call.call();
+        }
+
+        String key = key(request);
+        while (true) {
+            Flight<?> flight = flights.get(key);
+            if (flight != null && flight.isExpired(System.currentTimeMillis(), reuseWindow)) {
+                flights.remove(key, flight);
+                continue;
+            }
+            if (flight == null) {
+                Flight<T> own = new Flight<>();
+                flight = flights.putIfAbsent(key, own);
+                if (flight == null) {
+                    return run(key, own, call);
+                }
+            }
+            shared.incrementAndGet();
+            return await((Flight<T>) flight);
+        }
+    }
+
+    /**
+     * @param window - time after completion of request, when its body is reused. 0 - only in flight requests are shared
+     */
+    public void setReuseWindow(long window, TimeUnit unit) {
+        this.reuseWindow = unit.toMillis(window);
+    }
+
+    public long getReuseWindow() {
+        return reuseWindow;
+    }
+
+    /**
+     * Requests, which URL path starts with 'pathPrefix', are always sent separately
+     */
+    public void exclude(String pathPrefix) {
+        excludedPaths.add(pathPrefix);
+    }
+
+    /**
+     * @return count of requests, that were sent to server
+     */
+    public long getCalls() {
+        return calls.get();
+    }
+
+    /**
+     * @return count of requests, that got response of other request
+     */
+    public long getShared() {
+        return shared.get();
+    }
+
+    protected boolean isSupported(Request request) {
+        if (!"GET".equals(request.method())) {
+            return false;
+        }
+        String path = request.url().encodedPath();
+        for (String excluded : excludedPaths) {
+            if (path.startsWith(excluded)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private <T> T run(String key, Flight<T> flight, Call<T> call) throws IOException {
+        calls.incrementAndGet();
+        try {
+            T body = call.call();
+            flight.complete(body, null);
+            return body;
+        } catch (Throwable ex) {
+            // waiters are released on any failure, Errors included
+            flight.complete(null, ex);
+            throw ex;
+        } finally {
+            if (reuseWindow <= 0 || flight.failed) {
+                flights.remove(key, flight);
+            }
+        }
+    }
+
+    private <T> T await(Flight<T> flight) throws IOException {
+        try {
+            return flight.future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptRuntimeException("Request has been interrupted", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw new IOException(cause.getMessage(), cause);
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static String key(Request request) {
+        return request.method() + " " + request.url() + " " + request.header(HttpUtils.AUTHORIZATION);
+    }
+
+    private static class Flight<T> {
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private volatile long completed;
+        private volatile boolean failed;
+
+        private void complete(T body, Throwable ex) {
+            completed = System.currentTimeMillis();
+            if (ex != null) {
+                failed = true;
+                future.completeExceptionally(ex);
+            } else {
+                future.complete(body);
+            }
+        }
+
+        private boolean isExpired(long now, long window) {
+            return completed > 0 && (failed || now - completed > window);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazemeter.api.http;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Request body, that packs files to zip archive while it is written to connection,
+ * without temporary file. Content length is unknown, so body is sent with chunked encoding.
+ */
+public class ZipBundleBody extends RequestBody {
+
+    public static final MediaType ZIP = MediaType.parse("application/zip");
+
+    private final List<File> files;
+
+    public ZipBundleBody(List<File> files) {
+        this.files = new ArrayList<>(files);
+    }
+
+    @Override
+    public MediaType contentType() {
+        return ZIP;
+    }
+
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(sink.outputStream());
+        for (File file : files) {
+            ZipEntry entry = new ZipEntry(file.getName());
+            entry.setTime(file.lastModified());
+            zip.putNextEntry(entry);
+            Files.copy(file.toPath(), zip);
+            zip.closeEntry();
+        }
+        // finish archive, but leave sink open for the rest of request
+        zip.finish();
+        zip.flush();
+    }
+
+    /**
+     * @return names of entries in archive
+     */
+    public List<String> getNames() {
+        List<String> names = new ArrayList<>();
+        for (File file : files) {
+            names.add(file.getName());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.api.json;
+
+import net.sf.json.JSONException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helpers for typed decoders of explorer classes
+ */
+public class JsonCodecs {
+
+    /**
+     * @return decoder of JSON array, that decodes each element with passed decoder
+     */
+    public static <T> JsonDecoder<List<T>> listOf(final JsonDecoder<T> element) {
+        return new JsonDecoder<List<T>>() {
+            @Override
+            public List<T> decode(JsonReader reader) throws IOException {
+                List<T> list = new ArrayList<>();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    list.add(element.decode(reader));
+                }
+                reader.endArray();
+                return list;
+            }
+        };
+    }
+
+    /**
+     * @return value, if it is not null, otherwise throws the same exception as JSONObject.getString(key)
+     */
+    public static String require(String value, String name) {
+        if (value == null) {
+            throw new JSONException("JSONObject[\"" + name + "\"] not found.");
+        }
+        return value;
+    }
+
+    /**
+     * Reads object and returns values of passed fields, other fields are skipped.
+     * All fields are required.
+     */
+    public static String[] readFields(JsonReader reader, String... names) throws IOException {
+        String[] values = new String[names.length];
+        reader.beginObject();
+        while (reader.hasNext()) {
+            int index = indexOf(names, reader.nextName());
+            if (index >= 0) {
+                values[index] = reader.nextAsString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        for (int i = 0; i < names.length; i++) {
+            require(values[i], names[i]);
+        }
+        return values;
+    }
+
+    private static int indexOf(String[] names, String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return number value or 0, if value is not a number (null, string etc.)
+     */
+    public static long readLong(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonReader.Token.NUMBER) {
+            return (long) reader.nextDouble();
+        }
+        reader.skipValue();
+        return 0;
+    }
+
+    /**
+     * Reads 'key' field of nested object
+     */
+    public static String readField(JsonReader reader, String key) throws IOException {
+        String value = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (key.equals(reader.nextName())) {
+                value = reader.nextAsString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return require(value, key);
+    }
+}
@@ -0,0 +1,517 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.api.json;
+
+import net.sf.json.JSONArray;
+import net.sf.json.JSONException;
+import net.sf.json.JSONNull;
+import net.sf.json.JSONObject;
+import net.sf.json.util.JSONTokener;
+import net.sf.json.util.JSONUtils;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ByteString;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Pull parser, that reads JSON directly from okio source without building String of whole response.
+ * Values can be read token by token or materialized into json-lib objects, that are the same
+ * as JSONObject.fromObject(String) returns for the same text.
+ */
+public class JsonReader implements Closeable {
+
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    private static final ByteString QUOTE_OR_SLASH = ByteString.encodeUtf8("\"\\");
+    private static final ByteString LITERAL_END = ByteString.encodeUtf8(" \t\r\n\f,:]}/\\\"[{;=#");
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int DANGLING_NAME = 3;
+    private static final int NONEMPTY_OBJECT = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    private final BufferedSource source;
+    private final Buffer buffer;
+
+    private int[] stack = new int[32];
+    private int stackSize = 1;
+    private Token peeked;
+
+    public JsonReader(BufferedSource source) {
+        this.source = source;
+        this.buffer = source.buffer();
+        stack[0] = EMPTY_DOCUMENT;
+    }
+
+    public static JsonReader of(String json) {
+        return new JsonReader(new Buffer().writeUtf8(json));
+    }
+
+    public Token peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+
+        int scope = stack[stackSize - 1];
+        int c;
+        switch (scope) {
+            case EMPTY_ARRAY:
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                if (nextNonWhitespace() == ']') {
+                    buffer.skip(1);
+                    return peeked = Token.END_ARRAY;
+                }
+                break;
+            case NONEMPTY_ARRAY:
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    buffer.skip(1);
+                    return peeked = Token.END_ARRAY;
+                } else if (c != ',') {
+                    throw syntaxError("Expected a ',' or ']'");
+                }
+                buffer.skip(1);
+                break;
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                stack[stackSize - 1] = DANGLING_NAME;
+                c = nextNonWhitespace();
+                if (scope == NONEMPTY_OBJECT) {
+                    if (c == '}') {
+                        buffer.skip(1);
+                        return peeked = Token.END_OBJECT;
+                    } else if (c != ',') {
+                        throw syntaxError("Expected a ',' or '}'");
+                    }
+                    buffer.skip(1);
+                    c = nextNonWhitespace();
+                }
+                if (c == '"') {
+                    buffer.skip(1);
+                    return peeked = Token.NAME;
+                } else if (c == '}' && scope == EMPTY_OBJECT) {
+                    buffer.skip(1);
+                    return peeked = Token.END_OBJECT;
+                }
+                throw syntaxError("Expected a name");
+            case DANGLING_NAME:
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                if (nextNonWhitespace() != ':') {
+                    throw syntaxError("Expected a ':' after a key");
+                }
+                buffer.skip(1);
+                break;
+            case EMPTY_DOCUMENT:
+                stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+                break;
+            default:
+                if (nextNonWhitespace() == -1) {
+                    return peeked = Token.END_DOCUMENT;
+                }
+                throw syntaxError("Expected end of document");
+        }
+
+        c = nextNonWhitespace();
+        switch (c) {
+            case '{':
+                buffer.skip(1);
+                return peeked = Token.BEGIN_OBJECT;
+            case '[':
+                buffer.skip(1);
+                return peeked = Token.BEGIN_ARRAY;
+            case '"':
+                buffer.skip(1);
+                return peeked = Token.STRING;
+            case 't':
+            case 'f':
+                return peeked = Token.BOOLEAN;
+            case 'n':
+                return peeked = Token.NULL;
+            case -1:
+                throw syntaxError("Missing value");
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return peeked = Token.NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+        }
+    }
+
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        stackSize--;
+    }
+
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        stackSize--;
+    }
+
+    /**
+     * @return true - if current object or array has more elements
+     */
+    public boolean hasNext() throws IOException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        return readQuoted();
+    }
+
+    /**
+     * @return string value, numbers are returned as they are written in JSON
+     */
+    public String nextString() throws IOException {
+        Token token = peek();
+        if (token == Token.STRING) {
+            peeked = null;
+            return readQuoted();
+        } else if (token == Token.NUMBER) {
+            peeked = null;
+            return readLiteral();
+        }
+        throw syntaxError("Expected a string, but was " + token);
+    }
+
+    /**
+     * @return next value as String the same way as JSONObject.getString(key) does:
+     * 'null' for null, JSON text for objects and arrays
+     */
+    public String nextAsString() throws IOException {
+        switch (peek()) {
+            case STRING:
+                return nextString();
+            case NUMBER:
+                String literal = nextString();
+                return isPlainInteger(literal) ? literal : String.valueOf(parseNumber(literal));
+            case BOOLEAN:
+                return String.valueOf(nextBoolean());
+            case NULL:
+                nextNull();
+                return "null";
+            default:
+                return readValue().toString();
+        }
+    }
+
+    public boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+        String literal = readLiteral();
+        if ("true".equals(literal)) {
+            return true;
+        } else if ("false".equals(literal)) {
+            return false;
+        }
+        throw syntaxError("Unexpected literal '" + literal + "'");
+    }
+
+    public void nextNull() throws IOException {
+        expect(Token.NULL);
+        String literal = readLiteral();
+        if (!"null".equals(literal)) {
+            throw syntaxError("Unexpected literal '" + literal + "'");
+        }
+    }
+
+    public long nextLong() throws IOException {
+        String value = nextString();
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            return (long) parseDouble(value);
+        }
+    }
+
+    public int nextInt() throws IOException {
+        return (int) nextLong();
+    }
+
+    public double nextDouble() throws IOException {
+        return parseDouble(nextString());
+    }
+
+    /**
+     * Skips next value with all nested values
+     */
+    public void skipValue() throws IOException {
+        int depth = 0;
+        do {
+            switch (peek()) {
+                case BEGIN_OBJECT:
+                    beginObject();
+                    depth++;
+                    break;
+                case BEGIN_ARRAY:
+                    beginArray();
+                    depth++;
+                    break;
+                case END_OBJECT:
+                    endObject();
+                    depth--;
+                    break;
+                case END_ARRAY:
+                    endArray();
+                    depth--;
+                    break;
+                case NAME:
+                    nextName();
+                    break;
+                case STRING:
+                    peeked = null;
+                    skipQuoted();
+                    break;
+                case END_DOCUMENT:
+                    throw syntaxError("Unexpected end of document");
+                default:
+                    peeked = null;
+                    readLiteral();
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * @return next value as JSONObject, JSONArray, String, Number, Boolean or JSONNull
+     */
+    public Object readValue() throws IOException {
+        switch (peek()) {
+            case BEGIN_OBJECT:
+                return readJSONObject();
+            case BEGIN_ARRAY:
+                return readJSONArray();
+            case STRING:
+                return nextString();
+            case NUMBER:
+                return parseNumber(nextString());
+            case BOOLEAN:
+                return nextBoolean();
+            case NULL:
+                nextNull();
+                return JSONNull.getInstance();
+            default:
+                throw syntaxError("Expected a value, but was " + peek());
+        }
+    }
+
+    /**
+     * @return next object, 'null' value is returned as null JSONObject
+     */
+    public JSONObject readJSONObject() throws IOException {
+        if (peek() == Token.NULL) {
+            nextNull();
+            return new JSONObject(true);
+        }
+
+        JSONObject object = new JSONObject();
+        beginObject();
+        while (hasNext()) {
+            String name = nextName();
+            putValue(object, name, readValue());
+        }
+        endObject();
+        return object;
+    }
+
+    public JSONArray readJSONArray() throws IOException {
+        JSONArray array = new JSONArray();
+        beginArray();
+        while (hasNext()) {
+            Object value = readValue();
+            // the same conversion as json-lib does for text that looks like JSON
+            if (value instanceof String && JSONUtils.mayBeJSON((String) value)) {
+                value = JSONUtils.DOUBLE_QUOTE + value + JSONUtils.DOUBLE_QUOTE;
+            }
+            array.element(value);
+        }
+        endArray();
+        return array;
+    }
+
+    /**
+     * Puts value into object the same way as json-lib does, when parses text
+     */
+    public static void putValue(JSONObject object, String name, Object value) {
+        if (value instanceof String && (JSONUtils.mayBeJSON((String) value) || JSONUtils.isFunction(value))) {
+            value = JSONUtils.DOUBLE_QUOTE + value + JSONUtils.DOUBLE_QUOTE;
+        }
+        if (object.containsKey(name)) {
+            object.accumulate(name, value);
+        } else {
+            object.element(name, value);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    private Object parseNumber(String literal) {
+        // json-lib converts numbers with commons-lang NumberUtils, keep the same types
+        return new JSONTokener(literal).nextValue();
+    }
+
+    private static boolean isPlainInteger(String literal) {
+        int start = literal.startsWith("-") ? 1 : 0;
+        if (literal.length() == start || (literal.charAt(start) == '0' && literal.length() > start + 1)) {
+            return false;
+        }
+        for (int i = start; i < literal.length(); i++) {
+            char c = literal.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private double parseDouble(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException ex) {
+            throw syntaxError("Expected a number, but was '" + value + "'");
+        }
+    }
+
+    private void expect(Token expected) throws IOException {
+        Token token = peek();
+        if (token != expected) {
+            throw syntaxError("Expected " + expected + ", but was " + token);
+        }
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (stackSize == stack.length) {
+            int[] newStack = new int[stackSize * 2];
+            System.arraycopy(stack, 0, newStack, 0, stackSize);
+            stack = newStack;
+        }
+        stack[stackSize++] = scope;
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        while (source.request(1)) {
+            int c = buffer.getByte(0);
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                buffer.skip(1);
+            } else {
+                return c;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads string after opening quote, including closing quote
+     */
+    private String readQuoted() throws IOException {
+        StringBuilder builder = null;
+        while (true) {
+            long index = source.indexOfElement(QUOTE_OR_SLASH);
+            if (index == -1) {
+                throw syntaxError("Unterminated string");
+            }
+            boolean escape = buffer.getByte(index) == '\\';
+            if (!escape && builder == null) {
+                String result = buffer.readUtf8(index);
+                buffer.skip(1);
+                return result;
+            }
+            if (builder == null) {
+                builder = new StringBuilder();
+            }
+            builder.append(buffer.readUtf8(index));
+            buffer.skip(1);
+            if (!escape) {
+                return builder.toString();
+            }
+            builder.append(readEscapeCharacter());
+        }
+    }
+
+    private void skipQuoted() throws IOException {
+        while (true) {
+            long index = source.indexOfElement(QUOTE_OR_SLASH);
+            if (index == -1) {
+                throw syntaxError("Unterminated string");
+            }
+            boolean escape = buffer.getByte(index) == '\\';
+            buffer.skip(index + 1);
+            if (!escape) {
+                return;
+            }
+            readEscapeCharacter();
+        }
+    }
+
+    private char readEscapeCharacter() throws IOException {
+        if (!source.request(1)) {
+            throw syntaxError("Unterminated escape sequence");
+        }
+        char c = (char) buffer.readByte();
+        switch (c) {
+            case 'u':
+                if (!source.request(4)) {
+                    throw syntaxError("Unterminated escape sequence");
+                }
+                String hex = buffer.readUtf8(4);
+                try {
+                    return (char) Integer.parseInt(hex, 16);
+                } catch (NumberFormatException ex) {
+                    throw syntaxError("Illegal escape '\\u" + hex + "'");
+                }
+            case 't':
+                return '\t';
+            case 'b':
+                return '\b';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 'f':
+                return '\f';
+            default:
+                return c;
+        }
+    }
+
+    private String readLiteral() throws IOException {
+        long index = source.indexOfElement(LITERAL_END);
+        return (index == -1) ? buffer.readUtf8() : buffer.readUtf8(index);
+    }
+
+    private JSONException syntaxError(String message) {
+        return new JSONException(message);
+    }
+}
@@ -15,15 +15,22 @@
 package com.blazemeter.api.utils;
 
 import com.blazemeter.api.exception.UnexpectedResponseException;
+import com.blazemeter.api.http.HttpClientPool;
 import com.blazemeter.api.http.HttpUtils;
+import com.blazemeter.api.json.JsonDecoder;
+import com.blazemeter.api.json.JsonReader;
 import com.blazemeter.api.logging.Logger;
 import com.blazemeter.api.logging.UserNotifier;
 import net.sf.json.JSONException;
+import net.sf.json.JSONNull;
 import net.sf.json.JSONObject;
+import net.sf.json.util.JSONUtils;
 import okhttp3.Credentials;
 import okhttp3.Request;
 import org.apache.commons.lang.StringUtils;
 
+import java.io.IOException;
+
 
 public class BlazeMeterUtils extends HttpUtils {
 
@@ -45,7 +52,22 @@ public class BlazeMeterUtils extends HttpUtils {
     public BlazeMeterUtils(String apiKeyId, String apiKeySecret,
                            String address, String dataAddress,
                            UserNotifier notifier, Logger logger) {
-        super(logger);
+        this(apiKeyId, apiKeySecret, address, dataAddress, notifier, logger, new HttpClientPool());
+    }
+
+    /**
+     * @param apiKeyId     - BlazeMeter Api Key Id
+     * @param apiKeySecret - BlazeMeter Api Key Secret
+     * @param address      - BlazeMeter app address: https://a.blazemeter.com/
+     * @param dataAddress  - BlazeMeter data address: https://data.blazemeter.com/
+     * @param notifier     - user notifier, to show user information
+     * @param logger       - logger, for log events of http requests / response etc.
+     * @param clientPool   - connection pool, dispatcher and executor shared between several BlazeMeterUtils
+     */
+    public BlazeMeterUtils(String apiKeyId, String apiKeySecret,
+                           String address, String dataAddress,
+                           UserNotifier notifier, Logger logger, HttpClientPool clientPool) {
+        super(logger, clientPool);
         this.address = address;
         this.dataAddress = dataAddress;
         this.apiKeyId = apiKeyId;
@@ -58,6 +80,10 @@ public class BlazeMeterUtils extends HttpUtils {
         this("", "", address, dataAddress, notifier, logger);
     }
 
+    public BlazeMeterUtils(String address, String dataAddress, UserNotifier notifier, Logger logger, HttpClientPool clientPool) {
+        this("", "", address, dataAddress, notifier, logger, clientPool);
+    }
+
     protected boolean isValidCredantials(String apiKeyId, String apiKeySecret) {
         return !StringUtils.isBlank(apiKeyId) && !StringUtils.isBlank(apiKeySecret);
     }
@@ -71,23 +97,112 @@ public class BlazeMeterUtils extends HttpUtils {
 
     @Override
     protected JSONObject processResponse(String response) {
-        String error = extractErrorMessage(response);
+        JSONObject json = null;
+        String error = null;
+        if (response != null && !response.isEmpty()) {
+            try {
+                json = JSONObject.fromObject(response);
+                error = extractErrorMessage(json);
+            } catch (JSONException ex) {
+                logger.debug("Cannot parse response: " + response, ex);
+                error = "Cannot parse response: " + response;
+            }
+        }
+        checkError(error);
+        return (json != null) ? json : JSONObject.fromObject(response);
+    }
+
+    /**
+     * Responses of BlazeMeter API are decoded from stream.
+     * Subclass, that overrides executeRequest(Request) or processResponse(String), should return false
+     */
+    @Override
+    protected boolean isStreamingSupported() {
+        return true;
+    }
+
+    /**
+     * Reads response in one pass: 'error' is checked as soon as it is read
+     * and 'result' is not materialized, if response has error.
+     */
+    @Override
+    protected JSONObject decodeResponse(JsonReader reader) throws IOException {
+        JSONObject json = new JSONObject();
+        String error = null;
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (error != null && "result".equals(name)) {
+                    reader.skipValue();
+                    continue;
+                }
+                Object value = reader.readValue();
+                if ("error".equals(name)) {
+                    error = extractErrorMessage(value);
+                }
+                JsonReader.putValue(json, name, value);
+            }
+            reader.endObject();
+        } catch (JSONException ex) {
+            logger.debug("Cannot parse response", ex);
+            error = "Cannot parse response: " + ex.getMessage();
+        }
+        checkError(error);
+        return json;
+    }
+
+    /**
+     * Execute request and decode only 'result' of response with typed decoder,
+     * without building JSONObject of response.
+     * If response is not decoded from stream, 'result' is taken from execute(Request).
+     */
+    public <T> T executeResult(Request request, final JsonDecoder<T> decoder) throws IOException {
+        if (!isStreaming()) {
+            Object result = execute(request).get("result");
+            return decoder.decode(JsonReader.of(JSONUtils.valueToString(result)));
+        }
+        return execute(request, reader -> decodeResult(reader, decoder));
+    }
+
+    protected <T> T decodeResult(JsonReader reader, JsonDecoder<T> decoder) throws IOException {
+        T result = null;
+        boolean hasResult = false;
+        String error = null;
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("error".equals(name)) {
+                    error = extractErrorMessage(reader.readValue());
+                } else if ("result".equals(name) && error == null) {
+                    result = decoder.decode(reader);
+                    hasResult = true;
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (JSONException ex) {
+            logger.debug("Cannot parse response", ex);
+            error = "Cannot parse response: " + ex.getMessage();
+        }
+        checkError(error);
+        return hasResult ? result : decoder.decode(JsonReader.of("null"));
+    }
+
+    private void checkError(String error) {
         if (error != null) {
             logger.error("Received response with the following error: " + error);
             throw new UnexpectedResponseException("Received response with the following error: " + error);
         }
-        return JSONObject.fromObject(response);
     }
 
     @Override
     protected String extractErrorMessage(String response) {
         if (response != null && !response.isEmpty()) {
             try {
-                JSONObject jsonResponse = JSONObject.fromObject(response);
-                JSONObject errorObj = jsonResponse.getJSONObject("error");
-                if (errorObj.containsKey("message")) {
-                    return errorObj.getString("message");
-                }
+                return extractErrorMessage(JSONObject.fromObject(response));
             } catch (JSONException ex) {
                 logger.debug("Cannot parse response: " + response, ex);
                 return "Cannot parse response: " + response;
@@ -96,6 +211,20 @@ public class BlazeMeterUtils extends HttpUtils {
         return null;
     }
 
+    protected String extractErrorMessage(JSONObject response) {
+        return extractErrorMessage(response.get("error"));
+    }
+
+    private String extractErrorMessage(Object error) {
+        if (JSONNull.getInstance().equals(error)) {
+            return null;
+        } else if (error instanceof JSONObject) {
+            JSONObject errorObj = (JSONObject) error;
+            return errorObj.containsKey("message") ? errorObj.getString("message") : null;
+        }
+        throw new JSONException("JSONObject[\"error\"] is not a JSONObject.");
+    }
+
     public UserNotifier getNotifier() {
         return notifier;
     }
@@ -0,0 +1,90 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.api.utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Access to virtual threads (Java 21+) from code compiled for Java 8.
+ * Virtual threads are used only if 'bzm.virtualThreads' system property is 'true'
+ * and runtime supports them, otherwise platform threads are used.
+ */
+public class VirtualThreads {
+
+    public static final String VIRTUAL_THREADS = "bzm.virtualThreads";
+
+    private static final Method NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findVirtualExecutorFactory();
+
+    private static Method findVirtualExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException | SecurityException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * @return true - if runtime supports virtual threads
+     */
+    public static boolean isSupported() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * @return true - if virtual threads were requested by 'bzm.virtualThreads' and runtime supports them
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(VIRTUAL_THREADS, "false")) && isSupported();
+    }
+
+    /**
+     * @return executor that starts new virtual thread for each task or null if runtime does not support it
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (!isSupported()) {
+            return null;
+        }
+        try {
+            return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * @return executor that starts new virtual thread for each task, if it is enabled,
+     * otherwise cached pool of daemon platform threads
+     */
+    public static ExecutorService newThreadPerTaskExecutor(final String threadNamePrefix) {
+        ExecutorService executor = isEnabled() ? newVirtualThreadPerTaskExecutor() : null;
+        if (executor != null) {
+            return executor;
+        }
+        return Executors.newCachedThreadPool(new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, threadNamePrefix + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+}
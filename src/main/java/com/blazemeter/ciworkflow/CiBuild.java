@@ -15,8 +15,10 @@
 package com.blazemeter.ciworkflow;
 
 import com.blazemeter.api.exception.InterruptRuntimeException;
+import com.blazemeter.api.exception.UnexpectedResponseException;
 import com.blazemeter.api.exception.ValidationException;
 import com.blazemeter.api.explorer.Master;
+import com.blazemeter.api.explorer.PropertiesResult;
 import com.blazemeter.api.explorer.test.AbstractTest;
 import com.blazemeter.api.explorer.test.MultiTest;
 import com.blazemeter.api.explorer.test.SingleTest;
@@ -24,6 +26,7 @@ import com.blazemeter.api.explorer.test.TestDetector;
 import com.blazemeter.api.logging.Logger;
 import com.blazemeter.api.logging.UserNotifier;
 import com.blazemeter.api.utils.BlazeMeterUtils;
+import com.blazemeter.api.utils.VirtualThreads;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
 import org.apache.commons.io.FilenameUtils;
@@ -35,9 +38,20 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class CiBuild {
 
+    private static ExecutorService buildExecutor;
+
     protected final UserNotifier notifier;
     protected final Logger logger;
 
@@ -59,6 +73,20 @@ public class CiBuild {
 
     protected String reportName;
 
+    protected MasterStatusPoller statusPoller;
+
+    protected long expectedDuration;
+
+    protected int uploadConcurrency = 1;
+
+    protected UploadManifest uploadManifest;
+
+    protected boolean bundleUpload;
+
+    private static final int UPLOAD_ATTEMPTS = 3;
+
+    private static final String BUNDLE_NAME = "test-files.zip";
+
     private final String FUNCTIONAL_GUI_TEST = "functionalGui";
 
     private final String TEST_SUITE = "functionalTestSuite";
@@ -88,6 +116,78 @@ public class CiBuild {
         this.reportName = reportName;
     }
 
+    /**
+     * @param statusPoller - shared poller of master status, null - build polls status in own loop.
+     *                     If 'bzm.sharedStatusPoller' is 'true', MasterStatusPoller.getDefault() is used by default.
+     */
+    public void setStatusPoller(MasterStatusPoller statusPoller) {
+        this.statusPoller = statusPoller;
+    }
+
+    public int getUploadConcurrency() {
+        return uploadConcurrency;
+    }
+
+    /**
+     * @param uploadConcurrency - max count of parallel file uploads, 1 (default) - files are uploaded one by one.
+     *                          In parallel mode main file and additional files are uploaded together
+     *                          and each upload is retried on network and server errors.
+     */
+    public void setUploadConcurrency(int uploadConcurrency) {
+        this.uploadConcurrency = uploadConcurrency;
+    }
+
+    public boolean isBundleUpload() {
+        return bundleUpload;
+    }
+
+    /**
+     * @param bundleUpload - if 'true', additional test files are packed to one zip archive on the fly
+     *                     and uploaded with one request. If bundle upload fails, files are uploaded one by one.
+     */
+    public void setBundleUpload(boolean bundleUpload) {
+        this.bundleUpload = bundleUpload;
+    }
+
+    public UploadManifest getUploadManifest() {
+        return uploadManifest;
+    }
+
+    /**
+     * @param uploadManifest - hashes of uploaded files. If it is set, only new and changed files are uploaded
+     *                       and validated, null (default) - all files are uploaded on each build
+     */
+    public void setUploadManifest(UploadManifest uploadManifest) {
+        this.uploadManifest = uploadManifest;
+    }
+
+    /**
+     * @param duration - configured duration of test, it is used by adaptive polling
+     *                 to poll often near the expected end of test. 0 - unknown
+     */
+    public void setExpectedDuration(long duration, TimeUnit unit) {
+        this.expectedDuration = unit.toMillis(duration);
+    }
+
+    public long getExpectedDuration() {
+        return expectedDuration;
+    }
+
+    /**
+     * @return true, if 'bzm.adaptivePolling' is 'true': status polls are fast in active phases,
+     * back off in steady phases and are limited by 'bzm.poll.timeout' and 'bzm.validation.timeout'
+     */
+    protected boolean isAdaptivePolling() {
+        return Boolean.getBoolean("bzm.adaptivePolling");
+    }
+
+    public MasterStatusPoller getStatusPoller() {
+        if (statusPoller == null && Boolean.getBoolean("bzm.sharedStatusPoller")) {
+            return MasterStatusPoller.getDefault();
+        }
+        return statusPoller;
+    }
+
     /**
      * Describes the common workflow of all CI plugins.
      * Executes ci build
@@ -114,6 +214,33 @@ public class CiBuild {
         }
     }
 
+    /**
+     * Executes ci build in background thread.
+     * Build runs on virtual thread if 'bzm.virtualThreads' is 'true' and runtime is Java 21+,
+     * otherwise on platform thread.
+     *
+     * @return future of BuildResult, cancel(true) interrupts build the same way as interrupt of build thread
+     */
+    public Future<BuildResult> executeAsync() {
+        return executeAsync(getBuildExecutor());
+    }
+
+    /**
+     * Executes ci build in thread of passed executor
+     *
+     * @return future of BuildResult
+     */
+    public Future<BuildResult> executeAsync(ExecutorService executor) {
+        return executor.submit(this::execute);
+    }
+
+    protected static synchronized ExecutorService getBuildExecutor() {
+        if (buildExecutor == null) {
+            buildExecutor = VirtualThreads.newThreadPerTaskExecutor("bzm-ci-build-");
+        }
+        return buildExecutor;
+    }
+
     protected BuildResult waitForFinishAndDoPostProcess(Master master) throws IOException {
         try {
             waitForFinish(master);
@@ -156,8 +283,16 @@ public class CiBuild {
     protected void updateTestFiles() throws IOException, InterruptedException {
         if (currentTest instanceof SingleTest && isSupportTestFiles(currentTest)) {
             SingleTest test = (SingleTest) currentTest;
-            updateMainTestFile(test);
-            updateAdditionalTestFiles(test);
+            if (uploadManifest != null) {
+                uploadChangedTestFiles(test);
+                return;
+            }
+            if (uploadConcurrency > 1) {
+                uploadTestFiles(test, mainTestFile, additionalTestFiles);
+            } else {
+                updateMainTestFile(test);
+                updateAdditionalTestFiles(test);
+            }
             validateTestFiles(test);
         } else {
             if ((mainTestFile != null) || (additionalTestFiles != null && !additionalTestFiles.isEmpty())) {
@@ -166,6 +301,110 @@ public class CiBuild {
         }
     }
 
+    /**
+     * Uploads and validates only files, that are absent on server or changed since the last upload to this test.
+     * Hashes of validated files are saved to upload manifest. Test filename is updated to main file even if it is not changed.
+     */
+    protected void uploadChangedTestFiles(SingleTest test) throws IOException, InterruptedException {
+        List<File> files = new ArrayList<>();
+        if (mainTestFile != null) {
+            files.add(mainTestFile);
+        }
+        if (additionalTestFiles != null) {
+            files.addAll(additionalTestFiles);
+        }
+        if (files.isEmpty()) {
+            return;
+        }
+
+        List<String> hashes = hashFiles(files);
+        List<String> serverFiles = getServerFileNames(test);
+        File main = null;
+        List<File> additional = new ArrayList<>();
+        List<String> uploadedNames = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            File file = files.get(i);
+            String hash = uploadManifest.get(utils.getAddress(), test.getId(), file.getName());
+            if (hashes.get(i).equals(hash) && serverFiles.contains(file.getName())) {
+                logger.info("Skip upload of unchanged test file: " + FilenameUtils.normalize(file.getAbsolutePath()));
+                continue;
+            }
+            uploadedNames.add(file.getName());
+            if (file == mainTestFile) {
+                main = file;
+            } else {
+                additional.add(file);
+            }
+        }
+        notifier.notifyInfo(String.format("Upload %d of %d test files, other files are not changed", uploadedNames.size(), files.size()));
+
+        // manifest is keyed by file name, so unchanged main file may have been uploaded as additional one
+        if (mainTestFile != null && main == null) {
+            validateTestFileName(mainTestFile.getName());
+            test.updateTestFilename(mainTestFile.getName());
+        }
+
+        if (uploadConcurrency > 1) {
+            uploadTestFiles(test, main, additional);
+        } else {
+            if (main != null) {
+                updateMainTestFile(test);
+            }
+            updateAdditionalTestFiles(test, additional);
+        }
+
+        if (!uploadedNames.isEmpty()) {
+            test.validateFiles(uploadedNames);
+            waitForValidations(test, uploadedNames);
+            for (int i = 0; i < files.size(); i++) {
+                if (uploadedNames.contains(files.get(i).getName())) {
+                    uploadManifest.put(utils.getAddress(), test.getId(), files.get(i).getName(), hashes.get(i));
+                }
+            }
+            uploadManifest.save();
+        }
+    }
+
+    /**
+     * @return SHA-256 hashes of files, files are read in parallel
+     */
+    protected List<String> hashFiles(List<File> files) throws IOException, InterruptedException {
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("bzm-hash-");
+        final Semaphore permits = new Semaphore(Runtime.getRuntime().availableProcessors());
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (final File file : files) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return UploadManifest.sha256(file);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            List<String> hashes = new ArrayList<>();
+            for (Future<String> future : futures) {
+                hashes.add(await(future));
+            }
+            return hashes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return names of files, that server knows from validations of test
+     */
+    protected List<String> getServerFileNames(SingleTest test) throws IOException {
+        List<String> names = new ArrayList<>();
+        JSONArray validations = test.validations();
+        for (int i = 0; i < validations.size(); i++) {
+            names.add(validations.getJSONObject(i).getString("fileName"));
+        }
+        return names;
+    }
+
     protected void validateTestFiles(SingleTest test) throws IOException, InterruptedException {
         List<String> fileNames = new ArrayList<>();
 
@@ -186,6 +425,10 @@ public class CiBuild {
     }
 
     protected void waitForValidations(SingleTest test, List<String> fileNames) throws IOException, InterruptedException {
+        if (isAdaptivePolling()) {
+            waitForValidationsAdaptive(test, fileNames);
+            return;
+        }
         boolean isValidationFinished = false;
         while (!isValidationFinished) {
             JSONArray validations = test.validations();
@@ -199,6 +442,40 @@ public class CiBuild {
         notifier.notifyInfo(String.format("Validation for files %s finished successfully", Arrays.toString(fileNames.toArray(new String[0]))));
     }
 
+    /**
+     * Polls validations often, when all files are almost validated, and less often for long validations
+     */
+    protected void waitForValidationsAdaptive(SingleTest test, List<String> fileNames) throws IOException, InterruptedException {
+        PollingSchedule schedule = PollingSchedule.create(PollingSchedule.getLongProperty("bzm.validation.timeout", 600000));
+        while (true) {
+            JSONArray validations = test.validations();
+            if (checkFilesValidation(fileNames, validations)) {
+                break;
+            }
+            if (schedule.isExpired()) {
+                throw new IOException(String.format("Validation for files %s is not finished in %s seconds",
+                        Arrays.toString(fileNames.toArray(new String[0])), schedule.getElapsed() / 1000));
+            }
+            Thread.sleep(schedule.nextDelay(getValidationProgress(fileNames, validations) >= 50));
+        }
+        logger.info(String.format("Validation for files %s finished successfully", Arrays.toString(fileNames.toArray(new String[0]))));
+        notifier.notifyInfo(String.format("Validation for files %s finished successfully", Arrays.toString(fileNames.toArray(new String[0]))));
+    }
+
+    /**
+     * @return the least validation status of files, 0 if files have no validations yet
+     */
+    protected int getValidationProgress(List<String> fileNames, JSONArray validations) {
+        int progress = Integer.MAX_VALUE;
+        for (int i = 0; i < validations.size(); i++) {
+            JSONObject object = validations.getJSONObject(i);
+            if (fileNames.contains(object.getString("fileName"))) {
+                progress = Math.min(progress, object.getInt("status"));
+            }
+        }
+        return (progress == Integer.MAX_VALUE) ? 0 : progress;
+    }
+
     /**
      * @return true - if success, false - is not finished and throws RuntimeException if have validation errors
      */
@@ -264,9 +541,113 @@ public class CiBuild {
         }
     }
 
+    /**
+     * Uploads main and additional test files with no more than 'uploadConcurrency' uploads at the same time.
+     * Test filename is updated right after upload of main file, while additional files are still uploading.
+     */
+    protected void uploadTestFiles(final SingleTest test, final File mainFile, List<File> additionalFiles) throws IOException, InterruptedException {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        if (mainFile != null) {
+            tasks.add(() -> {
+                String filepath = FilenameUtils.normalize(mainFile.getAbsolutePath());
+                logger.info("Update main test file: " + filepath);
+                notifier.notifyInfo("Update main test file: " + filepath);
+                uploadFile(test, mainFile);
+                validateTestFileName(mainFile.getName());
+                test.updateTestFilename(mainFile.getName());
+                return null;
+            });
+        }
+        if (bundleUpload && additionalFiles != null && additionalFiles.size() > 1) {
+            final List<File> files = additionalFiles;
+            tasks.add(() -> {
+                updateAdditionalTestFiles(test, files);
+                return null;
+            });
+        } else if (additionalFiles != null) {
+            for (final File file : additionalFiles) {
+                tasks.add(() -> {
+                    String filepath = FilenameUtils.normalize(file.getAbsolutePath());
+                    logger.info("Upload additional test file: " + filepath);
+                    notifier.notifyInfo("Upload additional test file: " + filepath);
+                    uploadFile(test, file);
+                    return null;
+                });
+            }
+        }
+        if (tasks.isEmpty()) {
+            return;
+        }
+
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("bzm-upload-");
+        final Semaphore permits = new Semaphore(uploadConcurrency);
+        final AtomicInteger uploaded = new AtomicInteger();
+        final int total = tasks.size();
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (final Callable<Void> task : tasks) {
+                permits.acquire();
+                futures.add(executor.submit(() -> {
+                    try {
+                        task.call();
+                        notifier.notifyInfo(String.format("Uploaded %d of %d test files", uploaded.incrementAndGet(), total));
+                        return null;
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                await(future);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> T await(Future<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Uploads file, upload is repeated on network errors and 5xx errors of server
+     */
+    protected void uploadFile(SingleTest test, File file) throws IOException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                test.uploadFile(file);
+                return;
+            } catch (IOException | UnexpectedResponseException ex) {
+                boolean retryable = !(ex instanceof UnexpectedResponseException) || ((UnexpectedResponseException) ex).isServerError();
+                if (!retryable || attempt >= UPLOAD_ATTEMPTS) {
+                    throw ex;
+                }
+                logger.warn(String.format("Failed to upload file %s, attempt %d. Reason is: %s", file.getName(), attempt, ex.getMessage()));
+                Thread.sleep(1000L * attempt);
+            }
+        }
+    }
+
     protected void updateAdditionalTestFiles(SingleTest test) throws IOException {
-        if (additionalTestFiles != null && !additionalTestFiles.isEmpty()) {
-            for (File file : additionalTestFiles) {
+        updateAdditionalTestFiles(test, additionalTestFiles);
+    }
+
+    protected void updateAdditionalTestFiles(SingleTest test, List<File> files) throws IOException {
+        if (bundleUpload && files != null && files.size() > 1 && uploadBundle(test, files)) {
+            return;
+        }
+        if (files != null && !files.isEmpty()) {
+            for (File file : files) {
                 String filepath = FilenameUtils.normalize(file.getAbsolutePath());
                 logger.info("Upload additional test file: " + filepath);
                 notifier.notifyInfo("Upload additional test file: " + filepath);
@@ -275,6 +656,22 @@ public class CiBuild {
         }
     }
 
+    /**
+     * @return true, if files are uploaded in zip archive, false - if bundle upload failed
+     */
+    protected boolean uploadBundle(SingleTest test, List<File> files) {
+        logger.info(String.format("Upload bundle of %d additional test files", files.size()));
+        notifier.notifyInfo(String.format("Upload bundle of %d additional test files", files.size()));
+        try {
+            test.uploadBundle(BUNDLE_NAME, files);
+            return true;
+        } catch (IOException | UnexpectedResponseException ex) {
+            logger.warn("Failed to upload bundle of test files, files will be uploaded one by one", ex);
+            notifier.notifyWarning("Failed to upload bundle of test files, files will be uploaded one by one");
+            return false;
+        }
+    }
+
     protected Master startTest(AbstractTest test) throws IOException, InterruptedException {
         Master master;
         if (!StringUtils.isBlank(properties) && test instanceof SingleTest) {
@@ -289,6 +686,10 @@ public class CiBuild {
         notifier.notifyInfo("Test has been started successfully at " + startTime.getTime().toString() + ". Master id=" + master.getId());
 
         try {
+            if (isParallelStartSteps()) {
+                runStartSteps(test, master);
+                return master;
+            }
             setReportName(master);
             if (test.getTestType().equals(FUNCTIONAL_GUI_TEST)) {
                 String serverReport = master.getServerReport(workspaceId, test.getId());
@@ -309,8 +710,7 @@ public class CiBuild {
             skipInitState(master);
 
             if (!StringUtils.isBlank(properties) && test instanceof MultiTest) {
-                notifier.notifyInfo("Sent properties: " + properties);
-                master.postProperties(properties);
+                postProperties(master);
             }
 
             postNotes(master);
@@ -325,6 +725,49 @@ public class CiBuild {
         return master;
     }
 
+    /**
+     * Runs steps after start of test concurrently: report name, public report and notes do not wait for each other
+     * and for INIT state, session properties of multi-test are posted right after INIT state is skipped.
+     */
+    protected StepRunner runStartSteps(final AbstractTest test, final Master master) throws IOException, InterruptedException {
+        final String testType = test.getTestType();
+        master.setTestType(testType);
+        StepRunner steps = new StepRunner(logger);
+        steps.add("report name", () -> setReportName(master));
+        if (testType.equals(FUNCTIONAL_GUI_TEST) || testType.equals(TEST_SUITE)) {
+            steps.add("functional report", () -> {
+                String serverReport = testType.equals(FUNCTIONAL_GUI_TEST) ?
+                        master.getServerReport(workspaceId, test.getId()) :
+                        master.getServerReportForTestSuite(workspaceId, test.getId());
+                notifier.notifyInfo("Test report will be available at " + serverReport);
+                waitForFinish(master);
+            });
+        }
+        steps.add("public report", () -> generatePublicReport(master));
+        steps.add("init state", () -> skipInitState(master));
+        if (!StringUtils.isBlank(properties) && test instanceof MultiTest) {
+            steps.add("properties", () -> postProperties(master), "init state");
+        }
+        steps.add("notes", () -> postNotes(master));
+        steps.run();
+        logger.info("Start steps timings, ms: " + steps.getTimings());
+        return steps;
+    }
+
+    /**
+     * @return true, if 'bzm.parallelStartSteps' is 'true': steps after start of test are run concurrently
+     */
+    protected boolean isParallelStartSteps() {
+        return Boolean.getBoolean("bzm.parallelStartSteps");
+    }
+
+    protected void postProperties(Master master) throws IOException, InterruptedException {
+        notifier.notifyInfo("Sent properties: " + properties);
+        PropertiesResult result = master.sendProperties(properties);
+        if (!result.isSuccessful()) {
+            notifier.notifyWarning("Properties were not sent to sessions: " + result.getFailed().keySet());
+        }
+    }
 
     protected void generatePublicReport(Master master) throws InterruptedException {
         try {
@@ -371,14 +814,19 @@ public class CiBuild {
 
     /**
      * Skip INIT state.
-     * It should be done before post notes and post session properties
+     * It should be done before post session properties
      */
     protected void skipInitState(Master master) throws InterruptedException, IOException {
         int n = 1;
         long bzmCheckTimeout = BlazeMeterUtils.getCheckTimeout();
+        PollingSchedule schedule = isAdaptivePolling() ? PollingSchedule.create(0) : null;
         while (n < 6) {
             try {
-                Thread.sleep(bzmCheckTimeout);
+                if (schedule == null) {
+                    Thread.sleep(bzmCheckTimeout);
+                } else if (n > 1) {
+                    Thread.sleep(schedule.nextDelay(true));
+                }
                 int statusCode = master.getStatus();
                 if (statusCode > 0) {
                     break;
@@ -423,6 +871,15 @@ public class CiBuild {
      * @throws InterruptedException IOException
      */
     public void waitForFinish(Master master) throws InterruptedException, IOException {
+        MasterStatusPoller poller = getStatusPoller();
+        if (poller != null) {
+            waitForFinish(master, poller);
+            return;
+        }
+        if (isAdaptivePolling()) {
+            waitForFinishAdaptive(master);
+            return;
+        }
         long start = System.currentTimeMillis();
         long lastPrint = start;
         long bzmCheckTimeout = BlazeMeterUtils.getCheckTimeout();
@@ -441,6 +898,69 @@ public class CiBuild {
         }
     }
 
+    /**
+     * Waits until test will be over on server.
+     * Master is polled often while it is starting or ending and near the expected end of test,
+     * in the middle of test delay between polls grows up to 'bzm.poll.maxInterval'.
+     */
+    protected void waitForFinishAdaptive(Master master) throws InterruptedException, IOException {
+        PollingSchedule schedule = PollingSchedule.create(PollingSchedule.getLongProperty("bzm.poll.timeout", 0));
+        schedule.setExpectedDuration(expectedDuration, schedule.getMaxInterval());
+        long lastPrint = 0;
+        long bzmMinute = Long.parseLong(System.getProperty("bzm.minute", "60000"));
+        int status = 0;
+        while (true) {
+            Thread.sleep(schedule.nextDelay(status < 100 || status >= 120));
+            status = master.getStatus();
+            if (status == 140) {
+                return;
+            }
+            long elapsed = schedule.getElapsed();
+            if (elapsed - lastPrint > bzmMinute) {
+                notifier.notifyInfo("Check if the test is still running. Time passed since start: " + (elapsed / 1000 / 60) + " minutes.");
+                lastPrint = elapsed;
+            }
+            if (schedule.isExpired()) {
+                throw new IOException("Test is not finished in " + (elapsed / 1000) + " seconds");
+            }
+            checkAborted();
+        }
+    }
+
+    /**
+     * Waits until test will be over on server, status of master is polled by shared poller
+     */
+    protected void waitForFinish(Master master, MasterStatusPoller poller) throws InterruptedException, IOException {
+        long start = System.currentTimeMillis();
+        long bzmMinute = Long.parseLong(System.getProperty("bzm.minute", "60000"));
+        CompletableFuture<Integer> finished = poller.awaitStatus(master, 140);
+        try {
+            while (true) {
+                try {
+                    finished.get(bzmMinute, TimeUnit.MILLISECONDS);
+                    return;
+                } catch (TimeoutException ex) {
+                    long now = System.currentTimeMillis();
+                    notifier.notifyInfo("Check if the test is still running. Time passed since start: " + ((now - start) / 1000 / 60) + " minutes.");
+                } catch (InterruptedException ex) {
+                    logger.warn("Job was stopped by user");
+                    notifier.notifyError("Job was stopped by user");
+                    throw new InterruptedException("Job was stopped by user");
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    } else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new IOException(cause);
+                }
+            }
+        } finally {
+            finished.cancel(false);
+        }
+    }
+
     // TODO: is it really need?
     protected void checkAborted() throws InterruptedException {
         if (Thread.interrupted()) {
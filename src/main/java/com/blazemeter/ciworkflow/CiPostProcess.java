@@ -16,6 +16,8 @@ package com.blazemeter.ciworkflow;
 
 import com.blazemeter.api.explorer.Master;
 import com.blazemeter.api.explorer.Session;
+import com.blazemeter.api.http.HttpUtils;
+import com.blazemeter.api.http.RangedDownload;
 import com.blazemeter.api.logging.Logger;
 import com.blazemeter.api.logging.UserNotifier;
 import com.blazemeter.api.utils.BlazeMeterUtils;
@@ -25,14 +27,17 @@ import net.sf.json.JSONObject;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang.StringUtils;
 
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.URL;
-import java.net.*;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -68,6 +73,21 @@ public class CiPostProcess {
 
     private final Integer WAITING_TIME_FOR_TEST_RESULT = 65000;
 
+    private final long RESULT_POLL_MIN_INTERVAL = 500;
+
+    private final long RESULT_POLL_MAX_INTERVAL = 5000;
+
+    protected int resultPolls;
+
+    private HttpUtils httpUtils;
+    private Boolean rangedDownload;
+
+    protected static final String JTL_ARCHIVE = "jtl-report.zip";
+
+    private static final int UNZIP_BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<byte[]> UNZIP_BUFFER = ThreadLocal.withInitial(() -> new byte[UNZIP_BUFFER_SIZE]);
+
     public CiPostProcess(boolean isDownloadJtl, boolean isDownloadJunit, String jtlPath,
                          String junitPath, String workspaceDir, BlazeMeterUtils utils) {
         this.isDownloadJtl = isDownloadJtl;
@@ -109,26 +129,13 @@ public class CiPostProcess {
             BuildResult result;
 
             if (testType.equals(FUNCTIONAL_GUI_TEST)) {
-                ciStatus = master.getFunctionalCIStatus();
-
-                long startTime = System.currentTimeMillis();
-                long waitTime = 0;
-                while (ciStatus.getJSONObject("gridSummary").isNullObject() && waitTime < WAITING_TIME_FOR_TEST_RESULT) {
-                    waitTime = System.currentTimeMillis() - startTime;
-                    ciStatus = master.getFunctionalCIStatus();
-                }
+                ciStatus = waitForFunctionalResult(master, status -> !status.getJSONObject("gridSummary").isNullObject());
 
                 result = master.getHasDataStatus().getBoolean("hasData") ? validateFunctionalCiStatus(ciStatus) : BuildResult.FAILED;
             }else if(testType.equals(TEST_SUITE))
             {
-                ciStatus = master.getFunctionalCIStatus();
-                long startTime = System.currentTimeMillis();
-                long waitTime = 0;
-                while (ciStatus.getJSONObject("testSuiteSummary").getJSONObject("suiteSummary").isNullObject() && waitTime < WAITING_TIME_FOR_TEST_RESULT )
-                {
-                    waitTime = System.currentTimeMillis() - startTime;
-                    ciStatus = master.getFunctionalCIStatus();
-                }
+                ciStatus = waitForFunctionalResult(master,
+                        status -> !status.getJSONObject("testSuiteSummary").getJSONObject("suiteSummary").isNullObject());
                 result = master.getHasDataStatus().getBoolean("hasData") ? validateTestSuiteCiStatus(ciStatus) : BuildResult.FAILED;
             }
             else {
@@ -158,6 +165,34 @@ public class CiPostProcess {
         }
     }
 
+    /**
+     * Polls functional CI status until summary appears or 'bzm.functionalResult.timeout' ms
+     * (65 sec by default) pass. Delay between polls grows from 0.5 to 5 sec.
+     *
+     * @return the first CI status with summary or the last polled status
+     */
+    protected JSONObject waitForFunctionalResult(final Master master, ResultWaiter.Condition<JSONObject> ready) throws IOException, InterruptedException {
+        PollingSchedule schedule = new PollingSchedule(RESULT_POLL_MIN_INTERVAL, RESULT_POLL_MAX_INTERVAL,
+                PollingSchedule.getLongProperty("bzm.functionalResult.timeout", WAITING_TIME_FOR_TEST_RESULT));
+        schedule.setJitter(0.2);
+        ResultWaiter<JSONObject> waiter = new ResultWaiter<>(schedule);
+        JSONObject ciStatus = waiter.await(master::getFunctionalCIStatus, ready);
+        resultPolls = waiter.getPolls();
+        if (waiter.isTimedOut()) {
+            logger.warn("Functional test result is not ready after " + resultPolls + " polls in " + waiter.getElapsed() + " ms");
+        } else {
+            logger.info("Functional test result is received after " + resultPolls + " polls in " + waiter.getElapsed() + " ms");
+        }
+        return ciStatus;
+    }
+
+    /**
+     * @return count of CI status polls, that were needed to get functional test result
+     */
+    public int getResultPolls() {
+        return resultPolls;
+    }
+
     protected boolean checkErrorCode(JSONObject ciStatus) {
         if (ciStatus.has("errors")) {
             JSONArray errors = ciStatus.getJSONArray("errors");
@@ -267,36 +302,17 @@ public class CiPostProcess {
 
     /**
      * Saves jtl report to hdd;
+     * Reports of sessions are downloaded concurrently, no more than 'bzm.jtl.concurrency' (4 by default)
+     * at the same time, and all downloads are limited by 'bzm.jtl.timeout' ms (30 min by default, 0 - unlimited)
      */
     public void saveJTL(Master master) {
         try {
             File jtlReportsDir = mkdirs(workspaceDir, jtlPath, false);
-            for (Session session : master.getSessions()) {
-                for (int i = 1; i < 6; i++) {
-                    logger.debug("Try to get JTL report attempt #" + i);
-                    String reportUrl = session.getJTLReport();
-                    if (reportUrl != null) {
-                        URL url = (reportUrl.startsWith("http")) ?
-                                new URL(reportUrl) :
-                                new URL(utils.getAddress() + reportUrl);
-                        File reportDir = new File(getParentDirWithPermissionsCheck(jtlReportsDir, workspaceDir), session.getId());
-                        reportDir.mkdirs();
-                        boolean isSuccess = downloadAndUnzipJTL(url, reportDir);
-                        if (isSuccess) {
-                            notifier.notifyInfo("Saving jtl report " + reportDir.getAbsolutePath());
-                            break;
-                        } else {
-                            logger.error("Failed to download & unzip jtl-report from " + url.getPath());
-                        }
-                    } else {
-                        if (i == 5) {
-                            notifier.notifyWarning("Failed to get JTL ZIP for session id=" + session.getId());
-                            break;
-                        }
-                        Thread.sleep(BlazeMeterUtils.getCheckTimeout() * i);
-                    }
-                }
-            }
+            List<Session> sessions = master.getSessions();
+            File reportsDir = getParentDirWithPermissionsCheck(jtlReportsDir, workspaceDir);
+            JtlDownloadManager manager = new JtlDownloadManager(notifier, logger, this::downloadAndUnzipJTL,
+                    Integer.getInteger("bzm.jtl.concurrency", 4), Long.getLong("bzm.jtl.timeout", 1800000L));
+            manager.download(sessions, reportsDir);
         } catch (Exception e) {
             notifier.notifyWarning("Unable to get JTL ZIP from " + master.getId() + " " + e.getMessage());
             logger.error("Unable to get JTL ZIP from " + master.getId() + " ", e);
@@ -307,24 +323,17 @@ public class CiPostProcess {
      * @param url - for download JTL report
      * @return true - if report has been successfully downloaded and unzip
      */
-    public boolean downloadAndUnzipJTL(URL url, File reportDir) {
+    public boolean downloadAndUnzipJTL(URL url, final File reportDir) {
         try {
-            HttpURLConnection connection;
-            if (System.getProperty("http.proxyHost") != null && System.getProperty("http.proxyPort") != null) {
-                notifier.notifyInfo("connecting via proxy configuration");
-                SocketAddress addr = new InetSocketAddress(System.getProperty("http.proxyHost"), Integer.valueOf(System.getProperty("http.proxyPort")));
-                Proxy proxy = new Proxy(Proxy.Type.HTTP, addr);
-                connection = (HttpURLConnection) url.openConnection(proxy);
-            }
-            else {
-                connection = (HttpURLConnection) url.openConnection();
+            HttpUtils http = getHttpUtils();
+            if (isRangedDownload()) {
+                downloadByRangesAndUnzipJTL(http, url, reportDir);
+            } else {
+                http.download(http.createDownload(url.toString()), stream -> {
+                    unzipJTL(stream, reportDir);
+                    return null;
+                });
             }
-
-            connection.setConnectTimeout(30000); // 30 sec connection time out
-            connection.setReadTimeout(30000); // 30 sec read time out
-            connection.connect();
-            InputStream inputStream = connection.getInputStream();
-            unzipJTL(inputStream, reportDir);
             return true;
         } catch (Exception e) {
             notifier.notifyWarning("Unable to get JTL zip for url=" + url + " : check server for test artifacts " + e);
@@ -334,14 +343,56 @@ public class CiPostProcess {
     }
 
     /**
-     * Unzips archive with JTL from InputStream
+     * Downloads JTL zip to report dir by parallel ranges, 'bzm.jtl.connections' (4 by default)
+     * ranges of 'bzm.jtl.chunkSize' bytes (16 MB by default) at the same time.
+     * Failed download is resumed by the next attempt, archive is removed after unzip
+     * or if it is corrupted, so the next attempt downloads it again.
+     */
+    protected void downloadByRangesAndUnzipJTL(HttpUtils http, URL url, File reportDir) throws IOException {
+        RangedDownload download = new RangedDownload(http, url.toString(), new File(reportDir, JTL_ARCHIVE));
+        download.setChunkSize(Long.getLong("bzm.jtl.chunkSize", RangedDownload.DEFAULT_CHUNK_SIZE));
+        download.setConcurrency(Integer.getInteger("bzm.jtl.connections", 4));
+        File archive = download.download();
+        try (InputStream in = new FileInputStream(archive)) {
+            unzipJTL(in, reportDir);
+        } finally {
+            archive.delete();
+        }
+    }
+
+    /**
+     * @return true - if JTL zip is downloaded by ranges, that is enabled by 'bzm.jtl.rangedDownload' property
+     */
+    public boolean isRangedDownload() {
+        return (rangedDownload != null) ? rangedDownload : Boolean.getBoolean("bzm.jtl.rangedDownload");
+    }
+
+    public void setRangedDownload(boolean rangedDownload) {
+        this.rangedDownload = rangedDownload;
+    }
+
+    /**
+     * @return http client of BlazeMeterUtils, that is used for download of reports
+     */
+    protected synchronized HttpUtils getHttpUtils() {
+        if (utils != null) {
+            return utils;
+        }
+        if (httpUtils == null) {
+            httpUtils = new HttpUtils(logger);
+        }
+        return httpUtils;
+    }
+
+    /**
+     * Unzips archive with JTL from InputStream, interrupt of current thread stops it
      *
      * @param inputStream
      * @throws IOException
      */
     public void unzipJTL(InputStream inputStream, File reportDir) throws IOException {
-        ZipInputStream zis = new ZipInputStream(inputStream);
-        byte[] buffer = new byte[4096];
+        ZipInputStream zis = new ZipInputStream(new BufferedInputStream(inputStream, UNZIP_BUFFER_SIZE));
+        byte[] buffer = UNZIP_BUFFER.get();
         ZipEntry zipEntry = zis.getNextEntry();
         while (zipEntry != null) {
             File report = new File(reportDir, zipEntry.getName());
@@ -349,12 +400,15 @@ public class CiPostProcess {
                 report.mkdirs();
             } else {
                 report.getParentFile().mkdirs();
-                FileOutputStream fos = new FileOutputStream(report);
-                int len;
-                while ((len = zis.read(buffer)) > 0) {
-                    fos.write(buffer, 0, len);
+                try (FileOutputStream fos = new FileOutputStream(report)) {
+                    int len;
+                    while ((len = zis.read(buffer)) > 0) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            throw new InterruptedIOException("Unzip of JTL report has been interrupted");
+                        }
+                        fos.write(buffer, 0, len);
+                    }
                 }
-                fos.close();
                 if (report.exists() && report.getName().equals("sample.jtl")) {
                     report.renameTo(new File(reportDir, "bm-kpis.jtl"));
                 }
@@ -0,0 +1,242 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazemeter.ciworkflow;
+
+import com.blazemeter.api.exception.InterruptRuntimeException;
+import com.blazemeter.api.explorer.Session;
+import com.blazemeter.api.logging.Logger;
+import com.blazemeter.api.logging.UserNotifier;
+import com.blazemeter.api.utils.BlazeMeterUtils;
+import com.blazemeter.api.utils.VirtualThreads;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downloads and unzips JTL reports of all sessions of master concurrently.
+ * Each session polls its report url on its own, so sessions with ready reports are downloaded
+ * while others still wait for url. No more than 'concurrency' reports are downloaded at the same time.
+ * Downloads, that are not finished before deadline, are cancelled: their threads are interrupted,
+ * that cancels HTTP calls and unzip, and download returns only after all of them are stopped.
+ */
+public class JtlDownloadManager {
+
+    /**
+     * Downloads and unzips report from url to directory
+     */
+    public interface Downloader {
+        boolean download(URL url, File reportDir);
+    }
+
+    public enum State {
+        WAITING, DOWNLOADING, SAVED, FAILED, CANCELLED
+    }
+
+    private static final int ATTEMPTS = 5;
+    private static final long STOP_CHECK_TIMEOUT = 10000;
+
+    private final UserNotifier notifier;
+    private final Logger logger;
+    private final Downloader downloader;
+    private final int concurrency;
+    private final long timeout;
+
+    private final List<Download> downloads = new ArrayList<>();
+
+    /**
+     * @param concurrency - max count of reports, that are downloaded at the same time
+     * @param timeout     - ms for all downloads, 0 - unlimited
+     */
+    public JtlDownloadManager(UserNotifier notifier, Logger logger, Downloader downloader, int concurrency, long timeout) {
+        this.notifier = notifier;
+        this.logger = logger;
+        this.downloader = downloader;
+        this.concurrency = concurrency;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Saves report of each session to 'jtlDir/sessionId'.
+     * States of previous call are discarded.
+     *
+     * @return count of saved reports
+     */
+    public int download(List<Session> sessions, File jtlDir) throws InterruptedException {
+        final Semaphore permits = new Semaphore(Math.max(1, concurrency));
+        final AtomicInteger saved = new AtomicInteger();
+        final int total = sessions.size();
+        reset();
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("bzm-jtl-");
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Session session : sessions) {
+                final Download download = new Download(session, new File(jtlDir, session.getId()));
+                add(download);
+                futures.add(executor.submit(() -> {
+                    if (download.save(permits)) {
+                        notifier.notifyInfo(String.format("Saved JTL reports of %d from %d sessions", saved.incrementAndGet(), total));
+                    }
+                    return null;
+                }));
+            }
+            long deadline = (timeout > 0) ? System.currentTimeMillis() + timeout : Long.MAX_VALUE;
+            for (Future<?> future : futures) {
+                try {
+                    future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                } catch (TimeoutException ex) {
+                    cancel();
+                    notifier.notifyWarning(String.format("JTL reports were not saved in %d ms, saved %d from %d sessions", timeout, saved.get(), total));
+                    logger.warn("Timeout of JTL download, sessions states: " + getStates());
+                    break;
+                } catch (ExecutionException ex) {
+                    logger.error("Failed to save JTL report", ex.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            awaitStop(executor);
+        }
+        return saved.get();
+    }
+
+    private void awaitStop(ExecutorService executor) throws InterruptedException {
+        while (!executor.awaitTermination(STOP_CHECK_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            logger.warn("Wait for stop of cancelled JTL downloads, sessions states: " + getStates());
+        }
+    }
+
+    private synchronized void reset() {
+        downloads.clear();
+    }
+
+    private synchronized void add(Download download) {
+        downloads.add(download);
+    }
+
+    private synchronized void cancel() {
+        for (Download download : downloads) {
+            if (download.state == State.WAITING || download.state == State.DOWNLOADING) {
+                download.state = State.CANCELLED;
+            }
+        }
+    }
+
+    /**
+     * @return state of download of each session: 'sessionId=STATE'
+     */
+    public synchronized List<String> getStates() {
+        List<String> states = new ArrayList<>();
+        for (Download download : downloads) {
+            states.add(download.session.getId() + "=" + download.state);
+        }
+        return states;
+    }
+
+    private synchronized boolean isCancelled(Download download) {
+        return download.state == State.CANCELLED;
+    }
+
+    /**
+     * @return false, if download has been cancelled and its state is not changed
+     */
+    private synchronized boolean setState(Download download, State state) {
+        if (download.state != State.CANCELLED) {
+            download.state = state;
+            return true;
+        }
+        return false;
+    }
+
+    private class Download {
+        private final Session session;
+        private final File reportDir;
+        private State state = State.WAITING;
+        private int attempts;
+
+        private Download(Session session, File reportDir) {
+            this.session = session;
+            this.reportDir = reportDir;
+        }
+
+        /**
+         * @return true, if report is saved
+         */
+        private boolean save(Semaphore permits) throws InterruptedException {
+            try {
+                return run(permits);
+            } catch (IOException | RuntimeException ex) {
+                setState(this, State.FAILED);
+                notifier.notifyWarning("Unable to get JTL ZIP for session id=" + session.getId() + " " + ex.getMessage());
+                logger.error("Unable to get JTL ZIP for session id=" + session.getId() + " ", ex);
+                return false;
+            }
+        }
+
+        private boolean run(Semaphore permits) throws IOException, InterruptedException {
+            // downloader may swallow interrupt, so cancelled state stops attempts as well
+            while (attempts < ATTEMPTS && !isCancelled(this)) {
+                attempts++;
+                logger.debug("Try to get JTL report attempt #" + attempts);
+                String reportUrl;
+                try {
+                    reportUrl = session.getJTLReport();
+                } catch (InterruptRuntimeException ex) {
+                    throw new InterruptedException("Interrupted while get JTL report url");
+                }
+                if (reportUrl == null) {
+                    if (attempts == ATTEMPTS) {
+                        notifier.notifyWarning("Failed to get JTL ZIP for session id=" + session.getId());
+                        break;
+                    }
+                    Thread.sleep(BlazeMeterUtils.getCheckTimeout() * attempts);
+                    continue;
+                }
+
+                URL url = reportUrl.startsWith("http") ? new URL(reportUrl) : new URL(session.getUtils().getAddress() + reportUrl);
+                reportDir.mkdirs();
+                boolean isSuccess;
+                permits.acquire();
+                try {
+                    setState(this, State.DOWNLOADING);
+                    isSuccess = downloader.download(url, reportDir);
+                } finally {
+                    permits.release();
+                }
+                if (isSuccess) {
+                    if (!setState(this, State.SAVED)) {
+                        return false;
+                    }
+                    notifier.notifyInfo("Saving jtl report " + reportDir.getAbsolutePath());
+                    return true;
+                }
+                setState(this, State.WAITING);
+                logger.error("Failed to download & unzip jtl-report from " + url.getPath());
+            }
+            setState(this, State.FAILED);
+            return false;
+        }
+    }
+}
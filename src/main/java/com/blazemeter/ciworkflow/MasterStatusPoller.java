@@ -0,0 +1,222 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.ciworkflow;
+
+import com.blazemeter.api.explorer.Master;
+import com.blazemeter.api.utils.BlazeMeterUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Polls status of many running masters from one scheduler thread.
+ * Masters are polled every 'interval' ms, first polls are spread over the interval,
+ * so requests of builds started at the same time do not come together.
+ * All waiters and listeners of the same master id share one poll, next poll is skipped
+ * while previous request is not finished. Requests are sent with async http calls.
+ */
+public class MasterStatusPoller {
+
+    /**
+     * Receives each polled status of master
+     */
+    public interface StatusListener {
+        void onStatus(Master master, int status);
+    }
+
+    private static final double SPREAD_STEP = 0.6180339887;
+    private static MasterStatusPoller defaultPoller;
+
+    private final long interval;
+    private final ScheduledExecutorService scheduler;
+    private final Map<String, Poll> polls = new HashMap<>();
+    private final AtomicInteger counter = new AtomicInteger();
+
+    /**
+     * Poller with 'bzm.checkTimeout' interval
+     */
+    public MasterStatusPoller() {
+        this(BlazeMeterUtils.getCheckTimeout());
+    }
+
+    /**
+     * @param interval - ms between polls of the same master
+     */
+    public MasterStatusPoller(long interval) {
+        this.interval = interval;
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread thread = new Thread(r, "bzm-status-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        this.scheduler = executor;
+    }
+
+    /**
+     * @return shared poller with 'bzm.checkTimeout' interval
+     */
+    public static synchronized MasterStatusPoller getDefault() {
+        if (defaultPoller == null) {
+            defaultPoller = new MasterStatusPoller();
+        }
+        return defaultPoller;
+    }
+
+    /**
+     * @return future, that is completed when master status reaches 'status',
+     * or completed exceptionally if status request fails. Cancel of future stops waiting.
+     */
+    public CompletableFuture<Integer> awaitStatus(Master master, int status) {
+        final CompletableFuture<Integer> future = new CompletableFuture<>();
+        final Waiter waiter = new Waiter(status, future);
+        final Poll poll;
+        // completed poll releases itself under the same lock, so waiter is never added to released poll
+        synchronized (this) {
+            poll = register(master);
+            poll.waiters.add(waiter);
+        }
+        future.whenComplete((value, ex) -> {
+            synchronized (MasterStatusPoller.this) {
+                poll.waiters.remove(waiter);
+                release(poll);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Adds listener of all polled statuses of master, until it is removed
+     */
+    public synchronized void addListener(Master master, StatusListener listener) {
+        register(master).listeners.add(listener);
+    }
+
+    public synchronized void removeListener(Master master, StatusListener listener) {
+        Poll poll = polls.get(master.getId());
+        if (poll != null) {
+            poll.listeners.remove(listener);
+            release(poll);
+        }
+    }
+
+    /**
+     * @return count of masters, that are polled now
+     */
+    public synchronized int getActiveCount() {
+        return polls.size();
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private synchronized Poll register(Master master) {
+        Poll poll = polls.get(master.getId());
+        if (poll == null) {
+            poll = new Poll(master);
+            polls.put(master.getId(), poll);
+            double spread = (counter.getAndIncrement() * SPREAD_STEP) % 1;
+            long delay = interval + (long) (interval * spread);
+            poll.task = scheduler.scheduleAtFixedRate(poll::run, delay, interval, TimeUnit.MILLISECONDS);
+        }
+        return poll;
+    }
+
+    /**
+     * Stops polling of master, if nobody waits for it
+     */
+    private void release(Poll poll) {
+        if (poll.waiters.isEmpty() && poll.listeners.isEmpty() && polls.get(poll.master.getId()) == poll) {
+            polls.remove(poll.master.getId());
+            poll.task.cancel(false);
+        }
+    }
+
+    private class Poll {
+        private final Master master;
+        private final List<Waiter> waiters = new ArrayList<>();
+        private final List<StatusListener> listeners = new ArrayList<>();
+        private ScheduledFuture<?> task;
+        private boolean inFlight;
+
+        private Poll(Master master) {
+            this.master = master;
+        }
+
+        private void run() {
+            synchronized (MasterStatusPoller.this) {
+                if (inFlight) {
+                    return;
+                }
+                inFlight = true;
+            }
+            master.getStatusAsync().whenComplete((status, ex) -> {
+                List<Waiter> done = new ArrayList<>();
+                List<StatusListener> currentListeners;
+                synchronized (MasterStatusPoller.this) {
+                    inFlight = false;
+                    for (Waiter waiter : waiters) {
+                        if (ex != null || status >= waiter.status) {
+                            done.add(waiter);
+                        }
+                    }
+                    waiters.removeAll(done);
+                    release(this);
+                    currentListeners = new ArrayList<>(listeners);
+                }
+                if (ex != null) {
+                    Throwable cause = (ex.getCause() != null) ? ex.getCause() : ex;
+                    for (Waiter waiter : done) {
+                        waiter.future.completeExceptionally(cause);
+                    }
+                    return;
+                }
+                for (StatusListener listener : currentListeners) {
+                    try {
+                        listener.onStatus(master, status);
+                    } catch (RuntimeException e) {
+                        master.getUtils().getLogger().warn("Failed to notify listener of status of master id=" + master.getId(), e);
+                    }
+                }
+                for (Waiter waiter : done) {
+                    waiter.future.complete(status);
+                }
+            });
+        }
+    }
+
+    private static class Waiter {
+        private final int status;
+        private final CompletableFuture<Integer> future;
+
+        private Waiter(int status, CompletableFuture<Integer> future) {
+            this.status = status;
+            this.future = future;
+        }
+    }
+}
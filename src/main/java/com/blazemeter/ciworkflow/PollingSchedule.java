@@ -0,0 +1,142 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.ciworkflow;
+
+import com.blazemeter.api.utils.BlazeMeterUtils;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Calculates delays between status polls.
+ * While process is in active phase (master is starting or ending, validation is almost done)
+ * polls are done every 'minInterval', in steady phase delay is doubled after each poll up to 'maxInterval'.
+ * If expected end is known, steady delay is cut to wake up at 'endWindow' before expected end
+ * and polls are fast until 'endWindow' after it.
+ * Optional deadline limits the whole waiting, optional jitter shortens each delay by random part,
+ * so polls of many builds are not synchronized.
+ */
+public class PollingSchedule {
+
+    private final long minInterval;
+    private final long maxInterval;
+    private final long start;
+    private long deadline;
+    private long expectedEnd;
+    private long endWindow;
+    private long steadyDelay;
+    private double jitter;
+
+    /**
+     * @param minInterval - delay in active phase
+     * @param maxInterval - max delay in steady phase
+     * @param timeout     - max time of waiting, 0 - no limit
+     */
+    public PollingSchedule(long minInterval, long maxInterval, long timeout) {
+        this.minInterval = minInterval;
+        this.maxInterval = Math.max(minInterval, maxInterval);
+        this.start = currentTimeMillis();
+        this.deadline = (timeout > 0) ? start + timeout : 0;
+        this.endWindow = this.maxInterval;
+    }
+
+    /**
+     * Schedule with intervals from 'bzm.poll.minInterval' (1 sec by default)
+     * to 'bzm.poll.maxInterval' (3 * 'bzm.checkTimeout' by default)
+     *
+     * @param timeout - max time of waiting, 0 - no limit
+     */
+    public static PollingSchedule create(long timeout) {
+        long minInterval = getLongProperty("bzm.poll.minInterval", 1000);
+        long maxInterval = getLongProperty("bzm.poll.maxInterval", 3 * BlazeMeterUtils.getCheckTimeout());
+        return new PollingSchedule(minInterval, maxInterval, timeout);
+    }
+
+    /**
+     * @param duration - expected duration of process since creation of schedule, 0 - unknown
+     * @param window   - time around expected end with fast polls
+     */
+    public void setExpectedDuration(long duration, long window) {
+        this.expectedEnd = (duration > 0) ? start + duration : 0;
+        this.endWindow = window;
+    }
+
+    /**
+     * @param jitter - max part of delay (0..1), that is randomly cut from each delay
+     */
+    public void setJitter(double jitter) {
+        this.jitter = Math.max(0, Math.min(1, jitter));
+    }
+
+    /**
+     * @param active - true, if process is in active phase and its status changes soon
+     * @return delay before next poll, never after deadline
+     */
+    public long nextDelay(boolean active) {
+        long now = currentTimeMillis();
+        long delay;
+        if (active || isNearExpectedEnd(now)) {
+            steadyDelay = 0;
+            delay = minInterval;
+        } else {
+            steadyDelay = (steadyDelay == 0) ? minInterval : Math.min(steadyDelay * 2, maxInterval);
+            delay = steadyDelay;
+            if (expectedEnd > 0 && now < expectedEnd - endWindow) {
+                delay = Math.max(minInterval, Math.min(delay, expectedEnd - endWindow - now));
+            }
+        }
+        if (jitter > 0) {
+            delay -= (long) (delay * jitter * ThreadLocalRandom.current().nextDouble());
+        }
+        if (deadline > 0) {
+            delay = Math.max(0, Math.min(delay, deadline - now));
+        }
+        return delay;
+    }
+
+    /**
+     * @return true, if deadline has passed
+     */
+    public boolean isExpired() {
+        return deadline > 0 && currentTimeMillis() >= deadline;
+    }
+
+    public long getElapsed() {
+        return currentTimeMillis() - start;
+    }
+
+    public long getMinInterval() {
+        return minInterval;
+    }
+
+    public long getMaxInterval() {
+        return maxInterval;
+    }
+
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private boolean isNearExpectedEnd(long now) {
+        return expectedEnd > 0 && now >= expectedEnd - endWindow && now <= expectedEnd + endWindow;
+    }
+
+    static long getLongProperty(String name, long defaultValue) {
+        try {
+            return Long.parseLong(System.getProperty(name, String.valueOf(defaultValue)));
+        } catch (NumberFormatException ex) {
+            return defaultValue;
+        }
+    }
+}
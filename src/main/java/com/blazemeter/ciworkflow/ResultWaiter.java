@@ -0,0 +1,77 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.ciworkflow;
+
+import java.io.IOException;
+
+/**
+ * Polls server until result is ready or deadline passes.
+ * Delays between polls are taken from PollingSchedule: they grow from min to max interval with jitter.
+ * After waiting, count of polls and elapsed time are available for metrics.
+ */
+public class ResultWaiter<T> {
+
+    public interface Poll<T> {
+        T poll() throws IOException;
+    }
+
+    public interface Condition<T> {
+        boolean isReady(T result);
+    }
+
+    private final PollingSchedule schedule;
+    private int polls;
+    private boolean timedOut;
+
+    public ResultWaiter(PollingSchedule schedule) {
+        this.schedule = schedule;
+    }
+
+    /**
+     * @return the first ready result, or the last polled result if deadline has passed
+     */
+    public T await(Poll<T> poll, Condition<T> condition) throws IOException, InterruptedException {
+        T result = poll.poll();
+        polls = 1;
+        while (!condition.isReady(result)) {
+            if (schedule.isExpired()) {
+                timedOut = true;
+                break;
+            }
+            Thread.sleep(schedule.nextDelay(false));
+            result = poll.poll();
+            polls++;
+        }
+        return result;
+    }
+
+    /**
+     * @return count of polls in the last waiting
+     */
+    public int getPolls() {
+        return polls;
+    }
+
+    /**
+     * @return true, if the last waiting ended by deadline
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    public long getElapsed() {
+        return schedule.getElapsed();
+    }
+}
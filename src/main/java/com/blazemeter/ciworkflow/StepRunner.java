@@ -0,0 +1,171 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazemeter.ciworkflow;
+
+import com.blazemeter.api.logging.Logger;
+import com.blazemeter.api.utils.VirtualThreads;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs steps of build concurrently. Each step starts as soon as steps, that it depends on, are finished.
+ * Time of each step is measured without time of waiting for dependencies.
+ * If any step fails or current thread is interrupted, other steps are interrupted
+ * and error of step is rethrown in current thread after all steps are stopped.
+ */
+public class StepRunner {
+
+    public interface Step {
+        void run() throws Exception;
+    }
+
+    private static final long STOP_CHECK_TIMEOUT = 10000;
+
+    private final Logger logger;
+    private final Map<String, Step> steps = new LinkedHashMap<>();
+    private final Map<String, List<String>> dependencies = new LinkedHashMap<>();
+    private final Map<String, Long> timings = Collections.synchronizedMap(new LinkedHashMap<String, Long>());
+
+    public StepRunner(Logger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * @param name      - unique name of step
+     * @param dependsOn - names of steps, that are added before and must finish before this step starts
+     */
+    public StepRunner add(String name, Step step, String... dependsOn) {
+        if (steps.containsKey(name)) {
+            throw new IllegalArgumentException("Step '" + name + "' is already added");
+        }
+        for (String dependency : dependsOn) {
+            if (!steps.containsKey(dependency)) {
+                throw new IllegalArgumentException("Step '" + name + "' depends on unknown step '" + dependency + "'");
+            }
+        }
+        steps.put(name, step);
+        dependencies.put(name, Arrays.asList(dependsOn));
+        return this;
+    }
+
+    /**
+     * Runs all steps and waits until they are finished
+     */
+    public void run() throws IOException, InterruptedException {
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("bzm-step-");
+        CompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+        try {
+            final Map<String, Future<Void>> futures = new LinkedHashMap<>();
+            for (final Map.Entry<String, Step> entry : steps.entrySet()) {
+                final List<Future<Void>> required = new ArrayList<>();
+                for (String dependency : dependencies.get(entry.getKey())) {
+                    required.add(futures.get(dependency));
+                }
+                futures.put(entry.getKey(), completion.submit(() -> {
+                    for (Future<Void> future : required) {
+                        future.get();
+                    }
+                    long start = System.currentTimeMillis();
+                    try {
+                        entry.getValue().run();
+                    } finally {
+                        long time = System.currentTimeMillis() - start;
+                        timings.put(entry.getKey(), time);
+                        logger.info(String.format("Step '%s' took %d ms", entry.getKey(), time));
+                    }
+                    return null;
+                }));
+            }
+            // failure is thrown as soon as any step fails
+            for (int i = 0; i < futures.size(); i++) {
+                await(completion.take());
+            }
+        } finally {
+            executor.shutdownNow();
+            awaitStop(executor);
+        }
+    }
+
+    /**
+     * Waits until interrupted steps are stopped, so no step sends requests after run,
+     * interrupt of current thread is restored after that
+     */
+    private void awaitStop(ExecutorService executor) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(STOP_CHECK_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                    break;
+                }
+                logger.warn("Wait for stop of interrupted steps");
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(Future<Void> future) throws IOException, InterruptedException {
+        try {
+            future.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            // failure of dependency is wrapped by dependent step
+            while (cause instanceof ExecutionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * @return ms of each finished step in order of adding
+     */
+    public Map<String, Long> getTimings() {
+        synchronized (timings) {
+            Map<String, Long> result = new LinkedHashMap<>();
+            for (String name : steps.keySet()) {
+                if (timings.containsKey(name)) {
+                    result.put(name, timings.get(name));
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -14,25 +14,44 @@
 
 package com.blazemeter.ciworkflow;
 
+import com.blazemeter.api.exception.InterruptRuntimeException;
 import com.blazemeter.api.explorer.Account;
+import com.blazemeter.api.explorer.CatalogCache;
 import com.blazemeter.api.explorer.User;
 import com.blazemeter.api.explorer.Workspace;
 import com.blazemeter.api.explorer.test.AbstractTest;
 import com.blazemeter.api.explorer.test.MultiTest;
 import com.blazemeter.api.explorer.test.SingleTest;
 import com.blazemeter.api.utils.BlazeMeterUtils;
+import com.blazemeter.api.utils.VirtualThreads;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 
 /**
  * Convenient wrapper for getting tests available for particular credentials.
  */
 public class TestsListFlow {
 
+    /**
+     * Receives tests of each workspace as soon as they are loaded.
+     * With concurrency more than 1 it is called from worker threads.
+     */
+    public interface WorkspaceTestsListener {
+        void onWorkspaceTests(Workspace workspace, List<AbstractTest> tests);
+    }
+
     private BlazeMeterUtils utils;
+    private int concurrency = 1;
+    private WorkspaceTestsListener listener;
+    private CatalogCache catalogCache;
 
     public TestsListFlow() {
     }
@@ -42,15 +61,21 @@ public class TestsListFlow {
     }
 
     /**
-     * @return List of all tests that available for your credentials
+     * @return List of all tests that available for your credentials.
+     * If concurrency is more than 1, workspaces of all accounts are requested in parallel,
+     * order of tests is the same as in sequential mode.
      */
     public List<AbstractTest> getUsersTests() {
         final List<AbstractTest> result = new ArrayList<>();
         try {
             User user = new User(utils);
-            List<Account> accounts = user.getAccounts();
-            for (Account account : accounts) {
-                result.addAll(getTestsForAccount(account));
+            List<Account> accounts = (catalogCache != null) ? catalogCache.getAccounts(user) : user.getAccounts();
+            if (concurrency > 1) {
+                result.addAll(getTestsForAccounts(accounts));
+            } else {
+                for (Account account : accounts) {
+                    result.addAll(getTestsForAccount(account));
+                }
             }
         } catch (IOException ex) {
             utils.getNotifier().notifyError("Failed to get accounts. Reason is: " + ex.getMessage());
@@ -61,17 +86,85 @@ public class TestsListFlow {
 
     protected List<AbstractTest> getTestsForAccount(Account account) {
         final List<AbstractTest> result = new ArrayList<>();
+        for (Workspace workspace : getWorkspacesForAccount(account)) {
+            result.addAll(getTestsForWorkspace(workspace));
+        }
+        return result;
+    }
+
+    /**
+     * Loads workspaces and tests of accounts with no more than 'concurrency' requests at the same time
+     */
+    protected List<AbstractTest> getTestsForAccounts(List<Account> accounts) {
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("bzm-tests-list-");
+        Semaphore permits = new Semaphore(concurrency);
+        try {
+            List<Future<List<Workspace>>> workspaces = new ArrayList<>();
+            for (final Account account : accounts) {
+                workspaces.add(submit(executor, permits, () -> getWorkspacesForAccount(account)));
+            }
+
+            List<Future<List<AbstractTest>>> tests = new ArrayList<>();
+            for (Future<List<Workspace>> future : workspaces) {
+                for (final Workspace workspace : await(future)) {
+                    tests.add(submit(executor, permits, () -> getTestsForWorkspace(workspace)));
+                }
+            }
+
+            final List<AbstractTest> result = new ArrayList<>();
+            for (Future<List<AbstractTest>> future : tests) {
+                result.addAll(await(future));
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptRuntimeException("Interrupted while getting tests", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> Future<T> submit(ExecutorService executor, final Semaphore permits, final Callable<T> task) throws InterruptedException {
+        permits.acquire();
+        return executor.submit(() -> {
+            try {
+                return task.call();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    private static <T> T await(Future<T> future) throws InterruptedException {
         try {
-            List<Workspace> workspaces = account.getWorkspaces();
-            for (Workspace workspace : workspaces) {
-                result.addAll(getSingleTestsForWorkspace(workspace));
-                result.addAll(getMultiTestsForWorkspace(workspace));
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
             }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    protected List<Workspace> getWorkspacesForAccount(Account account) {
+        try {
+            return (catalogCache != null) ? catalogCache.getWorkspaces(account) : account.getWorkspaces();
         } catch (IOException e) {
             utils.getNotifier().notifyError("Failed to get workspaces for account id =" + account.getId() + ". Reason is: " + e.getMessage());
             utils.getLogger().error("Failed to get workspaces for account id =" + account.getId() + ". Reason is: " + e.getMessage(), e);
         }
-        return result;
+        return Collections.emptyList();
+    }
+
+    protected List<AbstractTest> getTestsForWorkspace(Workspace workspace) {
+        List<AbstractTest> tests = getAllTestsForWorkspace(workspace);
+        if (listener != null) {
+            listener.onWorkspaceTests(workspace, tests);
+        }
+        return tests;
     }
 
     public List<AbstractTest> getAllTestsForWorkspace(Workspace workspace) {
@@ -83,7 +176,7 @@ public class TestsListFlow {
 
     protected List<SingleTest> getSingleTestsForWorkspace(Workspace workspace) {
         try {
-            return workspace.getSingleTests();
+            return (catalogCache != null) ? catalogCache.getSingleTests(workspace) : workspace.getSingleTests();
         } catch (IOException e) {
             utils.getNotifier().notifyError("Failed to get single tests for workspace id =" + workspace.getId() + ". Reason is: " + e.getMessage());
             utils.getLogger().error("Failed to get single tests for workspace id =" + workspace.getId() + ". Reason is: " + e.getMessage(), e);
@@ -93,7 +186,7 @@ public class TestsListFlow {
 
     protected List<MultiTest> getMultiTestsForWorkspace(Workspace workspace) {
         try {
-            return workspace.getMultiTests();
+            return (catalogCache != null) ? catalogCache.getMultiTests(workspace) : workspace.getMultiTests();
         } catch (IOException e) {
             utils.getNotifier().notifyError("Failed to get multi tests for workspace id =" + workspace.getId() + ". Reason is: " + e.getMessage());
             utils.getLogger().error("Failed to get multi tests for workspace id =" + workspace.getId() + ". Reason is: " + e.getMessage(), e);
@@ -108,4 +201,34 @@ public class TestsListFlow {
     public void setUtils(BlazeMeterUtils utils) {
         this.utils = utils;
     }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * @param concurrency - max count of parallel requests in getUsersTests(), 1 (default) - sequential requests
+     */
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public WorkspaceTestsListener getListener() {
+        return listener;
+    }
+
+    public void setListener(WorkspaceTestsListener listener) {
+        this.listener = listener;
+    }
+
+    public CatalogCache getCatalogCache() {
+        return catalogCache;
+    }
+
+    /**
+     * @param catalogCache - cache of lists, that can be restored from CatalogSnapshot on start
+     */
+    public void setCatalogCache(CatalogCache catalogCache) {
+        this.catalogCache = catalogCache;
+    }
 }
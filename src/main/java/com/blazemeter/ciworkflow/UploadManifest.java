@@ -0,0 +1,124 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.ciworkflow;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+/**
+ * SHA-256 hashes of test files, that were uploaded and validated: 'server address/test id/file name' -> hash.
+ * Manifest is loaded from properties file on creation and saved by save() via temp file and atomic move.
+ */
+public class UploadManifest {
+
+    private final File file;
+    private final Properties hashes = new Properties();
+
+    /**
+     * @param file - properties file of manifest, it is created on first save
+     */
+    public UploadManifest(File file) {
+        this.file = file;
+        if (file.exists()) {
+            try (InputStream in = new FileInputStream(file)) {
+                hashes.load(in);
+            } catch (IOException ex) {
+                hashes.clear();
+            }
+        }
+    }
+
+    /**
+     * @return hash of the last uploaded file or null
+     */
+    public String get(String address, String testId, String fileName) {
+        return hashes.getProperty(key(address, testId, fileName));
+    }
+
+    public void put(String address, String testId, String fileName, String hash) {
+        hashes.setProperty(key(address, testId, fileName), hash);
+    }
+
+    public void remove(String address, String testId, String fileName) {
+        hashes.remove(key(address, testId, fileName));
+    }
+
+    public int size() {
+        return hashes.size();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public void save() throws IOException {
+        Properties copy = new Properties();
+        synchronized (hashes) {
+            copy.putAll(hashes);
+        }
+        File dir = file.getAbsoluteFile().getParentFile();
+        File temp = File.createTempFile(file.getName(), ".tmp", dir);
+        try {
+            try (OutputStream out = new FileOutputStream(temp)) {
+                copy.store(out, "BlazeMeter uploaded test files");
+            }
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    /**
+     * @return SHA-256 of file content in hex, file is read by blocks
+     */
+    public static String sha256(File file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = new FileInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        StringBuilder builder = new StringBuilder();
+        for (byte b : digest.digest()) {
+            builder.append(String.format("%02x", b));
+        }
+        return builder.toString();
+    }
+
+    private static String key(String address, String testId, String fileName) {
+        return address + "/" + testId + "/" + fileName;
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.api.explorer;
+
+import com.blazemeter.api.explorer.test.SingleTest;
+import com.blazemeter.api.http.HttpClientPool;
+import com.blazemeter.api.logging.LoggerTest;
+import com.blazemeter.api.logging.UserNotifierTest;
+import com.blazemeter.api.utils.BlazeMeterUtils;
+import com.blazemeter.api.utils.BlazeMeterUtilsEmul;
+import com.blazemeter.api.utils.StubServer;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.blazemeter.api.utils.BlazeMeterUtilsEmul.BZM_ADDRESS;
+import static com.blazemeter.api.utils.BlazeMeterUtilsEmul.BZM_DATA_ADDRESS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class CatalogCacheTest {
+
+    @Test
+    public void testTtlAndInvalidation() throws Exception {
+        BlazeMeterUtilsEmul emul = new BlazeMeterUtilsEmul(BZM_ADDRESS, BZM_DATA_ADDRESS, new UserNotifierTest(), new LoggerTest());
+        CatalogCache cache = new CatalogCache(emul);
+        cache.setRefreshExecutor(Runnable::run);
+        Workspace workspace = new Workspace(emul, "888", "workspace_name");
+
+        emul.addEmul(WorkspaceTest.generateResponseGetProjects());
+        List<Project> projects = cache.getProjects(workspace);
+        assertEquals(2, projects.size());
+        assertSame(projects, cache.getProjects(workspace));
+        assertEquals(1, emul.getRequests().size());
+
+        emul.addEmul(WorkspaceTest.generateResponseCreateProject());
+        cache.createProject(workspace, "NEW_PROJECT");
+        assertEquals(0, cache.size());
+
+        emul.addEmul(WorkspaceTest.generateResponseGetProjects());
+        cache.getProjects(workspace);
+        assertEquals(3, emul.getRequests().size());
+
+        cache.setTtl(CatalogCache.Level.PROJECTS, 0, TimeUnit.SECONDS);
+        assertEquals(0, cache.getTtl(CatalogCache.Level.PROJECTS));
+        emul.addEmul(generateProjects(1));
+        assertEquals(2, cache.getProjects(workspace).size());
+        cache.setTtl(CatalogCache.Level.PROJECTS, 5, TimeUnit.MINUTES);
+        assertEquals(1, cache.getProjects(workspace).size());
+        assertEquals(4, emul.getRequests().size());
+    }
+
+    @Test
+    public void testBackgroundRefreshOnSmallPool() throws Exception {
+        HttpClientPool pool = new HttpClientPool.Builder().executorThreads(1).build();
+        try (StubServer server = new StubServer()) {
+            server.respond("/api/v4/projects", 200, WorkspaceTest.generateResponseGetProjects());
+            server.respond("/api/v4/user", 200, "{\"result\":{\"id\":1}}");
+            BlazeMeterUtils utils = new BlazeMeterUtils(server.getAddress(), server.getAddress(),
+                    new UserNotifierTest(), new LoggerTest(), pool);
+            CatalogCache cache = new CatalogCache(utils);
+            for (int i = 0; i < 4; i++) {
+                cache.getProjects(new Workspace(utils, String.valueOf(i), "workspace_name"));
+            }
+            cache.setTtl(CatalogCache.Level.PROJECTS, 0, TimeUnit.SECONDS);
+            for (int i = 0; i < 4; i++) {
+                cache.getProjects(new Workspace(utils, String.valueOf(i), "workspace_name"));
+            }
+
+            long deadline = System.currentTimeMillis() + 10000;
+            while (server.getRequestsCount() < 8 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(8, server.getRequestsCount());
+            CompletableFuture<JSONObject> user = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return utils.execute(utils.createGet(server.getAddress() + "/api/v4/user"));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            assertEquals(1, user.get(10, TimeUnit.SECONDS).getJSONObject("result").getInt("id"));
+        }
+    }
+
+    @Test
+    public void testIncrementalRefresh() throws Exception {
+        BlazeMeterUtilsEmul emul = new BlazeMeterUtilsEmul(BZM_ADDRESS, BZM_DATA_ADDRESS, new UserNotifierTest(), new LoggerTest());
+        CatalogCache cache = new CatalogCache(emul);
+        cache.setRefreshExecutor(Runnable::run);
+        Workspace workspace = new Workspace(emul, "888", "workspace_name");
+
+        emul.addEmul(generateTests(new String[]{"1", "old", "150"}, new String[]{"0", "first", "100"}));
+        List<SingleTest> tests = cache.getSingleTests(workspace);
+        assertEquals(2, tests.size());
+        assertEquals(150, tests.get(0).getUpdated());
+
+        cache.setTtl(CatalogCache.Level.SINGLE_TESTS, 0, TimeUnit.SECONDS);
+        emul.addEmul(generateTests(new String[]{"2", "new", "200"}, new String[]{"1", "changed", "150"}, new String[]{"0", "first", "100"}));
+        assertSame(tests, cache.getSingleTests(workspace));
+        assertEquals("Request{method=GET, url=http://a.blazemeter.com/api/v4/tests?workspaceId=888&sort%5B%5D=-updated&limit=100&skip=0, tag=null}",
+                emul.getRequests().get(1));
+
+        cache.setTtl(CatalogCache.Level.SINGLE_TESTS, 1, TimeUnit.MINUTES);
+        tests = cache.getSingleTests(workspace);
+        assertEquals(3, tests.size());
+        assertEquals("changed", tests.get(0).getName());
+        assertEquals("first", tests.get(1).getName());
+        assertEquals("new", tests.get(2).getName());
+        assertEquals(2, emul.getRequests().size());
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        BlazeMeterUtilsEmul emul = new BlazeMeterUtilsEmul(BZM_ADDRESS, BZM_DATA_ADDRESS, new UserNotifierTest(), new LoggerTest());
+        CatalogCache cache = new CatalogCache(emul);
+        cache.setMaxEntries(2);
+        assertEquals(2, cache.getMaxEntries());
+
+        for (int i = 0; i < 3; i++) {
+            emul.addEmul(WorkspaceTest.generateResponseGetProjects());
+            cache.getProjects(new Workspace(emul, "ws" + i, "workspace_name"));
+        }
+        assertEquals(2, cache.size());
+
+        emul.addEmul(WorkspaceTest.generateResponseGetProjects());
+        cache.getProjects(new Workspace(emul, "ws0", "workspace_name"));
+        assertEquals(4, emul.getRequests().size());
+
+        cache.invalidate(CatalogCache.Level.PROJECTS);
+        assertEquals(0, cache.size());
+    }
+
+    private static String generateProjects(int count) {
+        JSONArray result = new JSONArray();
+        for (int i = 0; i < count; i++) {
+            JSONObject project = new JSONObject();
+            project.put("id", String.valueOf(i));
+            project.put("name", "project" + i);
+            result.add(project);
+        }
+        JSONObject response = new JSONObject();
+        response.put("result", result);
+        return response.toString();
+    }
+
+    private static String generateTests(String[]... tests) {
+        JSONObject configuration = new JSONObject();
+        configuration.put("type", "http");
+
+        JSONArray result = new JSONArray();
+        for (String[] t : tests) {
+            JSONObject test = new JSONObject();
+            test.put("id", t[0]);
+            test.put("name", t[1]);
+            test.put("updated", Long.parseLong(t[2]));
+            test.put("configuration", configuration);
+            result.add(test);
+        }
+        JSONObject response = new JSONObject();
+        response.put("result", result);
+        return response.toString();
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.api.explorer;
+
+import com.blazemeter.api.explorer.test.MultiTest;
+import com.blazemeter.api.explorer.test.SingleTest;
+import com.blazemeter.api.logging.LoggerTest;
+import com.blazemeter.api.logging.UserNotifierTest;
+import com.blazemeter.api.utils.BlazeMeterUtilsEmul;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.blazemeter.api.utils.BlazeMeterUtilsEmul.BZM_ADDRESS;
+import static com.blazemeter.api.utils.BlazeMeterUtilsEmul.BZM_DATA_ADDRESS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CatalogSnapshotTest {
+
+    @Test
+    public void testSaveAndLoad() throws Exception {
+        File file = File.createTempFile("catalog", ".bin");
+        file.deleteOnExit();
+        new File(file.getPath() + ".lock").deleteOnExit();
+
+        LoggerTest logger = new LoggerTest();
+        BlazeMeterUtilsEmul emul = new BlazeMeterUtilsEmul(BZM_ADDRESS, BZM_DATA_ADDRESS, new UserNotifierTest(), logger);
+        CatalogCache cache = new CatalogCache(emul);
+        Workspace workspace = new Workspace(emul, "888", "workspace_name");
+        emul.addEmul(WorkspaceTest.generateResponseGetProjects());
+        emul.addEmul(WorkspaceTest.generateResponseGetSingleTests());
+        emul.addEmul(WorkspaceTest.generateResponseGetMultiTests());
+        cache.getProjects(workspace);
+        cache.getSingleTests(workspace);
+        cache.getMultiTests(workspace);
+
+        CatalogSnapshot snapshot = new CatalogSnapshot(file, logger);
+        snapshot.save(cache);
+        assertTrue(logger.getLogs().toString().contains("Saved catalog snapshot with 3 lists"));
+
+        BlazeMeterUtilsEmul coldEmul = new BlazeMeterUtilsEmul(BZM_ADDRESS, BZM_DATA_ADDRESS, new UserNotifierTest(), logger);
+        CatalogCache coldCache = new CatalogCache(coldEmul);
+        assertEquals(3, snapshot.load(coldCache));
+        assertEquals(0, snapshot.load(coldCache));
+
+        Workspace coldWorkspace = new Workspace(coldEmul, "888", "workspace_name");
+        assertEquals(2, coldCache.getProjects(coldWorkspace).size());
+        List<SingleTest> tests = coldCache.getSingleTests(coldWorkspace);
+        assertEquals(2, tests.size());
+        assertEquals("999", tests.get(0).getId());
+        assertEquals("SINGLE_TEST", tests.get(0).getName());
+        assertEquals("http", tests.get(0).getTestType());
+        assertEquals(coldEmul, tests.get(0).getUtils());
+        List<MultiTest> multiTests = coldCache.getMultiTests(coldWorkspace);
+        assertEquals(cache.getMultiTests(workspace).get(0).getTestType(), multiTests.get(0).getTestType());
+        assertEquals(0, coldEmul.getRequests().size());
+
+        snapshot.setMaxAge(-1, TimeUnit.MILLISECONDS);
+        assertEquals(0, snapshot.load(new CatalogCache(coldEmul)));
+    }
+
+    @Test
+    public void testSnapshotOfOtherOwner() throws Exception {
+        File file = File.createTempFile("catalog", ".bin");
+        file.deleteOnExit();
+        new File(file.getPath() + ".lock").deleteOnExit();
+        LoggerTest logger = new LoggerTest();
+        BlazeMeterUtilsEmul emul = new BlazeMeterUtilsEmul("id", "secret", BZM_ADDRESS, BZM_DATA_ADDRESS, new UserNotifierTest(), logger);
+        CatalogCache cache = new CatalogCache(emul);
+        emul.addEmul(WorkspaceTest.generateResponseGetProjects());
+        cache.getProjects(new Workspace(emul, "888", "workspace_name"));
+        CatalogSnapshot snapshot = new CatalogSnapshot(file, logger);
+        snapshot.save(cache);
+
+        BlazeMeterUtilsEmul otherKey = new BlazeMeterUtilsEmul("id", "other_secret", BZM_ADDRESS, BZM_DATA_ADDRESS, new UserNotifierTest(), logger);
+        assertEquals(0, snapshot.load(new CatalogCache(otherKey)));
+        assertTrue(logger.getLogs().toString().contains("of other address or credentials"));
+        BlazeMeterUtilsEmul otherAddress = new BlazeMeterUtilsEmul("id", "secret", "http://other.blazemeter.com", BZM_DATA_ADDRESS, new UserNotifierTest(), logger);
+        assertEquals(0, snapshot.load(new CatalogCache(otherAddress)));
+        BlazeMeterUtilsEmul anonymous = new BlazeMeterUtilsEmul(BZM_ADDRESS, BZM_DATA_ADDRESS, new UserNotifierTest(), logger);
+        assertEquals(0, snapshot.load(new CatalogCache(anonymous)));
+
+        BlazeMeterUtilsEmul sameKey = new BlazeMeterUtilsEmul("id", "secret", BZM_ADDRESS, BZM_DATA_ADDRESS, new UserNotifierTest(), logger);
+        assertEquals(1, snapshot.load(new CatalogCache(sameKey)));
+    }
+
+    @Test
+    public void testBrokenSnapshot() throws Exception {
+        File file = File.createTempFile("catalog", ".bin");
+        file.deleteOnExit();
+        new File(file.getPath() + ".lock").deleteOnExit();
+        LoggerTest logger = new LoggerTest();
+        BlazeMeterUtilsEmul emul = new BlazeMeterUtilsEmul(BZM_ADDRESS, BZM_DATA_ADDRESS, new UserNotifierTest(), logger);
+        CatalogSnapshot snapshot = new CatalogSnapshot(file, logger);
+
+        Files.write(file.toPath(), "not a snapshot at all".getBytes(StandardCharsets.UTF_8));
+        assertEquals(0, snapshot.load(new CatalogCache(emul)));
+        assertTrue(logger.getLogs().toString().contains("with unknown format"));
+
+        CatalogCache cache = new CatalogCache(emul);
+        emul.addEmul(WorkspaceTest.generateResponseGetProjects());
+        cache.getProjects(new Workspace(emul, "888", "workspace_name"));
+        snapshot.save(cache);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 5));
+        assertEquals(0, snapshot.load(new CatalogCache(emul)));
+        assertTrue(logger.getLogs().toString().contains("Cannot read catalog snapshot"));
+
+        assertTrue(file.delete());
+        assertEquals(0, snapshot.load(new CatalogCache(emul)));
+    }
+}
@@ -18,14 +18,21 @@ import com.blazemeter.api.logging.LoggerTest;
 import com.blazemeter.api.logging.UserNotifier;
 import com.blazemeter.api.logging.UserNotifierTest;
 import com.blazemeter.api.utils.BlazeMeterUtilsEmul;
+import com.blazemeter.api.utils.BlazeMeterUtils;
 import com.blazemeter.api.utils.BlazeMeterUtilsSlowEmul;
+import com.blazemeter.api.utils.StubServer;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
+import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.blazemeter.api.utils.BlazeMeterUtilsEmul.BZM_ADDRESS;
 import static com.blazemeter.api.utils.BlazeMeterUtilsEmul.BZM_DATA_ADDRESS;
@@ -293,6 +300,22 @@ public class MasterTest {
         assertTrue(logs, logs.contains("Get master status id=id"));
     }
 
+    @Test
+    public void testGetStatusAsync() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        UserNotifier notifier = new UserNotifierTest();
+        BlazeMeterUtilsEmul emul = new BlazeMeterUtilsEmul(BZM_ADDRESS, BZM_DATA_ADDRESS, notifier, logger);
+
+        emul.addEmul(generateResponseGetStatus(70));
+        emul.addEmul(generateResponseGetSessions());
+
+        Master master = new Master(emul, "id", "name");
+        assertEquals(70, master.getStatusAsync().get().intValue());
+        assertEquals(1, master.getSessionsAsync().get().size());
+        assertEquals("Request{method=GET, url=http://a.blazemeter.com/api/v4/masters/id/status?events=false, tag=null}", emul.getRequests().get(0));
+        assertEquals("Request{method=GET, url=http://a.blazemeter.com/api/v4/sessions?masterId=id, tag=null}", emul.getRequests().get(1));
+    }
+
     public static String generateResponseGetStatus(int status) {
         JSONObject result = new JSONObject();
         result.put("progress", status);
@@ -648,6 +671,85 @@ public class MasterTest {
         assertNotNull(ex[0]);
         assertEquals("Interrupt while post properties to session", ex[0].getMessage());
     }
+    @Test
+    public void testPostPropertiesConcurrently() throws Exception {
+        System.setProperty("bzm.properties.concurrency", "4");
+        LoggerTest logger = new LoggerTest();
+        UserNotifier notifier = new UserNotifierTest();
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicInteger gatewayFailures = new AtomicInteger();
+        final Set<String> bodies = ConcurrentHashMap.newKeySet();
+        try (StubServer server = new StubServer()) {
+            server.handle("/api/v4/sessions/", exchange -> {
+                maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                try {
+                    bodies.add(IOUtils.toString(exchange.getRequestBody(), StandardCharsets.UTF_8));
+                    Thread.sleep(30);
+                    String path = exchange.getRequestURI().getPath();
+                    if (path.contains("/s3/") && failures.incrementAndGet() == 1) {
+                        StubServer.send(exchange, 500, "{\"error\":{\"code\":500,\"message\":\"Internal error\"}}");
+                    } else if (path.contains("/s7/") && gatewayFailures.incrementAndGet() == 1) {
+                        StubServer.send(exchange, 502, "<html>Bad Gateway</html>");
+                    } else if (path.contains("/s5/")) {
+                        StubServer.send(exchange, 400, "{\"error\":{\"code\":400,\"message\":\"Bad request\"}}");
+                    } else {
+                        StubServer.send(exchange, 200, "{\"error\":null,\"result\":[]}");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    active.decrementAndGet();
+                }
+            });
+            BlazeMeterUtils utils = new BlazeMeterUtils(server.getAddress(), server.getAddress(), notifier, logger);
+            List<Session> sessions = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                sessions.add(new Session(utils, "s" + i, "session", "user", "test", Session.UNDEFINED));
+            }
+            Master master = new Master(utils, "id", "name");
+            PropertiesResult result = master.sendProperties("1=2,3=4", sessions);
+
+            assertEquals(11, result.getPosted().size());
+            assertFalse(result.isSuccessful());
+            assertEquals("{s5=Received response with the following error: Bad request}", result.getFailed().toString());
+            assertEquals("posted=11, failed=[s5]", result.toString());
+            // 12 sessions and retries of server error and of gateway error without JSON body
+            assertEquals(14, server.getRequestsCount());
+            assertTrue(String.valueOf(maxActive.get()), maxActive.get() > 1 && maxActive.get() <= 4);
+            assertEquals("[[{\"key\":\"1\",\"value\":\"2\"},{\"key\":\"3\",\"value\":\"4\"}]]", bodies.toString());
+            String logs = logger.getLogs().toString();
+            assertTrue(logs, logs.contains("Failed to send properties for session id=s3, attempt 1. Reason is: Received response with the following error: Internal error"));
+            assertTrue(logs, logs.contains("Properties were not sent to sessions: [s5]"));
+        } finally {
+            System.clearProperty("bzm.properties.concurrency");
+        }
+    }
+
+    @Test
+    public void testPostPropertiesConcurrentlyError() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        UserNotifier notifier = new UserNotifierTest();
+        BlazeMeterUtilsEmul emul = new BlazeMeterUtilsEmul(BZM_ADDRESS, BZM_DATA_ADDRESS, notifier, logger);
+        List<Session> sessions = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            sessions.add(new Session(emul, "s" + i, "session", "user", "test", Session.UNDEFINED) {
+                @Override
+                void postProperties(byte[] body) {
+                    throw new Error("Failed worker");
+                }
+            });
+        }
+        Master master = new Master(emul, "id", "name");
+        try {
+            master.sendProperties("1=2", sessions);
+            fail("Error of worker must be rethrown");
+        } catch (Error ex) {
+            assertEquals("Failed worker", ex.getMessage());
+        }
+    }
+
     @Test
     public void testGetHasDataStatus() throws Exception {
         LoggerTest logger = new LoggerTest();
@@ -666,6 +768,28 @@ public class MasterTest {
         assertTrue(logs, logs.contains("Get CI status for master id=id"));
     }
 
+    @Test
+    public void testSnapshot() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        UserNotifier notifier = new UserNotifierTest();
+        BlazeMeterUtilsEmul emul = new BlazeMeterUtilsEmul(BZM_ADDRESS, BZM_DATA_ADDRESS, notifier, logger);
+
+        emul.addEmul(generateResponseGetHasDataStatus());
+        emul.addEmul(generateResponseGetFunctionalReport());
+
+        Master master = new Master(emul, "id", "name");
+        assertTrue(master.getHasDataStatus().getBoolean("hasData"));
+        assertTrue(master.getHasDataStatusAsync().get().getBoolean("hasData"));
+        assertEquals(0, master.getFunctionalReport().size());
+        assertEquals(1, emul.getRequests().size());
+
+        master.refresh();
+        assertEquals(8, master.getFunctionalReport().size());
+        assertFalse(master.getHasDataStatus().has("hasData"));
+        assertEquals(2, emul.getRequests().size());
+        assertEquals("Request{method=GET, url=http://a.blazemeter.com/api/v4/masters/id, tag=null}", emul.getRequests().get(1));
+    }
+
     public static String generateResponseGetHasDataStatus() {
         JSONObject result = new JSONObject();
         result.put("hasData", true);
@@ -16,15 +16,24 @@ package com.blazemeter.api.explorer;
 
 import com.blazemeter.api.explorer.test.MultiTest;
 import com.blazemeter.api.explorer.test.SingleTest;
+import com.blazemeter.api.http.HttpClientPool;
 import com.blazemeter.api.logging.LoggerTest;
 import com.blazemeter.api.logging.UserNotifier;
 import com.blazemeter.api.logging.UserNotifierTest;
+import com.blazemeter.api.utils.BlazeMeterUtils;
 import com.blazemeter.api.utils.BlazeMeterUtilsEmul;
+import com.blazemeter.api.utils.StubServer;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static com.blazemeter.api.utils.BlazeMeterUtilsEmul.BZM_ADDRESS;
 import static com.blazemeter.api.utils.BlazeMeterUtilsEmul.BZM_DATA_ADDRESS;
@@ -118,6 +127,103 @@ public class WorkspaceTest {
         assertTrue(logs, logs.contains("Get list of single tests for workspace id=888"));
     }
 
+    @Test
+    public void testGetSingleTestsAsync() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        UserNotifier notifier = new UserNotifierTest();
+        BlazeMeterUtilsEmul emul = new BlazeMeterUtilsEmul(BZM_ADDRESS, BZM_DATA_ADDRESS, notifier, logger);
+
+        emul.addEmul(generateResponseGetSingleTests());
+        emul.addEmul(generateResponseGetMultiTests());
+
+        Workspace workspace = new Workspace(emul, "888", "workspace_name");
+        List<SingleTest> tests = workspace.getSingleTestsAsync("10000", "name").get();
+        assertEquals(2, tests.size());
+        assertEquals("SINGLE_TEST", tests.get(0).getName());
+        List<MultiTest> multiTests = workspace.getMultiTestsAsync("10000", "name").get();
+        assertEquals(2, multiTests.size());
+        assertEquals("MULTI_TEST", multiTests.get(0).getName());
+        assertEquals("Request{method=GET, url=http://a.blazemeter.com/api/v4/tests?workspaceId=888&sort%5B%5D=name&limit=10000, tag=null}", emul.getRequests().get(0));
+        assertEquals("Request{method=GET, url=http://a.blazemeter.com/api/v4/multi-tests?workspaceId=888&sort%5B%5D=name&limit=10000, tag=null}", emul.getRequests().get(1));
+    }
+
+    @Test
+    public void testIterateSingleTests() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        UserNotifier notifier = new UserNotifierTest();
+        BlazeMeterUtilsEmul emul = new BlazeMeterUtilsEmul(BZM_ADDRESS, BZM_DATA_ADDRESS, notifier, logger);
+
+        emul.addEmul(generateResponseGetSingleTests());
+        JSONObject lastPage = JSONObject.fromObject(generateResponseGetSingleTests());
+        lastPage.getJSONArray("result").remove(1);
+        emul.addEmul(lastPage.toString());
+
+        Workspace workspace = new Workspace(emul, "888", "workspace_name");
+        List<SingleTest> tests = workspace.iterateSingleTests(2, "name").stream().collect(Collectors.toList());
+        assertEquals(3, tests.size());
+        for (SingleTest t : tests) {
+            assertEquals("999", t.getId());
+            assertEquals("http", t.getTestType());
+        }
+        assertEquals(2, emul.getRequests().size());
+        assertEquals("Request{method=GET, url=http://a.blazemeter.com/api/v4/tests?workspaceId=888&sort%5B%5D=name&limit=2&skip=0, tag=null}", emul.getRequests().get(0));
+        assertEquals("Request{method=GET, url=http://a.blazemeter.com/api/v4/tests?workspaceId=888&sort%5B%5D=name&limit=2&skip=2, tag=null}", emul.getRequests().get(1));
+        String logs = logger.getLogs().toString();
+        assertTrue(logs, logs.contains("Get page of single tests for workspace id=888 skip=2"));
+    }
+
+    @Test
+    public void testGetSingleTestsStreaming() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        UserNotifier notifier = new UserNotifierTest();
+
+        try (StubServer server = new StubServer()) {
+            server.respond("/api/v4/tests", 200, generateResponseGetSingleTests());
+            server.respond("/api/v4/multi-tests", 200, generateResponseGetMultiTests());
+            BlazeMeterUtils utils = new BlazeMeterUtils(server.getAddress(), server.getAddress(), notifier, logger);
+
+            Workspace workspace = new Workspace(utils, "888", "workspace_name");
+            List<SingleTest> tests = workspace.getSingleTests("10000", "name");
+            assertEquals(2, tests.size());
+            assertEquals("999", tests.get(0).getId());
+            assertEquals("SINGLE_TEST", tests.get(0).getName());
+            assertEquals("http", tests.get(0).getTestType());
+            List<MultiTest> multiTests = workspace.getMultiTests("10000", "name");
+            assertEquals(2, multiTests.size());
+            assertEquals("MULTI_TEST", multiTests.get(0).getName());
+        }
+    }
+
+    @Test
+    public void testConcurrentIteratorsOnSmallPool() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        UserNotifier notifier = new UserNotifierTest();
+        HttpClientPool pool = new HttpClientPool.Builder().executorThreads(2).build();
+        ExecutorService consumers = Executors.newFixedThreadPool(8);
+        try (StubServer server = new StubServer()) {
+            final String page = generateResponseGetSingleTests();
+            server.handle("/api/v4/tests", exchange -> {
+                boolean last = exchange.getRequestURI().getQuery().contains("skip=6");
+                StubServer.send(exchange, 200, last ? "{\"result\":[]}" : page);
+            });
+            server.respond("/api/v4/user", 200, "{\"result\":{\"id\":1}}");
+            final BlazeMeterUtils utils = new BlazeMeterUtils(server.getAddress(), server.getAddress(), notifier, logger, pool);
+            final Workspace workspace = new Workspace(utils, "888", "workspace_name");
+
+            // more iterators, than threads of client pool
+            List<Future<Long>> counts = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                counts.add(consumers.submit(() -> workspace.iterateSingleTests(2, "name").stream().count()));
+            }
+            for (Future<Long> count : counts) {
+                assertEquals(6L, (long) count.get(20, TimeUnit.SECONDS));
+            }
+            assertEquals(1, utils.execute(utils.createGet(server.getAddress() + "/api/v4/user")).getJSONObject("result").getInt("id"));
+        } finally {
+            consumers.shutdownNow();
+        }
+    }
+
     public static String generateResponseGetSingleTests() {
         JSONObject configuration = new JSONObject();
         configuration.put("type", "http");
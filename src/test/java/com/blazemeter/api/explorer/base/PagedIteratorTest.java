@@ -0,0 +1,138 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.api.explorer.base;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class PagedIteratorTest {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    @Test
+    public void testStopsOnShortPage() throws Exception {
+        final List<Integer> skips = new ArrayList<>();
+        PagedIterator<Integer> iterator = new PagedIterator<>((skip, limit) -> {
+            skips.add(skip);
+            return range(skip, Math.min(limit, 5 - skip));
+        }, 2, DIRECT);
+
+        List<Integer> items = iterator.stream().collect(Collectors.toList());
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), items);
+        assertEquals(Arrays.asList(0, 2, 4), skips);
+        assertFalse(iterator.hasNext());
+        try {
+            iterator.next();
+            fail("No more elements");
+        } catch (NoSuchElementException ex) {
+            // ok
+        }
+    }
+
+    @Test
+    public void testLoadsOnlyOnePageAhead() throws Exception {
+        final List<Integer> skips = new ArrayList<>();
+        PagedIterator<Integer> iterator = new PagedIterator<>((skip, limit) -> {
+            skips.add(skip);
+            return range(skip, limit);
+        }, 2, DIRECT);
+        assertTrue(skips.isEmpty());
+
+        List<Integer> items = iterator.stream().limit(3).collect(Collectors.toList());
+        assertEquals(Arrays.asList(0, 1, 2), items);
+        assertEquals(Arrays.asList(0, 2, 4), skips);
+
+        iterator.close();
+        assertTrue(iterator.hasNext());
+        assertEquals(3, iterator.next().intValue());
+        assertFalse(iterator.hasNext());
+        assertEquals(Arrays.asList(0, 2, 4), skips);
+    }
+
+    @Test
+    public void testFailedPage() throws Exception {
+        PagedIterator<Integer> iterator = new PagedIterator<>((skip, limit) -> {
+            if (skip > 0) {
+                throw new IOException("Failed page");
+            }
+            return range(skip, limit);
+        }, 2, DIRECT);
+
+        assertEquals(0, iterator.next().intValue());
+        assertEquals(1, iterator.next().intValue());
+        try {
+            iterator.hasNext();
+            fail("Page must be failed");
+        } catch (UncheckedIOException ex) {
+            assertEquals("Failed page", ex.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testCloseInterruptsPrefetch() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            PagedIterator<Integer> iterator = new PagedIterator<>((skip, limit) -> {
+                if (skip > 0) {
+                    started.countDown();
+                    try {
+                        Thread.sleep(10000);
+                    } catch (InterruptedException ex) {
+                        interrupted.countDown();
+                        throw new InterruptedIOException();
+                    }
+                }
+                return range(skip, limit);
+            }, 2, executor);
+
+            assertEquals(0, iterator.next().intValue());
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            iterator.close();
+            assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongPageSize() throws Exception {
+        new PagedIterator<>((skip, limit) -> range(skip, limit), 0, DIRECT);
+    }
+
+    private static List<Integer> range(int from, int count) {
+        List<Integer> list = new ArrayList<>();
+        for (int i = from; i < from + count; i++) {
+            list.add(i);
+        }
+        return list;
+    }
+}
@@ -18,15 +18,21 @@ import com.blazemeter.api.exception.UnexpectedResponseException;
 import com.blazemeter.api.logging.LoggerTest;
 import com.blazemeter.api.logging.UserNotifier;
 import com.blazemeter.api.logging.UserNotifierTest;
+import com.blazemeter.api.utils.BlazeMeterUtils;
 import com.blazemeter.api.utils.BlazeMeterUtilsEmul;
+import com.blazemeter.api.utils.StubServer;
 import net.sf.json.JSONObject;
 import org.junit.Test;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static com.blazemeter.api.utils.BlazeMeterUtilsEmul.BZM_ADDRESS;
 import static com.blazemeter.api.utils.BlazeMeterUtilsEmul.BZM_DATA_ADDRESS;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -237,6 +243,135 @@ public class TestDetectorTest {
         }
     }
 
+    @Test
+    public void testDetectTestConcurrently() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        UserNotifier notifier = new UserNotifierTest();
+        try (StubServer server = new StubServer()) {
+            server.respond("/api/v4/tests/", 404, generateResponseTestNotFound());
+            server.handle("/api/v4/multi-tests/", exchange -> {
+                // found test comes after not found one, so both requests are sent
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                StubServer.send(exchange, 200, MultiTestTest.generateResponseGetMultiTest());
+            });
+            BlazeMeterUtils utils = new BlazeMeterUtils(server.getAddress(), server.getAddress(), notifier, logger);
+
+            AbstractTest test = TestDetector.detectTestConcurrently(utils, "xxxx");
+            assertTrue(test instanceof MultiTest);
+            assertEquals("testId", test.getId());
+            assertEquals(2, server.getRequestsCount());
+        }
+
+        try (StubServer server = new StubServer()) {
+            server.respond("/api/v4/tests/", 404, generateResponseTestNotFound());
+            server.respond("/api/v4/multi-tests/", 404, generateResponseCollectionNotFound());
+            BlazeMeterUtils utils = new BlazeMeterUtils(server.getAddress(), server.getAddress(), notifier, logger);
+            assertNull(TestDetector.detectTestConcurrently(utils, "xxxx"));
+        }
+
+        try (StubServer server = new StubServer()) {
+            server.respond("/api/v4/tests/", 401, generateResponseUnauthorized());
+            server.respond("/api/v4/multi-tests/", 404, generateResponseCollectionNotFound());
+            BlazeMeterUtils utils = new BlazeMeterUtils(server.getAddress(), server.getAddress(), notifier, logger);
+            try {
+                TestDetector.detectTestConcurrently(utils, "xxxx");
+                fail();
+            } catch (UnexpectedResponseException ex) {
+                assertEquals(401, ex.getCode());
+                assertTrue(logger.getLogs().toString().contains("Fail for detect Single test type id=xxxx. Reason is: Received response with the following error: Unauthorized"));
+            }
+        }
+    }
+
+    @Test
+    public void testCancelledDetectionIsNotLogged() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        UserNotifier notifier = new UserNotifierTest();
+        final CountDownLatch latch = new CountDownLatch(1);
+        try (StubServer server = new StubServer()) {
+            server.handle("/api/v4/tests/", exchange -> {
+                try {
+                    latch.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                StubServer.send(exchange, 404, generateResponseTestNotFound());
+            });
+            server.respond("/api/v4/multi-tests/", 200, MultiTestTest.generateResponseGetMultiTest());
+            BlazeMeterUtils utils = new BlazeMeterUtils(server.getAddress(), server.getAddress(), notifier, logger);
+
+            AbstractTest test = TestDetector.detectTestConcurrently(utils, "xxxx");
+            assertTrue(test instanceof MultiTest);
+            long deadline = System.currentTimeMillis() + 10000;
+            while (!logger.getLogs().toString().contains("Single test detection with id=xxxx has been cancelled")
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            String logs = logger.getLogs().toString();
+            assertTrue(logs, logs.contains("Single test detection with id=xxxx has been cancelled"));
+            assertFalse(logs, logs.contains("Fail for detect Single test type id=xxxx"));
+        } finally {
+            latch.countDown();
+        }
+    }
+
+    @Test
+    public void testNotFoundByHttpStatus() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        UserNotifier notifier = new UserNotifierTest();
+        try (StubServer server = new StubServer()) {
+            // e.g. response of proxy or gateway
+            server.respond("/api/v4/tests/", 404, "<html>Gateway</html>");
+            server.respond("/api/v4/multi-tests/", 404, "{\"error\":{\"message\":\"Missing\"}}");
+            BlazeMeterUtils utils = new BlazeMeterUtils(server.getAddress(), server.getAddress(), notifier, logger);
+            assertNull(TestDetector.detectTest(utils, "xxxx"));
+            assertNull(TestDetector.detectTestConcurrently(utils, "xxxx"));
+            assertEquals(4, server.getRequestsCount());
+        }
+    }
+
+    @Test
+    public void testDetectTestWithTypeCache() throws Exception {
+        File file = File.createTempFile("types", ".properties");
+        file.deleteOnExit();
+        assertTrue(file.delete());
+        try {
+            TestDetector.setTypeCache(new TestTypeCache(2, file));
+            LoggerTest logger = new LoggerTest();
+            BlazeMeterUtilsEmul emul = new BlazeMeterUtilsEmul(BZM_ADDRESS, BZM_DATA_ADDRESS, new UserNotifierTest(), logger);
+            emul.addEmul(generateResponseTestNotFound());
+            emul.addEmul(MultiTestTest.generateResponseGetMultiTest());
+            assertTrue(TestDetector.detectTest(emul, "xxxx") instanceof MultiTest);
+            assertEquals(2, emul.getRequests().size());
+
+            TestTypeCache cache = new TestTypeCache(2, file);
+            assertEquals(TestTypeCache.Kind.MULTI, cache.get(BZM_ADDRESS, "xxxx"));
+            TestDetector.setTypeCache(cache);
+
+            emul.addEmul(MultiTestTest.generateResponseGetMultiTest());
+            assertTrue(TestDetector.detectTest(emul, "xxxx") instanceof MultiTest);
+            assertEquals(3, emul.getRequests().size());
+            assertEquals("Request{method=GET, url=http://a.blazemeter.com/api/v4/multi-tests/xxxx, tag=null}", emul.getRequests().get(2));
+            assertTrue(logger.getLogs().toString().contains("Test type of id=xxxx is taken from cache: MULTI"));
+
+            emul.addEmul(generateResponseCollectionNotFound());
+            emul.addEmul(SingleTestTest.generateResponseGetSingleTest());
+            assertTrue(TestDetector.detectTest(emul, "xxxx") instanceof SingleTest);
+            assertEquals(TestTypeCache.Kind.SINGLE, cache.get(BZM_ADDRESS, "xxxx"));
+
+            cache.put(BZM_ADDRESS, "1", TestTypeCache.Kind.SINGLE);
+            cache.put(BZM_ADDRESS, "2", TestTypeCache.Kind.MULTI);
+            assertEquals(2, cache.size());
+            assertNull(cache.get(BZM_ADDRESS, "xxxx"));
+        } finally {
+            TestDetector.setTypeCache(null);
+        }
+    }
+
     @Test
     public void testGetTestId() throws Exception {
         assertNull(TestDetector.getTestId(null));
@@ -0,0 +1,204 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazemeter.api.http;
+
+import com.blazemeter.api.exception.UnexpectedResponseException;
+import com.blazemeter.api.logging.LoggerTest;
+import com.blazemeter.api.utils.StubServer;
+import com.sun.net.httpserver.HttpExchange;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ChunkedUploadTest {
+
+    /**
+     * Server, that keeps received bytes and fails to store the second chunk once
+     */
+    private static class ResumableHandler {
+        private final ByteArrayOutputStream received = new ByteArrayOutputStream();
+        private final AtomicInteger chunks = new AtomicInteger();
+        private final AtomicInteger queries = new AtomicInteger();
+        private final int failedChunk;
+
+        private ResumableHandler(int failedChunk) {
+            this.failedChunk = failedChunk;
+        }
+
+        private synchronized void handle(HttpExchange exchange) throws IOException {
+            String range = exchange.getRequestHeaders().getFirst("Content-Range");
+            byte[] body = IOUtils.toByteArray(exchange.getRequestBody());
+            long total = Long.parseLong(range.substring(range.indexOf('/') + 1));
+            if (range.startsWith("bytes */")) {
+                queries.incrementAndGet();
+            } else if (chunks.incrementAndGet() == failedChunk) {
+                // chunk is partly stored before failure
+                received.write(body, 0, body.length / 2);
+                StubServer.send(exchange, 503, "{\"error\":{\"code\":503,\"message\":\"Unavailable\"}}");
+                return;
+            } else {
+                long first = Long.parseLong(range.substring(6, range.indexOf('-')));
+                assertEquals(received.size(), first);
+                received.write(body);
+            }
+            if (received.size() == total) {
+                StubServer.send(exchange, 200, "{\"result\":{\"size\":" + total + "}}");
+            } else {
+                exchange.getResponseHeaders().add("Range", "bytes=0-" + (received.size() - 1));
+                StubServer.send(exchange, 308, "");
+            }
+        }
+    }
+
+    @Test
+    public void testResumeAfterFailure() throws Exception {
+        File file = createFile(250 * 1024);
+        final ResumableHandler handler = new ResumableHandler(2);
+        try (StubServer server = new StubServer()) {
+            server.handle("/upload", handler::handle);
+            HttpUtils utils = new HttpUtils(new LoggerTest());
+            ChunkedUpload upload = new ChunkedUpload(utils, server.getAddress() + "/upload", file);
+            upload.setChunkSize(100 * 1024);
+            upload.setRetryDelay(10);
+            final AtomicLong progress = new AtomicLong();
+            final AtomicLong total = new AtomicLong();
+            upload.setProgressListener((written, size) -> {
+                progress.set(written);
+                total.set(size);
+            });
+
+            String result = upload.upload();
+
+            assertEquals("{\"result\":{\"size\":256000}}", result);
+            assertArrayEquals(IOUtils.toByteArray(file.toURI()), handler.received.toByteArray());
+            assertEquals(1, upload.getRetries());
+            assertEquals(1, handler.queries.get());
+            // the first chunk, failed chunk and the rest of file after resume from the middle of failed chunk
+            assertEquals(3, handler.chunks.get());
+            assertEquals(file.length(), upload.getConfirmed());
+            assertEquals(file.length(), progress.get());
+            assertEquals(file.length(), total.get());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testFailAfterRetries() throws Exception {
+        File file = createFile(1024);
+        try (StubServer server = new StubServer()) {
+            server.respond("/upload", 500, "{\"error\":{\"code\":500,\"message\":\"Internal error\"}}");
+            HttpUtils utils = new HttpUtils(new LoggerTest());
+            ChunkedUpload upload = new ChunkedUpload(utils, server.getAddress() + "/upload", file);
+            upload.setMaxRetries(2);
+            upload.setRetryDelay(1);
+            try {
+                upload.upload();
+                fail("Cannot upload to failed server");
+            } catch (UnexpectedResponseException ex) {
+                assertEquals(500, ex.getCode());
+            }
+            assertEquals(3, server.getRequestsCount());
+            assertEquals(0, upload.getConfirmed());
+
+            server.respond("/forbidden", 403, "{\"error\":{\"code\":403,\"message\":\"Forbidden\"}}");
+            upload = new ChunkedUpload(utils, server.getAddress() + "/forbidden", file);
+            try {
+                upload.upload();
+                fail("Client errors are not retried");
+            } catch (UnexpectedResponseException ex) {
+                assertEquals(403, ex.getCode());
+            }
+            assertEquals(4, server.getRequestsCount());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testParseRange() {
+        assertEquals(0, ChunkedUpload.parseRange(null));
+        assertEquals(100, ChunkedUpload.parseRange("bytes=0-99"));
+        assertEquals(0, ChunkedUpload.parseRange("bytes=0-"));
+    }
+
+    @Test
+    public void testThrottle() throws Exception {
+        final AtomicLong clock = new AtomicLong();
+        BandwidthThrottle throttle = new BandwidthThrottle(1000) {
+            @Override
+            protected long nanoTime() {
+                return clock.get();
+            }
+        };
+        assertEquals(1000, throttle.getBytesPerSecond());
+        long start = System.nanoTime();
+        throttle.acquire(20);
+        throttle.acquire(20);
+        // the second block waits for 20 ms of the first one
+        long elapsed = System.nanoTime() - start;
+        assertTrue(String.valueOf(elapsed), elapsed >= 15000000L);
+
+        try {
+            new BandwidthThrottle(0);
+            fail("Rate must be positive");
+        } catch (IllegalArgumentException ex) {
+            assertEquals("Upload rate must be positive: 0", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testFileRegionBody() throws Exception {
+        File file = createFile(200 * 1024);
+        try {
+            final AtomicLong progress = new AtomicLong();
+            FileRegionBody body = new FileRegionBody(ChunkedUpload.OCTET_STREAM, file, 1000, 100 * 1024,
+                    (written, total) -> progress.set(written), null);
+            assertEquals(100 * 1024, body.contentLength());
+            okio.Buffer buffer = new okio.Buffer();
+            body.writeTo(buffer);
+            byte[] expected = Arrays.copyOfRange(IOUtils.toByteArray(file.toURI()), 1000, 1000 + 100 * 1024);
+            assertArrayEquals(expected, buffer.readByteArray());
+            assertEquals(1000 + 100 * 1024, progress.get());
+        } finally {
+            file.delete();
+        }
+    }
+
+    private static File createFile(int size) throws IOException {
+        File file = File.createTempFile("upload", ".bin");
+        byte[] data = new byte[size];
+        new Random(1).nextBytes(data);
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(data);
+        }
+        return file;
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.api.http;
+
+import com.blazemeter.api.logging.LoggerTest;
+import com.blazemeter.api.utils.StubServer;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ConditionalResponseCacheTest {
+
+    @Test
+    public void testRevalidation() throws Exception {
+        final AtomicInteger fullResponses = new AtomicInteger();
+        File file = File.createTempFile("responses", ".cache");
+        file.delete();
+        try (StubServer server = new StubServer()) {
+            server.handle("/api/v4/tests/", exchange -> {
+                if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    StubServer.send(exchange, 304, "");
+                } else {
+                    fullResponses.incrementAndGet();
+                    exchange.getResponseHeaders().add("ETag", "\"v1\"");
+                    StubServer.send(exchange, 200, "{\"result\":{\"id\":1}}");
+                }
+            });
+            server.respond("/api/v4/masters/", 200, "{\"result\":{\"id\":2}}");
+
+            HttpUtils utils = new HttpUtils(new LoggerTest());
+            ConditionalResponseCache cache = new ConditionalResponseCache(ConditionalResponseCache.DEFAULT_PATHS, 10, file);
+            utils.setResponseCache(cache);
+
+            String url = server.getAddress() + "/api/v4/tests/1";
+            assertEquals(1, utils.execute(utils.createGet(url)).getJSONObject("result").getInt("id"));
+            assertEquals(1, utils.execute(utils.createGet(url)).getJSONObject("result").getInt("id"));
+            assertEquals("{\"result\":{\"id\":1}}", utils.executeRequest(utils.createGet(url)));
+            assertEquals(2, utils.execute(utils.createGet(server.getAddress() + "/api/v4/masters/1")).getJSONObject("result").getInt("id"));
+
+            assertEquals(1, fullResponses.get());
+            assertEquals(1, cache.getMisses());
+            assertEquals(2, cache.getRevalidations());
+            assertEquals(2, cache.getHits());
+            assertEquals(1, cache.size());
+
+            cache.save();
+            assertTrue(file.exists());
+            ConditionalResponseCache restored = new ConditionalResponseCache(ConditionalResponseCache.DEFAULT_PATHS, 10, file);
+            assertEquals(1, restored.size());
+            HttpUtils other = new HttpUtils(new LoggerTest());
+            other.setResponseCache(restored);
+            assertEquals(1, other.execute(other.createGet(url)).getJSONObject("result").getInt("id"));
+            assertEquals(1, restored.getHits());
+            assertEquals(1, fullResponses.get());
+
+            utils.setResponseCache(null);
+            assertNull(utils.getResponseCache());
+            utils.execute(utils.createGet(url));
+            assertEquals(2, fullResponses.get());
+        } finally {
+            file.delete();
+        }
+    }
+}
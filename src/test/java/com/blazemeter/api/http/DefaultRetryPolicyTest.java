@@ -0,0 +1,97 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.api.http;
+
+import com.blazemeter.api.logging.LoggerTest;
+import com.blazemeter.api.utils.BlazeMeterUtilsEmul;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.junit.Test;
+
+import java.net.SocketTimeoutException;
+
+import static com.blazemeter.api.http.HttpUtils.JSON_CONTENT;
+import static com.blazemeter.api.http.RetryPolicy.NO_RETRY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DefaultRetryPolicyTest {
+
+    private static final Request GET = new Request.Builder().url(BlazeMeterUtilsEmul.BZM_ADDRESS).build();
+
+    private static Response response(int code, String retryAfter) {
+        Response.Builder builder = new Response.Builder().code(code).message("msg").request(GET).protocol(Protocol.HTTP_1_1);
+        if (retryAfter != null) {
+            builder.header(DefaultRetryPolicy.RETRY_AFTER, retryAfter);
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void testClassify() throws Exception {
+        DefaultRetryPolicy policy = new DefaultRetryPolicy();
+        assertEquals(DefaultRetryPolicy.FailureType.SUCCESS, policy.classify(response(200, null), null));
+        assertEquals(DefaultRetryPolicy.FailureType.CLIENT_ERROR, policy.classify(response(404, null), null));
+        assertEquals(DefaultRetryPolicy.FailureType.TOO_MANY_REQUESTS, policy.classify(response(429, null), null));
+        assertEquals(DefaultRetryPolicy.FailureType.TIMEOUT, policy.classify(response(408, null), null));
+        assertEquals(DefaultRetryPolicy.FailureType.SERVER_ERROR, policy.classify(response(502, null), null));
+        assertEquals(DefaultRetryPolicy.FailureType.TIMEOUT, policy.classify(null, new SocketTimeoutException()));
+        assertEquals(DefaultRetryPolicy.FailureType.OTHER, policy.classify(response(777, null), null));
+    }
+
+    @Test
+    public void testRetryDelay() throws Exception {
+        DefaultRetryPolicy policy = new DefaultRetryPolicy(3, 1000, 30000, 120000, 10, 0.1);
+        assertEquals(NO_RETRY, policy.getRetryDelay(GET, response(404, null), null, 1));
+        assertEquals(NO_RETRY, policy.getRetryDelay(GET, response(500, null), null, 3));
+        assertEquals(2000, policy.getRetryDelay(GET, response(429, "2"), null, 1));
+        assertEquals(NO_RETRY, policy.getRetryDelay(GET, response(503, "600"), null, 1));
+
+        long delay = policy.getRetryDelay(GET, response(500, null), null, 2);
+        assertTrue(String.valueOf(delay), delay >= 0 && delay <= 2000);
+
+        Request post = GET.newBuilder().post(RequestBody.create(JSON_CONTENT, "{}")).build();
+        assertEquals(NO_RETRY, policy.getRetryDelay(post, response(500, null), null, 1));
+        post = post.newBuilder().header(DefaultRetryPolicy.IDEMPOTENCY_KEY, "key").build();
+        assertTrue(policy.getRetryDelay(post, response(500, null), null, 1) >= 0);
+    }
+
+    @Test
+    public void testBudget() throws Exception {
+        DefaultRetryPolicy policy = new DefaultRetryPolicy(3, 0, 0, 0, 2, 0.5);
+        assertEquals(0, policy.getRetryDelay(GET, response(500, null), null, 1));
+        assertEquals(0, policy.getRetryDelay(GET, response(500, null), null, 1));
+        assertEquals(NO_RETRY, policy.getRetryDelay(GET, response(500, null), null, 1));
+
+        policy.getRetryDelay(GET, response(200, null), null, 1);
+        policy.getRetryDelay(GET, response(200, null), null, 1);
+        assertEquals(1.0, policy.getTokens(), 0.001);
+        assertEquals(0, policy.getRetryDelay(GET, response(500, null), null, 1));
+    }
+
+    @Test
+    public void testNotRetryClientError() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        RetryInterceptor retryInterceptor = new RetryInterceptor(logger);
+        RetryInterceptorTest.ChainImpl chain = new RetryInterceptorTest.ChainImpl();
+        chain.code = 404;
+
+        Response response = retryInterceptor.intercept(chain);
+        assertEquals(404, response.code());
+        assertEquals("Response code = 404 -> done 1 attempt\r\n", logger.getLogs().toString());
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.api.http;
+
+import com.blazemeter.api.logging.LoggerTest;
+import com.blazemeter.api.logging.UserNotifierTest;
+import com.blazemeter.api.utils.BlazeMeterUtils;
+import com.blazemeter.api.utils.StubServer;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.blazemeter.api.utils.BlazeMeterUtilsEmul.BZM_ADDRESS;
+import static com.blazemeter.api.utils.BlazeMeterUtilsEmul.BZM_DATA_ADDRESS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class HttpClientPoolTest {
+
+    @Test
+    public void testBuilder() throws Exception {
+        HttpClientPool pool = new HttpClientPool.Builder()
+                .maxIdleConnections(10)
+                .keepAliveDuration(1, TimeUnit.MINUTES)
+                .maxRequests(200)
+                .maxRequestsPerHost(50)
+                .executorThreads(8)
+                .threadNamePrefix("test")
+                .build();
+        try {
+            assertEquals(200, pool.getDispatcher().getMaxRequests());
+            assertEquals(50, pool.getDispatcher().getMaxRequestsPerHost());
+            assertEquals(0, pool.getConnectionPool().connectionCount());
+        } finally {
+            pool.shutdown();
+        }
+        assertTrue(pool.getExecutor().isShutdown());
+    }
+
+    @Test
+    public void testSharedPool() throws Exception {
+        HttpClientPool pool = new HttpClientPool();
+        BlazeMeterUtils utils1 = new BlazeMeterUtils("id1", "secret1", BZM_ADDRESS, BZM_DATA_ADDRESS, new UserNotifierTest(), new LoggerTest(), pool);
+        BlazeMeterUtils utils2 = new BlazeMeterUtils("id2", "secret2", BZM_ADDRESS, BZM_DATA_ADDRESS, new UserNotifierTest(), new LoggerTest(), pool);
+        HttpUtils utils3 = new HttpUtils(new LoggerTest());
+
+        assertSame(pool, utils1.getClientPool());
+        assertSame(utils1.httpClient.connectionPool(), utils2.httpClient.connectionPool());
+        assertSame(utils1.httpClient.dispatcher(), utils2.httpClient.dispatcher());
+        assertSame(utils1.service, utils2.service);
+        assertNotSame(utils1.httpClient.connectionPool(), utils3.httpClient.connectionPool());
+
+        try (StubServer server = new StubServer()) {
+            server.respond("/api", 200, "{\"result\":{}}");
+            utils1.executeRequest(utils1.createGet(server.getAddress() + "/api"));
+            utils2.executeRequest(utils2.createGet(server.getAddress() + "/api"));
+            assertEquals(1, pool.getConnectionPool().connectionCount());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -15,14 +15,21 @@
 package com.blazemeter.api.http;
 
 import com.blazemeter.api.logging.LoggerTest;
+import com.blazemeter.api.utils.StubServer;
 import net.sf.json.JSONObject;
 import okhttp3.*;
+import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static com.blazemeter.api.http.HttpUtils.PROXY_HOST;
 import static com.blazemeter.api.http.HttpUtils.PROXY_PASS;
@@ -264,4 +271,83 @@ public class HttpUtilsTest {
         assertEquals(149, part.body().contentLength());
         assertEquals("application/x-www-form-urlencoded", part.body().contentType().toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testExecuteAsync() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        HttpUtils utils = new HttpUtils(logger);
+        try (StubServer server = new StubServer()) {
+            server.respond("/json", 200, "{\"param\":\"value\"}");
+            server.respond("/text", 200, "plain text");
+
+            CompletableFuture<JSONObject> json = utils.executeAsync(utils.createGet(server.getAddress() + "/json"));
+            CompletableFuture<String> text = utils.executeRequestAsync(utils.createGet(server.getAddress() + "/text"));
+            assertEquals("value", json.get(10, TimeUnit.SECONDS).getString("param"));
+            assertEquals("plain text", text.get(10, TimeUnit.SECONDS));
+
+            CompletableFuture<String> failed = utils.executeRequestAsync(utils.createGet("http://127.0.0.1:1/"));
+            try {
+                failed.get(10, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof IOException);
+            }
+        }
+    }
+
+    @Test
+    public void testExecuteAsyncCancel() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        HttpUtils utils = new HttpUtils(logger);
+        final CountDownLatch latch = new CountDownLatch(1);
+        try (StubServer server = new StubServer()) {
+            server.handle("/slow", new com.sun.net.httpserver.HttpHandler() {
+                @Override
+                public void handle(com.sun.net.httpserver.HttpExchange exchange) throws IOException {
+                    try {
+                        latch.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    StubServer.send(exchange, 200, "{}");
+                }
+            });
+            CompletableFuture<JSONObject> future = utils.executeAsync(utils.createGet(server.getAddress() + "/slow"));
+            assertTrue(future.cancel(true));
+            try {
+                future.get();
+                fail();
+            } catch (CancellationException ex) {
+                assertTrue(future.isCancelled());
+            } finally {
+                latch.countDown();
+            }
+        }
+    }
+
+    @Test
+    public void testDownload() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        HttpUtils utils = new HttpUtils(logger);
+        final String[] auth = new String[1];
+        try (StubServer server = new StubServer()) {
+            server.handle("/report", exchange -> {
+                auth[0] = exchange.getRequestHeaders().getFirst("Authorization");
+                StubServer.send(exchange, 200, "report content");
+            });
+            server.respond("/missing", 404, "not found");
+
+            Request request = utils.createDownload(server.getAddress() + "/report");
+            String content = utils.download(request, stream -> IOUtils.toString(stream, "UTF-8"));
+            assertEquals("report content", content);
+            assertNull(auth[0]);
+
+            try {
+                utils.download(utils.createDownload(server.getAddress() + "/missing"), stream -> null);
+                fail("Cannot download missing report");
+            } catch (IOException ex) {
+                assertTrue(ex.getMessage(), ex.getMessage().startsWith("Unexpected response code"));
+            }
+        }
+    }
+}
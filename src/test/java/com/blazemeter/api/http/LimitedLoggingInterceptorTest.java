@@ -0,0 +1,72 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazemeter.api.http;
+
+import com.blazemeter.api.logging.LoggerTest;
+import com.blazemeter.api.utils.StubServer;
+import net.sf.json.JSONObject;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.Buffer;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class LimitedLoggingInterceptorTest {
+
+    @Test
+    public void testBodyLimit() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(new LimitedLoggingInterceptor(new HttpLogger(logger), 100)).build();
+        StringBuilder large = new StringBuilder("{\"result\":\"");
+        for (int i = 0; i < 1000; i++) {
+            large.append("abcdefghij");
+        }
+        large.append("\"}");
+        try (StubServer server = new StubServer()) {
+            server.respond("/small", 200, "{\"result\":\"ok\"}");
+            server.respond("/large", 200, large.toString());
+
+            try (Response response = client.newCall(new Request.Builder().url(server.getAddress() + "/small").build()).execute()) {
+                assertEquals("{\"result\":\"ok\"}", response.body().string());
+            }
+            String logs = logger.getLogs().toString();
+            assertTrue(logs, logs.contains("--> GET " + server.getAddress() + "/small\r\n--> END GET\r\n"));
+            assertTrue(logs, logs.contains("\r\n{\"result\":\"ok\"}\r\n<-- END HTTP (15-byte body)\r\n"));
+
+            logger.reset();
+            try (Response response = client.newCall(new Request.Builder().url(server.getAddress() + "/large").build()).execute()) {
+                // body is not consumed by logging
+                assertEquals(10000, JSONObject.fromObject(response.body().string()).getString("result").length());
+            }
+            logs = logger.getLogs().toString();
+            assertTrue(logs, logs.contains("<-- END HTTP (first 100 bytes of 10013-byte body)"));
+            assertFalse(logs, logs.contains(large.substring(0, 101)));
+            assertTrue(logs, logs.contains(large.substring(0, 100)));
+        }
+    }
+
+    @Test
+    public void testIsPlaintext() throws Exception {
+        assertTrue(LimitedLoggingInterceptor.isPlaintext(new Buffer().writeUtf8("{\"a\":\n1}")));
+        assertTrue(LimitedLoggingInterceptor.isPlaintext(new Buffer()));
+        assertFalse(LimitedLoggingInterceptor.isPlaintext(new Buffer().write(new byte[]{0x50, 0x4b, 0x03, 0x04})));
+    }
+}
@@ -0,0 +1,279 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazemeter.api.http;
+
+import com.blazemeter.api.logging.LoggerTest;
+import com.blazemeter.api.utils.StubServer;
+import com.sun.net.httpserver.HttpExchange;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RangedDownloadTest {
+
+    private static final int CHUNK = 64 * 1024;
+
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("ranged").toFile();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(dir);
+    }
+
+    private static byte[] content(int size, long seed) {
+        byte[] content = new byte[size];
+        new Random(seed).nextBytes(content);
+        return content;
+    }
+
+    private RangedDownload createDownload(HttpUtils utils, String url, File file) {
+        RangedDownload download = new RangedDownload(utils, url, file);
+        download.setChunkSize(CHUNK);
+        download.setRetryDelay(1);
+        return download;
+    }
+
+    /**
+     * Sends headers of range and only part of its body, so client fails with unexpected end of stream
+     */
+    private static void sendBrokenRange(HttpExchange exchange, byte[] content, int first) throws IOException {
+        exchange.getResponseHeaders().add("ETag", "\"v1\"");
+        exchange.getResponseHeaders().add("Content-Range", "bytes " + first + "-" + (first + CHUNK - 1) + "/" + content.length);
+        exchange.sendResponseHeaders(206, CHUNK);
+        OutputStream os = exchange.getResponseBody();
+        os.write(content, first, 1000);
+        os.flush();
+        throw new IOException("Connection has been broken");
+    }
+
+    @Test
+    public void testParallelRanges() throws Exception {
+        final byte[] content = content(16 * CHUNK + 100, 1);
+        LoggerTest logger = new LoggerTest();
+        HttpUtils utils = new HttpUtils(logger);
+        final AtomicLong progress = new AtomicLong();
+        try (StubServer server = new StubServer()) {
+            server.handle("/report.zip", exchange -> StubServer.sendRange(exchange, content, "\"v1\""));
+            File file = new File(dir, "report.zip");
+            RangedDownload download = createDownload(utils, server.getAddress() + "/report.zip", file);
+            download.setProgressListener((written, total) -> progress.set(written));
+            assertEquals(file, download.download());
+
+            assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+            assertTrue(download.isRanged());
+            assertEquals(0, download.getResumed());
+            assertEquals(0, download.getRetries());
+            // probe and 17 chunks
+            assertEquals(18, server.getRequestsCount());
+            assertEquals(content.length, progress.get());
+            assertFalse(new File(dir, "report.zip.part").exists());
+            assertFalse(new File(dir, "report.zip.state").exists());
+        }
+    }
+
+    @Test
+    public void testRetryOfBrokenRange() throws Exception {
+        final byte[] content = content(4 * CHUNK, 2);
+        final AtomicBoolean broken = new AtomicBoolean();
+        LoggerTest logger = new LoggerTest();
+        HttpUtils utils = new HttpUtils(logger);
+        try (StubServer server = new StubServer()) {
+            server.handle("/report.zip", exchange -> {
+                if ("bytes=131072-196607".equals(exchange.getRequestHeaders().getFirst("Range")) && broken.compareAndSet(false, true)) {
+                    sendBrokenRange(exchange, content, 2 * CHUNK);
+                }
+                StubServer.sendRange(exchange, content, "\"v1\"");
+            });
+            File file = new File(dir, "report.zip");
+            RangedDownload download = createDownload(utils, server.getAddress() + "/report.zip", file);
+            download.download();
+
+            assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+            assertEquals(1, download.getRetries());
+            assertTrue(logger.getLogs().toString(), logger.getLogs().toString().contains("Failed to download chunk of report.zip"));
+        }
+    }
+
+    @Test
+    public void testResumeAfterFailure() throws Exception {
+        final byte[] content = content(8 * CHUNK, 3);
+        final AtomicBoolean broken = new AtomicBoolean();
+        final AtomicLong served = new AtomicLong();
+        LoggerTest logger = new LoggerTest();
+        HttpUtils utils = new HttpUtils(logger);
+        try (StubServer server = new StubServer()) {
+            server.handle("/report.zip", exchange -> {
+                if ("bytes=327680-393215".equals(exchange.getRequestHeaders().getFirst("Range")) && broken.compareAndSet(false, true)) {
+                    sendBrokenRange(exchange, content, 5 * CHUNK);
+                }
+                served.addAndGet(StubServer.sendRange(exchange, content, "\"v1\""));
+            });
+            File file = new File(dir, "report.zip");
+            RangedDownload download = createDownload(utils, server.getAddress() + "/report.zip", file);
+            download.setConcurrency(1);
+            download.setMaxRetries(0);
+            try {
+                download.download();
+                fail("Download must fail with broken connection");
+            } catch (IOException ex) {
+                assertFalse(file.exists());
+                assertTrue(new File(dir, "report.zip.part").exists());
+                assertTrue(new File(dir, "report.zip.state").exists());
+            }
+
+            // e.g. after restart of agent
+            served.set(0);
+            RangedDownload resumed = createDownload(utils, server.getAddress() + "/report.zip", file);
+            resumed.download();
+
+            assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+            assertTrue(String.valueOf(resumed.getResumed()), resumed.getResumed() >= 5 * CHUNK);
+            assertEquals(content.length - resumed.getResumed() + 1, served.get());
+            assertTrue(logger.getLogs().toString().contains("Resume download of report.zip from " + resumed.getResumed()));
+            assertFalse(new File(dir, "report.zip.state").exists());
+        }
+    }
+
+    @Test
+    public void testChangedFileIsDownloadedAgain() throws Exception {
+        final byte[] content = content(4 * CHUNK, 4);
+        final byte[] changed = content(4 * CHUNK, 5);
+        final AtomicBoolean broken = new AtomicBoolean();
+        LoggerTest logger = new LoggerTest();
+        HttpUtils utils = new HttpUtils(logger);
+        try (StubServer server = new StubServer()) {
+            server.handle("/report.zip", exchange -> {
+                if (exchange.getRequestHeaders().getFirst("Range").startsWith("bytes=131072") && broken.compareAndSet(false, true)) {
+                    sendBrokenRange(exchange, content, 2 * CHUNK);
+                }
+                if (broken.get()) {
+                    StubServer.sendRange(exchange, changed, "\"v2\"");
+                } else {
+                    StubServer.sendRange(exchange, content, "\"v1\"");
+                }
+            });
+            File file = new File(dir, "report.zip");
+            RangedDownload download = createDownload(utils, server.getAddress() + "/report.zip", file);
+            download.setConcurrency(1);
+            download.setMaxRetries(0);
+            try {
+                download.download();
+                fail("Download must fail with broken connection");
+            } catch (IOException ex) {
+                assertTrue(new File(dir, "report.zip.state").exists());
+            }
+
+            RangedDownload restarted = createDownload(utils, server.getAddress() + "/report.zip", file);
+            restarted.download();
+            assertEquals(0, restarted.getResumed());
+            assertArrayEquals(changed, Files.readAllBytes(file.toPath()));
+        }
+    }
+
+    @Test
+    public void testServerWithoutRanges() throws Exception {
+        final byte[] content = content(3 * CHUNK, 6);
+        LoggerTest logger = new LoggerTest();
+        HttpUtils utils = new HttpUtils(logger);
+        try (StubServer server = new StubServer()) {
+            server.handle("/report.zip", exchange -> {
+                exchange.sendResponseHeaders(200, content.length);
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(content);
+                }
+            });
+            File file = new File(dir, "report.zip");
+            RangedDownload download = createDownload(utils, server.getAddress() + "/report.zip", file);
+            download.download();
+
+            assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+            assertFalse(download.isRanged());
+            assertEquals(1, server.getRequestsCount());
+        }
+    }
+
+    @Test
+    public void testChecksum() throws Exception {
+        final byte[] content = content(2 * CHUNK, 7);
+        File expected = new File(dir, "expected");
+        Files.write(expected.toPath(), content);
+        final String md5 = RangedDownload.md5(expected);
+        LoggerTest logger = new LoggerTest();
+        HttpUtils utils = new HttpUtils(logger);
+        final AtomicInteger requests = new AtomicInteger();
+        try (StubServer server = new StubServer()) {
+            server.handle("/valid.zip", exchange -> {
+                exchange.getResponseHeaders().add("x-goog-hash", "crc32c=n03x6A==, md5=" + md5);
+                StubServer.sendRange(exchange, content, "\"v1\"");
+            });
+            server.handle("/corrupted.zip", exchange -> {
+                requests.incrementAndGet();
+                exchange.getResponseHeaders().add("x-goog-hash", "md5=" + md5);
+                byte[] corrupted = content.clone();
+                corrupted[CHUNK + 1]++;
+                StubServer.sendRange(exchange, corrupted, "\"v1\"");
+            });
+
+            File file = new File(dir, "valid.zip");
+            createDownload(utils, server.getAddress() + "/valid.zip", file).download();
+            assertArrayEquals(content, Files.readAllBytes(file.toPath()));
+
+            File corrupted = new File(dir, "corrupted.zip");
+            try {
+                createDownload(utils, server.getAddress() + "/corrupted.zip", corrupted).download();
+                fail("Corrupted file must not be saved");
+            } catch (IOException ex) {
+                assertTrue(ex.getMessage(), ex.getMessage().startsWith("MD5 of corrupted.zip is"));
+            }
+            assertFalse(corrupted.exists());
+            assertFalse(new File(dir, "corrupted.zip.part").exists());
+            assertFalse(new File(dir, "corrupted.zip.state").exists());
+            assertEquals(3, requests.get());
+        }
+    }
+
+    @Test
+    public void testParseHeaders() throws Exception {
+        assertEquals(100, RangedDownload.parseContentRangeStart("bytes 100-199/1000"));
+        assertEquals(1000, RangedDownload.parseContentRangeTotal("bytes 100-199/1000"));
+        assertEquals(-1, RangedDownload.parseContentRangeTotal("bytes 100-199/*"));
+        assertEquals(-1, RangedDownload.parseContentRangeStart(null));
+        assertEquals("1B2M2Y8AsgTpgAmY7PhCfg==", RangedDownload.parseMd5("crc32c=AAAAAA==,md5=1B2M2Y8AsgTpgAmY7PhCfg=="));
+        assertNull(RangedDownload.parseMd5("crc32c=AAAAAA=="));
+    }
+}
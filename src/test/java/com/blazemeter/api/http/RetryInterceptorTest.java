@@ -74,7 +74,7 @@ public class RetryInterceptorTest {
         @Override
         public Response proceed(Request request) throws IOException {
             Response.Builder responseBuilder = new Response.Builder();
-            return responseBuilder.code(code).request(request).protocol(Protocol.get("http/1.1")).build();
+            return responseBuilder.code(code).message("OK").request(request).protocol(Protocol.get("http/1.1")).build();
         }
 
         @Override
@@ -159,7 +159,7 @@ public class RetryInterceptorTest {
             currentAttempt++;
             if (currentAttempt == successAttemptNumber) {
                 Response.Builder responseBuilder = new Response.Builder();
-                return responseBuilder.code(code).request(request).protocol(Protocol.get("http/1.1")).build();
+                return responseBuilder.code(code).message("OK").request(request).protocol(Protocol.get("http/1.1")).build();
             }
             throw new SocketTimeoutException("ooops");
         }
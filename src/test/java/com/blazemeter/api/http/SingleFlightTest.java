@@ -0,0 +1,167 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.api.http;
+
+import com.blazemeter.api.logging.LoggerTest;
+import com.blazemeter.api.utils.StubServer;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SingleFlightTest {
+
+    @Test
+    public void testConcurrentRequests() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        final HttpUtils utils = new HttpUtils(logger);
+        final SingleFlight singleFlight = new SingleFlight();
+        utils.setSingleFlight(singleFlight);
+        final CountDownLatch latch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try (StubServer server = new StubServer()) {
+            server.handle("/slow", exchange -> {
+                try {
+                    latch.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                StubServer.send(exchange, 200, "{\"param\":\"value\"}");
+            });
+            final Request request = utils.createGet(server.getAddress() + "/slow");
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                results.add(executor.submit(() -> utils.execute(request).getString("param")));
+            }
+            long deadline = System.currentTimeMillis() + 10000;
+            while (singleFlight.getShared() < 4 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            latch.countDown();
+            for (Future<String> result : results) {
+                assertEquals("value", result.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, server.getRequestsCount());
+            assertEquals(1, singleFlight.getCalls());
+            assertEquals(4, singleFlight.getShared());
+
+            // completed request is not reused without window
+            assertEquals("value", utils.execute(request).getString("param"));
+            assertEquals(2, server.getRequestsCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testReuseWindowAndExclusions() throws Exception {
+        SingleFlight singleFlight = new SingleFlight();
+        singleFlight.setReuseWindow(1, TimeUnit.MINUTES);
+        singleFlight.exclude("/api/v4/masters/");
+        final AtomicInteger counter = new AtomicInteger();
+        SingleFlight.Call call = () -> "body" + counter.incrementAndGet();
+
+        Request tests = new Request.Builder().url("http://a.blazemeter.com/api/v4/tests/1").build();
+        assertEquals("body1", singleFlight.execute(tests, call));
+        assertEquals("body1", singleFlight.execute(tests, call));
+
+        Request otherAuth = tests.newBuilder().header("Authorization", "Basic other").build();
+        assertEquals("body2", singleFlight.execute(otherAuth, call));
+
+        Request status = new Request.Builder().url("http://a.blazemeter.com/api/v4/masters/1/status").build();
+        assertEquals("body3", singleFlight.execute(status, call));
+        assertEquals("body4", singleFlight.execute(status, call));
+
+        Request post = new Request.Builder().url("http://a.blazemeter.com/api/v4/tests/1")
+                .post(RequestBody.create(null, "{}")).build();
+        assertEquals("body5", singleFlight.execute(post, call));
+        assertEquals("body6", singleFlight.execute(post, call));
+        assertEquals(6, singleFlight.getCalls());
+        assertEquals(1, singleFlight.getShared());
+    }
+
+    @Test
+    public void testFailedRequestIsNotReused() throws Exception {
+        SingleFlight singleFlight = new SingleFlight();
+        singleFlight.setReuseWindow(1, TimeUnit.MINUTES);
+        final AtomicInteger counter = new AtomicInteger();
+        Request request = new Request.Builder().url("http://a.blazemeter.com/api/v4/user").build();
+        try {
+            singleFlight.execute(request, () -> {
+                counter.incrementAndGet();
+                throw new IOException("Connection refused");
+            });
+            fail("Cannot get body of failed request");
+        } catch (IOException ex) {
+            assertEquals("Connection refused", ex.getMessage());
+        }
+        assertEquals("user", singleFlight.execute(request, () -> "user"));
+        assertTrue(counter.get() == 1);
+        assertEquals(2, singleFlight.getCalls());
+    }
+
+    @Test
+    public void testErrorReleasesWaiters() throws Exception {
+        final SingleFlight singleFlight = new SingleFlight();
+        final Request request = new Request.Builder().url("http://a.blazemeter.com/api/v4/user").build();
+        final CountDownLatch latch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.execute(request, () -> {
+                try {
+                    latch.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new OutOfMemoryError("Failed call");
+            }));
+            long deadline = System.currentTimeMillis() + 10000;
+            while (singleFlight.getCalls() < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Future<String> waiter = executor.submit(() -> singleFlight.execute(request, () -> "user"));
+            while (singleFlight.getShared() < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            latch.countDown();
+            for (Future<String> result : new Future[]{leader, waiter}) {
+                try {
+                    result.get(10, TimeUnit.SECONDS);
+                    fail("Cannot get body of failed request");
+                } catch (ExecutionException ex) {
+                    assertEquals("Failed call", ex.getCause().getMessage());
+                    assertTrue(ex.getCause() instanceof OutOfMemoryError);
+                }
+            }
+            assertEquals("user", singleFlight.execute(request, () -> "user"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.api.json;
+
+import com.blazemeter.api.explorer.Session;
+import com.blazemeter.api.explorer.test.SingleTest;
+import com.blazemeter.api.logging.LoggerTest;
+import com.blazemeter.api.logging.UserNotifierTest;
+import com.blazemeter.api.utils.BlazeMeterUtils;
+import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
+import org.junit.Test;
+
+import java.util.List;
+
+import static com.blazemeter.api.utils.BlazeMeterUtilsEmul.BZM_ADDRESS;
+import static com.blazemeter.api.utils.BlazeMeterUtilsEmul.BZM_DATA_ADDRESS;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class JsonCodecsTest {
+
+    @Test
+    public void testReadFields() throws Exception {
+        String json = "{\"id\":123,\"skip\":{\"id\":1},\"name\":\"test\",\"flag\":true,\"nothing\":null,\"big\":1.5}";
+        String[] fields = JsonCodecs.readFields(JsonReader.of(json), "name", "id", "flag", "nothing", "big");
+        JSONObject obj = JSONObject.fromObject(json);
+        assertArrayEquals(new String[]{obj.getString("name"), obj.getString("id"), obj.getString("flag"),
+                obj.getString("nothing"), obj.getString("big")}, fields);
+
+        try {
+            JsonCodecs.readFields(JsonReader.of(json), "id", "email");
+            fail("Must fail, because field is absent");
+        } catch (JSONException ex) {
+            assertEquals("JSONObject[\"email\"] not found.", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testTypedDecoders() throws Exception {
+        BlazeMeterUtils utils = new BlazeMeterUtils(BZM_ADDRESS, BZM_DATA_ADDRESS, new UserNotifierTest(), new LoggerTest());
+
+        String tests = "[{\"id\":1,\"name\":\"t1\",\"configuration\":{\"filename\":\"a.jmx\",\"type\":\"jmeter\"}},{\"name\":\"t2\",\"id\":\"2\",\"configuration\":{\"type\":\"taurus\"}}]";
+        List<SingleTest> list = JsonCodecs.listOf((JsonDecoder<SingleTest>) reader -> SingleTest.fromJSON(utils, reader))
+                .decode(JsonReader.of(tests));
+        assertEquals(2, list.size());
+        assertEquals("1", list.get(0).getId());
+        assertEquals("jmeter", list.get(0).getTestType());
+        assertEquals("t2", list.get(1).getName());
+        assertEquals("taurus", list.get(1).getTestType());
+
+        String session = "{\"id\":\"r-v4-1\",\"name\":\"session\",\"userId\":42,\"testId\":7,\"status\":\"ENDED\"}";
+        Session typed = Session.fromJSON(utils, JsonReader.of(session));
+        Session adapter = Session.fromJSON(utils, JSONObject.fromObject(session));
+        assertEquals(adapter.getId(), typed.getId());
+        assertEquals(adapter.getUserId(), typed.getUserId());
+        assertEquals(adapter.getTestId(), typed.getTestId());
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.api.json;
+
+import net.sf.json.JSONException;
+import net.sf.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class JsonReaderTest {
+
+    private static final String[] RESPONSES = {
+            "{}",
+            "{\"result\": \"ok\", \"error\": null}",
+            "{\"a\":1,\"b\":3000000000,\"c\":1.5,\"d\":12345678901234567890,\"e\":1e3,\"f\":-0,\"g\":1.23456789,\"h\":1E400}",
+            "{\"s\":\"[1,2]\",\"t\":\"null\",\"u\":\"{}\",\"v\":null,\"w\":\"\",\"x\":\"{\\\"k\\\":1}\",\"y\":[null,\"null\",\"[3]\"],\"z\":\"true\"}",
+            "{\"esc\":\"a\\\"b\\\\c\\/d\\n\\t\\u0041\\u0436\",\"utf\":\"тест ✓\",\"dup\":1,\"dup\":2}",
+            "{\"result\":[{\"id\":1,\"name\":\"test\",\"configuration\":{\"type\":\"jmeter\",\"filename\":\"test.jmx\"},\"created\":1500000000,\"flag\":true,\"none\":false}],\"total\":1}",
+            "  {\n \"nested\" : { \"deep\" : [ [ ], { }, [ { \"k\" : [ 1 , 2 ] } ] ] } \n}  ",
+    };
+
+    @Test
+    public void testSameAsJsonLib() throws Exception {
+        for (String response : RESPONSES) {
+            JSONObject expected = JSONObject.fromObject(response);
+            JSONObject actual = JsonReader.of(response).readJSONObject();
+            assertEquals(response, expected.toString(), actual.toString());
+            assertEquals(response, expected, actual);
+        }
+        assertTrue(JsonReader.of("null").readJSONObject().isNullObject());
+    }
+
+    @Test
+    public void testTokens() throws Exception {
+        JsonReader reader = JsonReader.of("{\"id\":12,\"name\":\"test\",\"skip\":{\"a\":[1,\"}\"]},\"ok\":true,\"n\":null,\"d\":0.5,\"list\":[1,2]}");
+        reader.beginObject();
+        assertEquals("id", reader.nextName());
+        assertEquals(12, reader.nextInt());
+        assertEquals("name", reader.nextName());
+        assertEquals("test", reader.nextString());
+        assertEquals("skip", reader.nextName());
+        reader.skipValue();
+        assertEquals("ok", reader.nextName());
+        assertTrue(reader.nextBoolean());
+        assertEquals("n", reader.nextName());
+        assertEquals(JsonReader.Token.NULL, reader.peek());
+        reader.nextNull();
+        assertEquals("d", reader.nextName());
+        assertEquals(0.5, reader.nextDouble(), 0.0001);
+        assertEquals("list", reader.nextName());
+        reader.beginArray();
+        assertEquals(1, reader.nextLong());
+        assertEquals(2, reader.nextLong());
+        assertFalse(reader.hasNext());
+        reader.endArray();
+        reader.endObject();
+        assertEquals(JsonReader.Token.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    public void testSyntaxErrors() throws Exception {
+        String[] incorrect = {"incorrect json", "{\"a\":}", "{\"a\":1", "{\"a\" 1}", "[1,2}", "{\"a\":\"b}", "{} {}"};
+        for (String json : incorrect) {
+            try {
+                JsonReader reader = JsonReader.of(json);
+                reader.readValue();
+                reader.peek();
+                fail("Must fail: " + json);
+            } catch (JSONException ex) {
+                // expected
+            }
+        }
+    }
+}
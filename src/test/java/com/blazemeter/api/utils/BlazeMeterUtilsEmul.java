@@ -22,6 +22,7 @@ import okio.Buffer;
 
 import java.io.IOException;
 import java.util.LinkedList;
+import java.util.concurrent.CompletableFuture;
 
 
 public class BlazeMeterUtilsEmul extends BlazeMeterUtils {
@@ -58,6 +59,11 @@ public class BlazeMeterUtilsEmul extends BlazeMeterUtils {
         return requestsBody;
     }
 
+    @Override
+    protected boolean isStreamingSupported() {
+        return false;
+    }
+
     @Override
     public JSONObject execute(Request request) throws IOException {
         extractBody(request);
@@ -70,6 +76,17 @@ public class BlazeMeterUtilsEmul extends BlazeMeterUtils {
         return getResponse(request);
     }
 
+    @Override
+    public CompletableFuture<String> executeRequestAsync(Request request) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        try {
+            future.complete(executeRequest(request));
+        } catch (IOException | RuntimeException ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
     public void extractBody(Request request) throws IOException {
         requests.add(request.toString());
         if (request.body() != null) {
@@ -26,7 +26,9 @@ import org.junit.Test;
 import static com.blazemeter.api.utils.BlazeMeterUtilsEmul.BZM_ADDRESS;
 import static com.blazemeter.api.utils.BlazeMeterUtilsEmul.BZM_DATA_ADDRESS;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class BlazeMeterUtilsTest {
@@ -105,4 +107,37 @@ public class BlazeMeterUtilsTest {
             System.setProperty("bzm.checkTimeout", "10000");
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testDecodeResponse() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        UserNotifier notifier = new UserNotifierTest();
+        BlazeMeterUtils utils = new BlazeMeterUtils(BZM_ADDRESS, BZM_DATA_ADDRESS, notifier, logger);
+        assertTrue(utils.isStreaming());
+        assertFalse(new BlazeMeterUtilsEmul(BZM_ADDRESS, BZM_DATA_ADDRESS, notifier, logger).isStreaming());
+
+        try (StubServer server = new StubServer()) {
+            server.respond("/ok", 200, "{\"api_version\":4,\"error\":null,\"result\":[{\"id\":1,\"name\":\"test\"}]}");
+            server.respond("/error", 404, "{\"error\":{\"code\":404,\"message\":\"Not Found: Project not found\"},\"result\":[1,2,3]}");
+            server.respond("/html", 502, "<html>Bad Gateway</html>");
+
+            JSONObject result = utils.execute(utils.createGet(server.getAddress() + "/ok"));
+            assertEquals(4, result.getInt("api_version"));
+            assertEquals("test", result.getJSONArray("result").getJSONObject(0).getString("name"));
+
+            try {
+                utils.execute(utils.createGet(server.getAddress() + "/error"));
+                fail("Must fail, because response has error");
+            } catch (UnexpectedResponseException ex) {
+                assertEquals("Received response with the following error: Not Found: Project not found", ex.getMessage());
+            }
+
+            try {
+                utils.execute(utils.createGet(server.getAddress() + "/html"));
+                fail("Must fail, because response is not json");
+            } catch (UnexpectedResponseException ex) {
+                assertTrue(ex.getMessage(), ex.getMessage().startsWith("Received response with the following error: Cannot parse response"));
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.api.utils;
+
+import com.blazemeter.api.explorer.test.SingleTest;
+import com.blazemeter.api.json.JsonCodecs;
+import com.blazemeter.api.json.JsonDecoder;
+import com.blazemeter.api.json.JsonReader;
+import com.blazemeter.api.http.HttpLogger;
+import com.blazemeter.api.http.LimitedLoggingInterceptor;
+import com.blazemeter.api.logging.Logger;
+import com.blazemeter.api.logging.LoggerTest;
+import com.blazemeter.api.logging.UserNotifierTest;
+import net.sf.json.JSONObject;
+import okhttp3.OkHttpClient;
+import okhttp3.logging.HttpLoggingInterceptor;
+import okio.Buffer;
+import okio.ByteString;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decoding of 'GET /tests' response:
+ * old path (body String, error check parse + result parse), single parse of String, streaming decode
+ * and typed decode of SingleTest list compared with SingleTest list built from JSONObject.
+ * client* benchmarks request the same response from local server through the whole client:
+ * production client (streaming decode, body logging up to limit) and client with the previous
+ * full body logging and decode of response String.
+ * <p>
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.openjdk.jmh.Main
+ * -Dexec.args="ResponseDecodingBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseDecodingBenchmark {
+
+    @Param({"100", "10000"})
+    public int testsCount;
+
+    private BlazeMeterUtils utils;
+    private BlazeMeterUtils clientUtils;
+    private BlazeMeterUtils bodyLoggingUtils;
+    private StubServer server;
+    private ByteString body;
+    private JsonDecoder<List<SingleTest>> testsDecoder;
+
+    @Setup
+    public void setUp() throws IOException {
+        utils = new BlazeMeterUtils("http://localhost", "http://localhost", new UserNotifierTest(), new LoggerTest());
+        StringBuilder builder = new StringBuilder("{\"api_version\":4,\"error\":null,\"result\":[");
+        for (int i = 0; i < testsCount; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"id\":").append(1000000 + i)
+                    .append(",\"name\":\"Test number ").append(i).append('"')
+                    .append(",\"projectId\":").append(100 + i % 10)
+                    .append(",\"created\":1500000000,\"updated\":1500000100")
+                    .append(",\"configuration\":{\"type\":\"taurus\",\"filename\":\"test").append(i).append(".yml\"")
+                    .append(",\"scriptType\":\"jmeter\",\"dedicatedIpsEnabled\":false}")
+                    .append(",\"description\":\"Line with \\\"quotes\\\" and unicode \\u00e9\"}");
+        }
+        builder.append("],\"request_id\":\"abc\",\"total\":").append(testsCount).append('}');
+        body = ByteString.encodeUtf8(builder.toString());
+        testsDecoder = JsonCodecs.listOf(reader -> SingleTest.fromJSON(utils, reader));
+
+        final String response = body.utf8();
+        server = new StubServer();
+        server.respond("/api/v4/tests", 200, response);
+        clientUtils = new BlazeMeterUtils(server.getAddress(), server.getAddress(), new UserNotifierTest(), new NullLogger());
+        bodyLoggingUtils = new BlazeMeterUtils(server.getAddress(), server.getAddress(), new UserNotifierTest(), new NullLogger()) {
+            @Override
+            protected boolean isStreamingSupported() {
+                return false;
+            }
+
+            @Override
+            protected OkHttpClient createHTTPClient() {
+                OkHttpClient.Builder builder = super.createHTTPClient().newBuilder();
+                builder.interceptors().removeIf(interceptor -> interceptor instanceof LimitedLoggingInterceptor);
+                HttpLoggingInterceptor httpLog = new HttpLoggingInterceptor(new HttpLogger(logger));
+                httpLog.setLevel(HttpLoggingInterceptor.Level.BODY);
+                return builder.addInterceptor(httpLog).build();
+            }
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public JSONObject stringDoubleParse() {
+        String response = body.utf8();
+        utils.extractErrorMessage(response);
+        return JSONObject.fromObject(response);
+    }
+
+    @Benchmark
+    public JSONObject stringSingleParse() {
+        return utils.processResponse(body.utf8());
+    }
+
+    @Benchmark
+    public JSONObject streaming() throws IOException {
+        return utils.decodeResponse(new JsonReader(new Buffer().write(body)));
+    }
+
+    @Benchmark
+    public List<SingleTest> singleTestsFromJSONObject() throws IOException {
+        List<SingleTest> tests = new ArrayList<>();
+        for (Object obj : streaming().getJSONArray("result")) {
+            tests.add(SingleTest.fromJSON(utils, (JSONObject) obj));
+        }
+        return tests;
+    }
+
+    @Benchmark
+    public List<SingleTest> singleTestsTyped() throws IOException {
+        return utils.decodeResult(new JsonReader(new Buffer().write(body)), testsDecoder);
+    }
+
+    @Benchmark
+    public JSONObject clientStreaming() throws IOException {
+        return clientUtils.execute(clientUtils.createGet(server.getAddress() + "/api/v4/tests"));
+    }
+
+    @Benchmark
+    public JSONObject clientBodyLogging() throws IOException {
+        return bodyLoggingUtils.execute(bodyLoggingUtils.createGet(server.getAddress() + "/api/v4/tests"));
+    }
+
+    /**
+     * Logger with enabled debug level, that drops messages
+     */
+    private static class NullLogger implements Logger {
+        @Override
+        public void debug(String message) {
+        }
+
+        @Override
+        public void debug(String message, Throwable throwable) {
+        }
+
+        @Override
+        public void info(String message) {
+        }
+
+        @Override
+        public void info(String message, Throwable throwable) {
+        }
+
+        @Override
+        public void warn(String message) {
+        }
+
+        @Override
+        public void warn(String message, Throwable throwable) {
+        }
+
+        @Override
+        public void error(String message) {
+        }
+
+        @Override
+        public void error(String message, Throwable throwable) {
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        org.openjdk.jmh.Main.main(new String[]{ResponseDecodingBenchmark.class.getSimpleName()});
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.api.utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local HTTP server, that is used instead of real BlazeMeter server in tests
+ */
+public class StubServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicInteger requestsCount = new AtomicInteger();
+
+    public StubServer() throws IOException {
+        this(16);
+    }
+
+    public StubServer(int threads) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Responds with the same body to every request on the path
+     */
+    public StubServer respond(String path, final int code, final String body) {
+        return handle(path, new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                send(exchange, code, body);
+            }
+        });
+    }
+
+    public StubServer handle(String path, final HttpHandler handler) {
+        server.createContext(path, new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                requestsCount.incrementAndGet();
+                try {
+                    handler.handle(exchange);
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        return this;
+    }
+
+    public static void send(HttpExchange exchange, int code, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(code, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Responds with content or with its part from 'Range: bytes=first-last' header and 206 status.
+     * Whole content is sent, if 'If-Range' header does not match etag.
+     * @return count of sent bytes
+     */
+    public static int sendRange(HttpExchange exchange, byte[] content, String etag) throws IOException {
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+        exchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+        exchange.getResponseHeaders().add("ETag", etag);
+        if (range == null || (ifRange != null && !ifRange.equals(etag))) {
+            exchange.sendResponseHeaders(200, content.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(content);
+            }
+            return content.length;
+        }
+        String[] bounds = range.substring("bytes=".length()).split("-");
+        int first = Integer.parseInt(bounds[0]);
+        int last = (bounds.length > 1) ? Math.min(Integer.parseInt(bounds[1]), content.length - 1) : content.length - 1;
+        int length = last - first + 1;
+        exchange.getResponseHeaders().add("Content-Range", "bytes " + first + "-" + last + "/" + content.length);
+        exchange.sendResponseHeaders(206, length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(content, first, length);
+        }
+        return length;
+    }
+
+    public String getAddress() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public int getRequestsCount() {
+        return requestsCount.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.api.utils;
+
+import com.blazemeter.api.http.HttpClientPool;
+import org.junit.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class VirtualThreadsTest {
+
+    @Test
+    public void testSupport() throws Exception {
+        boolean java21 = Integer.parseInt(System.getProperty("java.specification.version").replace("1.", "")) >= 21;
+        assertEquals(java21, VirtualThreads.isSupported());
+        if (java21) {
+            assertNotNull(VirtualThreads.newVirtualThreadPerTaskExecutor());
+        } else {
+            assertNull(VirtualThreads.newVirtualThreadPerTaskExecutor());
+        }
+    }
+
+    @Test
+    public void testThreadPerTaskExecutor() throws Exception {
+        System.clearProperty(VirtualThreads.VIRTUAL_THREADS);
+        assertFalse(VirtualThreads.isEnabled());
+
+        ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("test-");
+        try {
+            String name = executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return Thread.currentThread().getName();
+                }
+            }).get();
+            assertEquals("test-1", name);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testVirtualPool() throws Exception {
+        HttpClientPool pool = new HttpClientPool.Builder().virtualThreads(true).build();
+        try {
+            assertEquals(VirtualThreads.isSupported(), pool.isVirtualThreads());
+        } finally {
+            pool.shutdown();
+        }
+
+        pool = new HttpClientPool.Builder().virtualThreads(false).build();
+        try {
+            assertFalse(pool.isVirtualThreads());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
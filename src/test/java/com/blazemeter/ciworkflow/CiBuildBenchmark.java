@@ -0,0 +1,173 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.ciworkflow;
+
+import com.blazemeter.api.http.HttpClientPool;
+import com.blazemeter.api.logging.Logger;
+import com.blazemeter.api.logging.UserNotifier;
+import com.blazemeter.api.utils.BlazeMeterUtils;
+import com.blazemeter.api.utils.StubServer;
+import com.blazemeter.api.utils.VirtualThreads;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs many concurrent CiBuild executions against local stub server
+ * and prints wall time and peak threads count for platform and virtual threads.
+ * <p>
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.blazemeter.ciworkflow.CiBuildBenchmark
+ * -Dbzm.benchmark.builds=5000 -Dbzm.checkTimeout=1000
+ * <p>
+ * Virtual threads mode runs only on Java 21+.
+ */
+public class CiBuildBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int builds = Integer.getInteger("bzm.benchmark.builds", 2000);
+        if (System.getProperty("bzm.checkTimeout") == null) {
+            System.setProperty("bzm.checkTimeout", "1000");
+        }
+
+        try (StubServer server = createServer()) {
+            run(server, builds, false);
+            if (VirtualThreads.isSupported()) {
+                run(server, builds, true);
+            } else {
+                System.out.println("Virtual threads are not supported by " + System.getProperty("java.version"));
+            }
+        }
+    }
+
+    private static void run(StubServer server, int builds, boolean virtual) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        HttpClientPool pool = new HttpClientPool.Builder()
+                .virtualThreads(virtual)
+                .maxRequests(1024)
+                .maxRequestsPerHost(1024)
+                .maxIdleConnections(256)
+                .executorThreads(64)
+                .build();
+        ExecutorService executor = virtual ? VirtualThreads.newVirtualThreadPerTaskExecutor() : Executors.newCachedThreadPool();
+
+        long start = System.currentTimeMillis();
+        List<Future<BuildResult>> results = new ArrayList<>();
+        for (int i = 0; i < builds; i++) {
+            BlazeMeterUtils utils = new BlazeMeterUtils("key", "secret", server.getAddress(), server.getAddress(), NOTIFIER, LOGGER, pool);
+            CiPostProcess postProcess = new CiPostProcess(false, false, "", "", null, utils);
+            results.add(new CiBuild(utils, "1", "", "", postProcess).executeAsync(executor));
+        }
+
+        Map<BuildResult, Integer> stats = new EnumMap<>(BuildResult.class);
+        for (Future<BuildResult> result : results) {
+            BuildResult buildResult = result.get();
+            Integer count = stats.get(buildResult);
+            stats.put(buildResult, count == null ? 1 : count + 1);
+        }
+        long time = System.currentTimeMillis() - start;
+
+        System.out.println(String.format("%s threads: builds=%d, time=%d ms, peak threads=%d, results=%s",
+                virtual ? "Virtual" : "Platform", builds, time, threads.getPeakThreadCount(), stats));
+        executor.shutdown();
+        pool.shutdown();
+    }
+
+    private static StubServer createServer() throws IOException {
+        StubServer server = new StubServer(64);
+        server.handle("/api/v4/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                String path = exchange.getRequestURI().getPath();
+                String result;
+                if (path.equals("/api/v4/tests/1")) {
+                    result = "{\"id\":\"1\",\"name\":\"benchmark\",\"configuration\":{\"type\":\"http\"}}";
+                } else if (path.equals("/api/v4/tests/1/start")) {
+                    result = "{\"id\":\"10\",\"name\":\"master\"}";
+                } else if (path.endsWith("/public-token")) {
+                    result = "{\"publicToken\":\"token\"}";
+                } else if (path.endsWith("/status")) {
+                    result = "{\"progress\":140}";
+                } else if (path.endsWith("/ci-status")) {
+                    result = "{\"errors\":[],\"failures\":[]}";
+                } else if (path.endsWith("/reports/main/summary")) {
+                    result = "{\"summary\":[]}";
+                } else {
+                    result = "{\"hasData\":true}";
+                }
+                StubServer.send(exchange, 200, "{\"error\":null,\"result\":" + result + "}");
+            }
+        });
+        return server;
+    }
+
+    private static final UserNotifier NOTIFIER = new UserNotifier() {
+        @Override
+        public void notifyInfo(String info) {
+        }
+
+        @Override
+        public void notifyWarning(String warn) {
+        }
+
+        @Override
+        public void notifyError(String error) {
+        }
+    };
+
+    private static final Logger LOGGER = new Logger() {
+        @Override
+        public void debug(String message) {
+        }
+
+        @Override
+        public void debug(String message, Throwable throwable) {
+        }
+
+        @Override
+        public void info(String message) {
+        }
+
+        @Override
+        public void info(String message, Throwable throwable) {
+        }
+
+        @Override
+        public void warn(String message) {
+        }
+
+        @Override
+        public void warn(String message, Throwable throwable) {
+        }
+
+        @Override
+        public void error(String message) {
+        }
+
+        @Override
+        public void error(String message, Throwable throwable) {
+        }
+    };
+}
@@ -21,17 +21,29 @@ import com.blazemeter.api.explorer.test.*;
 import com.blazemeter.api.logging.LoggerTest;
 import com.blazemeter.api.logging.UserNotifierTest;
 import com.blazemeter.api.utils.BlazeMeterUtilsEmul;
+import com.blazemeter.api.utils.BlazeMeterUtils;
 import com.blazemeter.api.utils.BlazeMeterUtilsSlowEmul;
+import com.blazemeter.api.utils.StubServer;
 import net.sf.json.JSONObject;
+import org.apache.commons.io.IOUtils;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import static com.blazemeter.api.utils.BlazeMeterUtilsEmul.BZM_ADDRESS;
 import static com.blazemeter.api.utils.BlazeMeterUtilsEmul.BZM_DATA_ADDRESS;
@@ -48,6 +60,10 @@ public class CiBuildTest {
     public void tearDown() throws Exception {
         System.setProperty("bzm.checkTimeout", "10000");
         System.setProperty("bzm.minute", "60000");
+        System.clearProperty("bzm.adaptivePolling");
+        System.clearProperty("bzm.poll.minInterval");
+        System.clearProperty("bzm.poll.maxInterval");
+        System.clearProperty("bzm.validation.timeout");
     }
 
     @Test
@@ -78,6 +94,31 @@ public class CiBuildTest {
         assertEquals(363, logger.getLogs().length());
     }
 
+    @Test
+    public void testWaitForFinishAdaptive() throws Exception {
+        System.setProperty("bzm.adaptivePolling", "true");
+        System.setProperty("bzm.poll.minInterval", "10");
+        System.setProperty("bzm.poll.maxInterval", "40");
+        LoggerTest logger = new LoggerTest();
+        UserNotifierTest notifier = new UserNotifierTest();
+        BlazeMeterUtilsEmul emul = new BlazeMeterUtilsEmul(BZM_ADDRESS, BZM_DATA_ADDRESS, notifier, logger);
+        for (int progress : new int[]{70, 100, 100, 100, 140}) {
+            JSONObject result = new JSONObject();
+            result.put("progress", progress);
+            JSONObject response = new JSONObject();
+            response.put("result", result);
+            emul.addEmul(response.toString());
+        }
+
+        Master master = new Master(emul, "id", "name");
+        CiBuild ciBuild = new CiBuild(emul, "id", "", "", null);
+        long start = System.currentTimeMillis();
+        ciBuild.waitForFinish(master);
+        assertTrue(System.currentTimeMillis() - start < 1000);
+        assertEquals(5, emul.getRequests().size());
+        assertEquals("Request{method=GET, url=http://a.blazemeter.com/api/v4/masters/id/status?events=false, tag=null}", emul.getRequests().get(4));
+    }
+
     @Test
     public void testExecute() throws Exception {
         LoggerTest logger = new LoggerTest();
@@ -103,8 +144,8 @@ public class CiBuildTest {
         assertEquals("Request{method=GET, url=http://a.blazemeter.com/api/v4/masters/responseMasterId/status?events=false, tag=null}", emul.getRequests().get(i++));
         assertEquals("Request{method=GET, url=http://a.blazemeter.com/api/v4/masters/responseMasterId/ci-status, tag=null}", emul.getRequests().get(i++));
         assertEquals("Request{method=GET, url=http://a.blazemeter.com/api/v4/masters/responseMasterId, tag=null}", emul.getRequests().get(i++));
-        //assertEquals("Request{method=GET, url=http://a.blazemeter.com/api/v4/masters/responseMasterId/reports/main/summary, tag=null}", emul.getRequests().get(i));
-        assertEquals("Request{method=GET, url=http://a.blazemeter.com/api/v4/masters/responseMasterId, tag=null}", emul.getRequests().get(i));
+        // the second hasData status is taken from master snapshot
+        assertEquals("Request{method=GET, url=http://a.blazemeter.com/api/v4/masters/responseMasterId/reports/main/summary, tag=null}", emul.getRequests().get(i));
 
         String logs = logger.getLogs().toString();
         assertTrue(logs, logs.contains("Get Single Test id=testId"));
@@ -114,7 +155,7 @@ public class CiBuildTest {
         assertTrue(logs, logs.contains("Response: {\"result\":{\"progress\":70}}"));
         assertTrue(logs, logs.contains("Response: {\"result\":{\"progress\":140}}"));
 
-        assertEquals(logs.length(), 2599);
+        assertEquals(logs.length(), 2721);
     }
 
     private void setEmulator(BlazeMeterUtilsEmul emul) {
@@ -599,6 +640,281 @@ public class CiBuildTest {
         assertEquals(logs, emul.getRequests().get(5), "Request{method=GET, url=http://a.blazemeter.com/api/v4/tests/testId/validations, tag=null}");
     }
 
+    @Test
+    public void testUploadTestFilesConcurrently() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        UserNotifierTest notifier = new UserNotifierTest();
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+        final AtomicInteger uploads = new AtomicInteger();
+        List<File> files = new ArrayList<>();
+        try (StubServer server = new StubServer()) {
+            server.handle("/api/v4/tests/testId/files", exchange -> {
+                maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(50);
+                    if (uploads.incrementAndGet() == 1) {
+                        StubServer.send(exchange, 500, "{\"error\":{\"code\":500,\"message\":\"Internal error\"}}");
+                    } else {
+                        StubServer.send(exchange, 200, "{\"result\":{}}");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    active.decrementAndGet();
+                }
+            });
+            server.respond("/api/v4/tests/testId", 200, "{\"result\":{}}");
+            BlazeMeterUtils utils = new BlazeMeterUtils(server.getAddress(), server.getAddress(), notifier, logger);
+
+            for (int i = 0; i < 6; i++) {
+                File file = File.createTempFile("data" + i, ".csv");
+                files.add(file);
+            }
+            File main = File.createTempFile("test", ".yml");
+            files.add(main);
+
+            CiBuild ciBuild = new CiBuild(utils, "testId", main, files.subList(0, 6), "", "", null);
+            ciBuild.setUploadConcurrency(3);
+            assertEquals(3, ciBuild.getUploadConcurrency());
+            ciBuild.uploadTestFiles(new SingleTest(utils, "testId", "name", "taurus"), main, files.subList(0, 6));
+
+            // 7 files and 1 retry of failed upload
+            assertEquals(8, uploads.get());
+            assertTrue(String.valueOf(maxActive.get()), maxActive.get() > 1 && maxActive.get() <= 3);
+            String notifications = notifier.getLogs().toString();
+            assertTrue(notifications, notifications.contains("Uploaded 7 of 7 test files"));
+            assertTrue(logger.getLogs().toString().contains("attempt 1. Reason is: Received response with the following error: Internal error"));
+        } finally {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+
+    @Test
+    public void testBundleUpload() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        UserNotifierTest notifier = new UserNotifierTest();
+        final List<String> entries = new ArrayList<>();
+        final AtomicInteger uploads = new AtomicInteger();
+        final AtomicInteger bundleFailures = new AtomicInteger();
+        List<File> files = new ArrayList<>();
+        try (StubServer server = new StubServer()) {
+            server.handle("/api/v4/tests/testId/files", exchange -> {
+                uploads.incrementAndGet();
+                byte[] body = IOUtils.toByteArray(exchange.getRequestBody());
+                String text = new String(body, StandardCharsets.ISO_8859_1);
+                if (text.contains("filename=\"test-files.zip\"")) {
+                    if (bundleFailures.get() > 0) {
+                        bundleFailures.decrementAndGet();
+                        StubServer.send(exchange, 500, "{\"error\":{\"code\":500,\"message\":\"Internal error\"}}");
+                        return;
+                    }
+                    int start = text.indexOf("PK");
+                    try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(body, start, body.length - start))) {
+                        for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                            entries.add(entry.getName() + "=" + IOUtils.toString(zip, StandardCharsets.UTF_8));
+                        }
+                    }
+                }
+                StubServer.send(exchange, 200, "{\"result\":{}}");
+            });
+            BlazeMeterUtils utils = new BlazeMeterUtils(server.getAddress(), server.getAddress(), notifier, logger);
+
+            for (int i = 0; i < 3; i++) {
+                File file = File.createTempFile("data" + i, ".csv");
+                try (FileWriter writer = new FileWriter(file)) {
+                    writer.write("value" + i);
+                }
+                files.add(file);
+            }
+            SingleTest test = new SingleTest(utils, "testId", "name", "taurus");
+            CiBuild ciBuild = new CiBuild(utils, "testId", null, files, "", "", null);
+            ciBuild.setBundleUpload(true);
+            assertTrue(ciBuild.isBundleUpload());
+            ciBuild.updateAdditionalTestFiles(test);
+
+            assertEquals(1, uploads.get());
+            assertEquals(3, entries.size());
+            for (int i = 0; i < 3; i++) {
+                assertEquals(files.get(i).getName() + "=value" + i, entries.get(i));
+            }
+            assertTrue(notifier.getLogs().toString().contains("Upload bundle of 3 additional test files"));
+
+            // files are uploaded one by one, if bundle is not accepted
+            bundleFailures.set(1);
+            ciBuild.updateAdditionalTestFiles(test);
+            assertEquals(5, uploads.get());
+            assertTrue(notifier.getLogs().toString().contains("Failed to upload bundle of test files, files will be uploaded one by one"));
+        } finally {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+
+    @Test
+    public void testParallelStartSteps() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        UserNotifierTest notifier = new UserNotifierTest();
+        final Map<String, Long> times = new ConcurrentHashMap<>();
+        try (StubServer server = new StubServer()) {
+            server.handle("/api/v4/", exchange -> {
+                String path = exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath();
+                IOUtils.toByteArray(exchange.getRequestBody());
+                times.putIfAbsent(path, System.currentTimeMillis());
+                String result;
+                if (path.endsWith("/public-token")) {
+                    result = "{\"publicToken\":\"token\"}";
+                } else if (path.endsWith("/status")) {
+                    result = "{\"progress\":100}";
+                } else if (path.equals("GET /api/v4/sessions")) {
+                    result = "[{\"id\":\"s1\",\"name\":\"session\",\"userId\":\"u\",\"testId\":\"t\"}]";
+                } else {
+                    result = "{}";
+                }
+                StubServer.send(exchange, 200, "{\"error\":null,\"result\":" + result + "}");
+            });
+            BlazeMeterUtils utils = new BlazeMeterUtils(server.getAddress(), server.getAddress(), notifier, logger);
+            Master master = new Master(utils, "10", "master");
+            MultiTest test = new MultiTest(utils, "testId", "name", "multi");
+            CiBuild ciBuild = new CiBuild(utils, "testId", "1=2", "notes", null);
+            ciBuild.setReportName("report");
+
+            long start = System.currentTimeMillis();
+            StepRunner steps = ciBuild.runStartSteps(test, master);
+
+            assertEquals("[report name, public report, init state, properties, notes]", steps.getTimings().keySet().toString());
+            // report name, public token and notes do not wait for INIT state
+            long status = times.get("GET /api/v4/masters/10/status");
+            assertTrue(times.toString(), status - start >= 1000);
+            assertTrue(times.toString(), times.get("PATCH /api/v4/masters/10") < status);
+            assertTrue(times.toString(), times.get("POST /api/v4/masters/10/public-token") < status);
+            // properties are posted only after INIT state is skipped
+            assertTrue(times.toString(), times.get("GET /api/v4/sessions") >= status);
+            assertTrue(times.containsKey("POST /api/v4/sessions/s1/properties"));
+            assertEquals("http://127.0.0.1:" + server.getAddress().split(":")[2] + "/app/?public-token=token#/masters/10/summary", ciBuild.getPublicReport());
+            assertTrue(logger.getLogs().toString().contains("Step 'init state' took "));
+        }
+    }
+
+    @Test
+    public void testParallelStartStepsInterrupt() throws Exception {
+        System.setProperty("bzm.parallelStartSteps", "true");
+        LoggerTest logger = new LoggerTest();
+        UserNotifierTest notifier = new UserNotifierTest();
+        try (StubServer server = new StubServer()) {
+            server.handle("/api/v4/", exchange -> {
+                IOUtils.toByteArray(exchange.getRequestBody());
+                String result = exchange.getRequestURI().getPath().endsWith("/terminate") ? "[]" :
+                        "{\"id\":\"10\",\"name\":\"master\",\"publicToken\":\"token\",\"progress\":10}";
+                StubServer.send(exchange, 200, "{\"error\":null,\"result\":" + result + "}");
+            });
+            BlazeMeterUtils utils = new BlazeMeterUtils(server.getAddress(), server.getAddress(), notifier, logger);
+            final CiBuild ciBuild = new CiBuild(utils, "testId", "", "", null);
+            final SingleTest test = new SingleTest(utils, "testId", "name", "http");
+            final Thread current = Thread.currentThread();
+            new Thread(() -> {
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                current.interrupt();
+            }).start();
+            try {
+                ciBuild.startTest(test);
+                fail("Build must be interrupted while it waits for INIT state");
+            } catch (InterruptedException ex) {
+                assertEquals("Interrupt master", ex.getMessage());
+            } finally {
+                Thread.interrupted();
+            }
+            assertTrue(notifier.getLogs().toString().contains("Build has been interrupted"));
+            assertTrue(logger.getLogs().toString().contains("Terminate master id=10"));
+        } finally {
+            System.clearProperty("bzm.parallelStartSteps");
+        }
+    }
+
+    @Test
+    public void testUploadChangedTestFiles() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        UserNotifierTest notifier = new UserNotifierTest();
+        final BlazeMeterUtilsEmul emul = new BlazeMeterUtilsEmul(BZM_ADDRESS, BZM_DATA_ADDRESS, notifier, logger);
+        File main = File.createTempFile("test", ".yml");
+        File data = File.createTempFile("data", ".csv");
+        File manifestFile = File.createTempFile("manifest", ".properties");
+        manifestFile.delete();
+        try {
+            List<File> files = new ArrayList<>();
+            files.add(data);
+            SingleTest test = new SingleTest(emul, "testId", "name", "jmeter");
+            String[] names = {main.getName(), data.getName()};
+
+            // the first build uploads all files
+            emul.addEmul(SingleTestTest.generateResponseValidations(new String[0], new int[0], new String[0]));
+            emul.addEmul(SingleTestTest.generateResponseGetSingleTest("jmeter")); // upload main file
+            emul.addEmul(SingleTestTest.generateResponseGetSingleTest("jmeter")); // update main filename
+            emul.addEmul(SingleTestTest.generateResponseGetSingleTest("jmeter")); // upload additional file
+            emul.addEmul(SingleTestTest.generateResponseGetSingleTest("jmeter")); // validate POST
+            emul.addEmul(SingleTestTest.generateResponseValidations(names, new int[]{100, 100}, new String[]{"", ""}));
+            CiBuild ciBuild = new CiBuild(emul, "testId", main, files, "", "", null);
+            ciBuild.setUploadManifest(new UploadManifest(manifestFile));
+            ciBuild.uploadChangedTestFiles(test);
+            assertEquals(6, emul.getRequests().size());
+            assertEquals(2, new UploadManifest(manifestFile).size());
+
+            // nothing changed
+            emul.clean();
+            emul.addEmul(SingleTestTest.generateResponseValidations(names, new int[]{100, 100}, new String[]{"", ""}));
+            emul.addEmul(SingleTestTest.generateResponseGetSingleTest("jmeter")); // update main filename
+            ciBuild = new CiBuild(emul, "testId", main, files, "", "", null);
+            ciBuild.setUploadManifest(new UploadManifest(manifestFile));
+            ciBuild.uploadChangedTestFiles(test);
+            assertEquals(2, emul.getRequests().size());
+            assertTrue(notifier.getLogs().toString().contains("Upload 0 of 2 test files, other files are not changed"));
+
+            // additional file changed
+            try (FileWriter writer = new FileWriter(data)) {
+                writer.write("1,2,3");
+            }
+            emul.clean();
+            emul.addEmul(SingleTestTest.generateResponseValidations(names, new int[]{100, 100}, new String[]{"", ""}));
+            emul.addEmul(SingleTestTest.generateResponseGetSingleTest("jmeter")); // update main filename
+            emul.addEmul(SingleTestTest.generateResponseGetSingleTest("jmeter")); // upload additional file
+            emul.addEmul(SingleTestTest.generateResponseGetSingleTest("jmeter")); // validate POST
+            emul.addEmul(SingleTestTest.generateResponseValidations(names, new int[]{100, 100}, new String[]{"", ""}));
+            ciBuild = new CiBuild(emul, "testId", main, files, "", "", null);
+            ciBuild.setUploadManifest(new UploadManifest(manifestFile));
+            ciBuild.uploadChangedTestFiles(test);
+            assertEquals(5, emul.getRequests().size());
+            assertEquals("Request{method=POST, url=http://a.blazemeter.com/api/v4/tests/testId/files, tag=null}", emul.getRequests().get(2));
+            String logs = logger.getLogs().toString();
+            assertTrue(logs, logs.contains("Skip upload of unchanged test file: " + main.getAbsolutePath()));
+            assertTrue(logs, logs.contains("Upload additional test file: " + data.getAbsolutePath()));
+            assertEquals(UploadManifest.sha256(data), new UploadManifest(manifestFile).get(BZM_ADDRESS, "testId", data.getName()));
+
+            // main file is switched to the uploaded additional file, nothing changed
+            emul.clean();
+            emul.addEmul(SingleTestTest.generateResponseValidations(names, new int[]{100, 100}, new String[]{"", ""}));
+            emul.addEmul(SingleTestTest.generateResponseGetSingleTest("jmeter")); // update main filename
+            ciBuild = new CiBuild(emul, "testId", data, Collections.singletonList(main), "", "", null);
+            ciBuild.setUploadManifest(new UploadManifest(manifestFile));
+            ciBuild.uploadChangedTestFiles(test);
+            assertEquals(2, emul.getRequests().size());
+            assertTrue(emul.getRequests().get(1).startsWith("Request{method=PATCH, url=http://a.blazemeter.com/api/v4/tests/testId"));
+            logs = logger.getLogs().toString();
+            assertTrue(logs, logs.contains("Update single test id=testId filename=" + data.getName()));
+            assertTrue(notifier.getLogs().toString().contains("Upload 0 of 2 test files, other files are not changed"));
+        } finally {
+            main.delete();
+            data.delete();
+            manifestFile.delete();
+        }
+    }
+
     @Test
     public void testUploadFiles2() throws Exception {
         LoggerTest logger = new LoggerTest();
@@ -673,6 +989,34 @@ public class CiBuildTest {
         assertTrue(notifications, notifications.contains("Validation for files [test.yaml] finished successfully"));
     }
 
+    @Test
+    public void testValidationTimeout() throws IOException, InterruptedException {
+        System.setProperty("bzm.adaptivePolling", "true");
+        System.setProperty("bzm.poll.minInterval", "10");
+        System.setProperty("bzm.poll.maxInterval", "10");
+        System.setProperty("bzm.validation.timeout", "50");
+        LoggerTest logger = new LoggerTest();
+        UserNotifierTest notifier = new UserNotifierTest();
+        final BlazeMeterUtilsEmul emul = new BlazeMeterUtilsEmul(BZM_ADDRESS, BZM_DATA_ADDRESS, notifier, logger);
+        for (int i = 0; i < 100; i++) {
+            emul.addEmul(SingleTestTest.generateResponseValidations("test.yaml", 5, ""));
+        }
+
+        CiBuild ciBuild = new CiBuild(emul, "id", null, null, "", "", null);
+        SingleTest test = new SingleTest(emul, "testId", "label", "taurus");
+        List<String> files = new ArrayList<>();
+        files.add("test.yaml");
+
+        try {
+            ciBuild.waitForValidations(test, files);
+            fail("Validation must be timed out");
+        } catch (IOException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().startsWith("Validation for files [test.yaml] is not finished in"));
+        }
+        assertTrue(emul.getRequests().size() > 1);
+        assertTrue(emul.getRequests().size() < 100);
+    }
+
     @Test
     public void testValidationWithSkip() throws IOException, InterruptedException {
         LoggerTest logger = new LoggerTest();
@@ -20,8 +20,11 @@ import com.blazemeter.api.explorer.SessionTest;
 import com.blazemeter.api.logging.LoggerTest;
 import com.blazemeter.api.logging.UserNotifierTest;
 import com.blazemeter.api.utils.BlazeMeterUtilsEmul;
+import com.blazemeter.api.utils.StubServer;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONObject;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 
 import java.io.*;
@@ -231,6 +234,31 @@ public class CiPostProcessTest {
     }
 
 
+    @Test
+    public void testFunctionalFlowWaitsForResult() {
+        LoggerTest logger = new LoggerTest();
+        UserNotifierTest notifier = new UserNotifierTest();
+        BlazeMeterUtilsEmul emul = new BlazeMeterUtilsEmul(BZM_ADDRESS, BZM_DATA_ADDRESS, notifier, logger);
+
+        emul.addEmul("{\"result\":{\"gridSummary\":null}}");
+        emul.addEmul("{\"result\":{\"gridSummary\":null}}");
+        emul.addEmul("{\"result\":{\"gridSummary\":{\"definedStatus\":\"passed\"},\"hasData\":false}}");
+
+        CiPostProcess ciPostProcess = new CiPostProcess(false, false, "", "", "", notifier, logger);
+        ciPostProcess.setTest("testId", "functionalGui");
+        long start = System.currentTimeMillis();
+        BuildResult result = ciPostProcess.execute(new Master(emul, "id", "name"));
+        assertEquals(BuildResult.FAILED, result);
+        assertEquals(3, ciPostProcess.getResultPolls());
+        // hasData status is taken from the last polled master
+        assertEquals(3, emul.getRequests().size());
+        // two delays: 0.4-0.5 sec and 0.8-1 sec
+        long elapsed = System.currentTimeMillis() - start;
+        assertTrue(String.valueOf(elapsed), elapsed >= 1200 && elapsed < 5000);
+        String logs = logger.getLogs().toString();
+        assertTrue(logs, logs.contains("Functional test result is received after 3 polls in "));
+    }
+
     @Test
     public void testValidateFunctionalCIStatusFailure() {
         LoggerTest logger = new LoggerTest();
@@ -713,6 +741,30 @@ public class CiPostProcessTest {
                 "hahaha111.url"));
     }
 
+    @Test
+    public void testDownloadByRangesAndUnzipJTL() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        UserNotifierTest notifier = new UserNotifierTest();
+        final byte[] content = IOUtils.toByteArray(CiPostProcessTest.class.getClassLoader().getResourceAsStream("report.zip"));
+        File tmpDir = CiPostProcess.createTmpDir();
+        System.setProperty("bzm.jtl.chunkSize", "256");
+        try (StubServer server = new StubServer()) {
+            server.handle("/report.zip", exchange -> StubServer.sendRange(exchange, content, "\"v1\""));
+            CiPostProcess postProcess = new CiPostProcess(true, true, "", "", "", notifier, logger);
+            postProcess.setRangedDownload(true);
+            assertTrue(postProcess.isRangedDownload());
+
+            assertTrue(postProcess.downloadAndUnzipJTL(new URL(server.getAddress() + "/report.zip"), tmpDir));
+            assertEquals(259, new File(tmpDir, "report/nested/kpi.jtl").length());
+            assertEquals(533, new File(tmpDir, "report/error.jtl").length());
+            assertFalse(new File(tmpDir, CiPostProcess.JTL_ARCHIVE).exists());
+            assertTrue(server.getRequestsCount() > 2);
+        } finally {
+            System.clearProperty("bzm.jtl.chunkSize");
+            FileUtils.deleteDirectory(tmpDir);
+        }
+    }
+
     @Test
     public void testUnzipJTLWithNestedFoldersAndFiles() throws Exception {
         LoggerTest logger = new LoggerTest();
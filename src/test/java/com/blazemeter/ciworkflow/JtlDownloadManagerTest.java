@@ -0,0 +1,173 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazemeter.ciworkflow;
+
+import com.blazemeter.api.explorer.Session;
+import com.blazemeter.api.logging.LoggerTest;
+import com.blazemeter.api.logging.UserNotifierTest;
+import com.blazemeter.api.utils.BlazeMeterUtils;
+import com.blazemeter.api.utils.StubServer;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JtlDownloadManagerTest {
+
+    @Before
+    public void setUp() throws Exception {
+        System.setProperty("bzm.checkTimeout", "20");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        System.setProperty("bzm.checkTimeout", "10000");
+    }
+
+    private static final String ZIP_RESPONSE = "{\"error\":null,\"result\":{\"data\":[{\"filename\":\"artifacts.zip\",\"dataUrl\":\"/files/%s.zip\"}]}}";
+    private static final String NOT_READY_RESPONSE = "{\"error\":null,\"result\":{\"data\":[]}}";
+
+    private StubServer createServer(final Map<String, AtomicInteger> polls) throws Exception {
+        StubServer server = new StubServer();
+        server.handle("/api/v4/sessions/", exchange -> {
+            String sessionId = exchange.getRequestURI().getPath().split("/")[4];
+            polls.putIfAbsent(sessionId, new AtomicInteger());
+            // report of s1 is not ready on the first poll
+            if (sessionId.equals("s1") && polls.get(sessionId).incrementAndGet() == 1) {
+                StubServer.send(exchange, 200, NOT_READY_RESPONSE);
+            } else {
+                StubServer.send(exchange, 200, String.format(ZIP_RESPONSE, sessionId));
+            }
+        });
+        return server;
+    }
+
+    @Test
+    public void testConcurrentDownloads() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        UserNotifierTest notifier = new UserNotifierTest();
+        final Map<String, AtomicInteger> polls = new ConcurrentHashMap<>();
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+        final AtomicInteger failures = new AtomicInteger();
+        File dir = CiPostProcess.createTmpDir();
+        try (StubServer server = createServer(polls)) {
+            BlazeMeterUtils utils = new BlazeMeterUtils(server.getAddress(), server.getAddress(), notifier, logger);
+            List<Session> sessions = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                sessions.add(new Session(utils, "s" + i, "session", "user", "test", Session.UNDEFINED));
+            }
+            JtlDownloadManager manager = new JtlDownloadManager(notifier, logger, (url, reportDir) -> {
+                maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    return false;
+                } finally {
+                    active.decrementAndGet();
+                }
+                assertEquals(server.getAddress() + "/files/" + reportDir.getName() + ".zip", url.toString());
+                // download of s4 fails once
+                return !reportDir.getName().equals("s4") || failures.incrementAndGet() > 1;
+            }, 2, 0);
+
+            assertEquals(6, manager.download(sessions, dir));
+            assertEquals("[s0=SAVED, s1=SAVED, s2=SAVED, s3=SAVED, s4=SAVED, s5=SAVED]", manager.getStates().toString());
+            assertEquals(2, maxActive.get());
+            assertEquals(2, polls.get("s1").get());
+            // url of s4 is requested again after failed download
+            assertEquals(8, server.getRequestsCount());
+            assertTrue(new File(dir, "s0").isDirectory());
+            assertTrue(notifier.getLogs().toString(), notifier.getLogs().toString().contains("Saved JTL reports of 6 from 6 sessions"));
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void testDeadline() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        UserNotifierTest notifier = new UserNotifierTest();
+        File dir = CiPostProcess.createTmpDir();
+        try (StubServer server = createServer(new ConcurrentHashMap<>())) {
+            BlazeMeterUtils utils = new BlazeMeterUtils(server.getAddress(), server.getAddress(), notifier, logger);
+            List<Session> sessions = new ArrayList<>();
+            sessions.add(new Session(utils, "s0", "session", "user", "test", Session.UNDEFINED));
+            sessions.add(new Session(utils, "s2", "session", "user", "test", Session.UNDEFINED));
+            JtlDownloadManager manager = new JtlDownloadManager(notifier, logger, (url, reportDir) -> {
+                if (reportDir.getName().equals("s0")) {
+                    try {
+                        Thread.sleep(10000);
+                    } catch (InterruptedException e) {
+                        return false;
+                    }
+                }
+                return true;
+            }, 2, 500);
+
+            long start = System.currentTimeMillis();
+            assertEquals(1, manager.download(sessions, dir));
+            assertTrue(System.currentTimeMillis() - start < 5000);
+            assertEquals("[s0=CANCELLED, s2=SAVED]", manager.getStates().toString());
+            assertTrue(notifier.getLogs().toString(), notifier.getLogs().toString().contains("JTL reports were not saved in 500 ms, saved 1 from 2 sessions"));
+
+            // states of previous download are discarded
+            assertEquals(1, manager.download(sessions.subList(1, 2), dir));
+            assertEquals("[s2=SAVED]", manager.getStates().toString());
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    @Test
+    public void testDeadlineWaitsForStop() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        UserNotifierTest notifier = new UserNotifierTest();
+        final AtomicBoolean stopped = new AtomicBoolean();
+        File dir = CiPostProcess.createTmpDir();
+        try (StubServer server = createServer(new ConcurrentHashMap<>())) {
+            BlazeMeterUtils utils = new BlazeMeterUtils(server.getAddress(), server.getAddress(), notifier, logger);
+            List<Session> sessions = new ArrayList<>();
+            sessions.add(new Session(utils, "s0", "session", "user", "test", Session.UNDEFINED));
+            JtlDownloadManager manager = new JtlDownloadManager(notifier, logger, (url, reportDir) -> {
+                // e.g. blocked socket read, that does not respond to interrupt
+                long end = System.currentTimeMillis() + 1000;
+                while (System.currentTimeMillis() < end) {
+                    Thread.yield();
+                }
+                stopped.set(true);
+                return true;
+            }, 1, 200);
+
+            assertEquals(0, manager.download(sessions, dir));
+            assertTrue(stopped.get());
+            assertEquals("[s0=CANCELLED]", manager.getStates().toString());
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.ciworkflow;
+
+import com.blazemeter.api.explorer.Master;
+import com.blazemeter.api.logging.LoggerTest;
+import com.blazemeter.api.logging.UserNotifierTest;
+import com.blazemeter.api.utils.BlazeMeterUtilsEmul;
+import net.sf.json.JSONObject;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.blazemeter.api.utils.BlazeMeterUtilsEmul.BZM_ADDRESS;
+import static com.blazemeter.api.utils.BlazeMeterUtilsEmul.BZM_DATA_ADDRESS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MasterStatusPollerTest {
+
+    @Test
+    public void testAwaitStatus() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        UserNotifierTest notifier = new UserNotifierTest();
+        BlazeMeterUtilsEmul emul = new BlazeMeterUtilsEmul(BZM_ADDRESS, BZM_DATA_ADDRESS, notifier, logger);
+        emul.addEmul(generateResponseGetStatus(70));
+        emul.addEmul(generateResponseGetStatus(140));
+
+        MasterStatusPoller poller = new MasterStatusPoller(100);
+        try {
+            Master master = new Master(emul, "id", "name");
+            final List<Integer> statuses = Collections.synchronizedList(new ArrayList<>());
+            MasterStatusPoller.StatusListener listener = (m, status) -> statuses.add(status);
+            poller.addListener(master, listener);
+            CompletableFuture<Integer> first = poller.awaitStatus(master, 140);
+            CompletableFuture<Integer> second = poller.awaitStatus(new Master(emul, "id", "name"), 100);
+            assertEquals(1, poller.getActiveCount());
+
+            assertEquals(140, (int) first.get(5, TimeUnit.SECONDS));
+            assertEquals(140, (int) second.get(5, TimeUnit.SECONDS));
+            poller.removeListener(master, listener);
+
+            assertEquals(0, poller.getActiveCount());
+            assertEquals(2, emul.getRequests().size());
+            assertEquals("Request{method=GET, url=http://a.blazemeter.com/api/v4/masters/id/status?events=false, tag=null}", emul.getRequests().get(0));
+            assertEquals("[70, 140]", statuses.toString());
+        } finally {
+            poller.shutdown();
+        }
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        UserNotifierTest notifier = new UserNotifierTest();
+        BlazeMeterUtilsEmul emul = new BlazeMeterUtilsEmul(BZM_ADDRESS, BZM_DATA_ADDRESS, notifier, logger);
+
+        MasterStatusPoller poller = new MasterStatusPoller(10000);
+        try {
+            CompletableFuture<Integer> future = poller.awaitStatus(new Master(emul, "id", "name"), 140);
+            assertEquals(1, poller.getActiveCount());
+            future.cancel(false);
+            assertEquals(0, poller.getActiveCount());
+            assertEquals(0, emul.getRequests().size());
+        } finally {
+            poller.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailedRequest() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        UserNotifierTest notifier = new UserNotifierTest();
+        BlazeMeterUtilsEmul emul = new BlazeMeterUtilsEmul(BZM_ADDRESS, BZM_DATA_ADDRESS, notifier, logger);
+
+        MasterStatusPoller poller = new MasterStatusPoller(50);
+        try {
+            CompletableFuture<Integer> future = poller.awaitStatus(new Master(emul, "id", "name"), 140);
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail("Cannot get status without response");
+            } catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof IOException);
+                assertEquals("No responses to emulate", ex.getCause().getMessage());
+            }
+            assertEquals(0, poller.getActiveCount());
+        } finally {
+            poller.shutdown();
+        }
+    }
+
+    @Test
+    public void testFailedListener() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        UserNotifierTest notifier = new UserNotifierTest();
+        BlazeMeterUtilsEmul emul = new BlazeMeterUtilsEmul(BZM_ADDRESS, BZM_DATA_ADDRESS, notifier, logger);
+        emul.addEmul(generateResponseGetStatus(140));
+
+        MasterStatusPoller poller = new MasterStatusPoller(50);
+        try {
+            Master master = new Master(emul, "id", "name");
+            final List<Integer> statuses = Collections.synchronizedList(new ArrayList<>());
+            poller.addListener(master, (m, status) -> {
+                throw new IllegalStateException("Failed listener");
+            });
+            poller.addListener(master, (m, status) -> statuses.add(status));
+            CompletableFuture<Integer> future = poller.awaitStatus(master, 140);
+
+            assertEquals(140, (int) future.get(5, TimeUnit.SECONDS));
+            assertEquals("[140]", statuses.toString());
+            assertTrue(logger.getLogs().toString().contains("Failed to notify listener of status of master id=id"));
+        } finally {
+            poller.shutdown();
+        }
+    }
+
+    @Test
+    public void testWaitForFinish() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        UserNotifierTest notifier = new UserNotifierTest();
+        BlazeMeterUtilsEmul emul = new BlazeMeterUtilsEmul(BZM_ADDRESS, BZM_DATA_ADDRESS, notifier, logger);
+        emul.addEmul(generateResponseGetStatus(70));
+        emul.addEmul(generateResponseGetStatus(140));
+
+        MasterStatusPoller poller = new MasterStatusPoller(50);
+        try {
+            CiPostProcess postProcess = new CiPostProcess(false, false, "", "", "", notifier, logger);
+            CiBuild ciBuild = new CiBuild(emul, "id", "", "", postProcess);
+            ciBuild.setStatusPoller(poller);
+            assertEquals(poller, ciBuild.getStatusPoller());
+            ciBuild.waitForFinish(new Master(emul, "id", "name"));
+            assertEquals(2, emul.getRequests().size());
+            assertEquals(0, poller.getActiveCount());
+        } finally {
+            poller.shutdown();
+        }
+    }
+
+    private static String generateResponseGetStatus(int progress) {
+        JSONObject result = new JSONObject();
+        result.put("progress", progress);
+
+        JSONObject response = new JSONObject();
+        response.put("result", result);
+        return response.toString();
+    }
+}
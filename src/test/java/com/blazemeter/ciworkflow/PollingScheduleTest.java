@@ -0,0 +1,88 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.ciworkflow;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PollingScheduleTest {
+
+    @Test
+    public void testBackoff() {
+        final AtomicLong clock = new AtomicLong(1000);
+        PollingSchedule schedule = new PollingSchedule(100, 1000, 0) {
+            @Override
+            protected long currentTimeMillis() {
+                return clock.get();
+            }
+        };
+        assertEquals(100, schedule.nextDelay(true));
+        assertEquals(100, schedule.nextDelay(false));
+        assertEquals(200, schedule.nextDelay(false));
+        assertEquals(400, schedule.nextDelay(false));
+        assertEquals(800, schedule.nextDelay(false));
+        assertEquals(1000, schedule.nextDelay(false));
+        assertEquals(1000, schedule.nextDelay(false));
+        assertEquals(100, schedule.nextDelay(true));
+        assertEquals(100, schedule.nextDelay(false));
+        assertFalse(schedule.isExpired());
+    }
+
+    @Test
+    public void testExpectedEnd() {
+        final AtomicLong clock = new AtomicLong(1000);
+        PollingSchedule schedule = new PollingSchedule(100, 1000, 0) {
+            @Override
+            protected long currentTimeMillis() {
+                return clock.get();
+            }
+        };
+        schedule.setExpectedDuration(5000, 500);
+        clock.set(4000);
+        assertEquals(100, schedule.nextDelay(false));
+        assertEquals(200, schedule.nextDelay(false));
+        // wake up at the start of end window
+        clock.set(5200);
+        assertEquals(300, schedule.nextDelay(false));
+        clock.set(5700);
+        assertEquals(100, schedule.nextDelay(false));
+        clock.set(6600);
+        assertEquals(100, schedule.nextDelay(false));
+        assertEquals(200, schedule.nextDelay(false));
+    }
+
+    @Test
+    public void testDeadline() {
+        final AtomicLong clock = new AtomicLong(1000);
+        PollingSchedule schedule = new PollingSchedule(100, 1000, 1500) {
+            @Override
+            protected long currentTimeMillis() {
+                return clock.get();
+            }
+        };
+        clock.set(2450);
+        assertEquals(50, schedule.nextDelay(true));
+        assertFalse(schedule.isExpired());
+        clock.set(2500);
+        assertEquals(0, schedule.nextDelay(false));
+        assertTrue(schedule.isExpired());
+        assertEquals(1500, schedule.getElapsed());
+    }
+}
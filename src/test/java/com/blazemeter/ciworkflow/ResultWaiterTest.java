@@ -0,0 +1,46 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.blazemeter.ciworkflow;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ResultWaiterTest {
+
+    @Test
+    public void testAwait() throws Exception {
+        final AtomicInteger counter = new AtomicInteger();
+        ResultWaiter<Integer> waiter = new ResultWaiter<>(new PollingSchedule(1, 4, 0));
+        assertEquals(5, (int) waiter.await(counter::incrementAndGet, value -> value >= 5));
+        assertEquals(5, waiter.getPolls());
+        assertFalse(waiter.isTimedOut());
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        final AtomicInteger counter = new AtomicInteger();
+        ResultWaiter<Integer> waiter = new ResultWaiter<>(new PollingSchedule(10, 10, 50));
+        int result = waiter.await(counter::incrementAndGet, value -> false);
+        assertTrue(waiter.isTimedOut());
+        assertEquals(result, waiter.getPolls());
+        assertTrue(String.valueOf(result), result > 1 && result < 10);
+        assertTrue(waiter.getElapsed() >= 50);
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazemeter.ciworkflow;
+
+import com.blazemeter.api.logging.LoggerTest;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class StepRunnerTest {
+
+    @Test
+    public void testDependencies() throws Exception {
+        final List<String> order = new CopyOnWriteArrayList<>();
+        final CountDownLatch independent = new CountDownLatch(1);
+        StepRunner runner = new StepRunner(new LoggerTest());
+        runner.add("slow", () -> {
+            // independent step runs while this step is running
+            assertTrue(independent.await(5, TimeUnit.SECONDS));
+            Thread.sleep(50);
+            order.add("slow");
+        });
+        runner.add("dependent", () -> order.add("dependent"), "slow");
+        runner.add("independent", () -> {
+            order.add("independent");
+            independent.countDown();
+        });
+        runner.run();
+
+        assertEquals("[independent, slow, dependent]", order.toString());
+        assertEquals("[slow, dependent, independent]", runner.getTimings().keySet().toString());
+        assertTrue(runner.getTimings().get("slow") >= 50);
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        StepRunner runner = new StepRunner(new LoggerTest());
+        runner.add("long", () -> {
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException ex) {
+                interrupted.countDown();
+                throw ex;
+            }
+        });
+        runner.add("failed", () -> {
+            throw new IOException("Failed step");
+        });
+        runner.add("dependent", () -> fail("Step must not run after failed dependency"), "failed");
+        long start = System.currentTimeMillis();
+        try {
+            runner.run();
+            fail("Failure of step must be thrown");
+        } catch (IOException ex) {
+            assertEquals("Failed step", ex.getMessage());
+        }
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+
+        try {
+            runner.add("unknown", () -> {
+            }, "absent");
+            fail("Dependency must be added before step");
+        } catch (IllegalArgumentException ex) {
+            assertEquals("Step 'unknown' depends on unknown step 'absent'", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void testFailureWaitsForStop() throws Exception {
+        final AtomicBoolean stopped = new AtomicBoolean();
+        StepRunner runner = new StepRunner(new LoggerTest());
+        runner.add("ignores interrupt", () -> {
+            long end = System.currentTimeMillis() + 500;
+            while (System.currentTimeMillis() < end) {
+                Thread.yield();
+            }
+            stopped.set(true);
+        });
+        runner.add("failed", () -> {
+            throw new IOException("Failed step");
+        });
+        try {
+            runner.run();
+            fail("Failure of step must be thrown");
+        } catch (IOException ex) {
+            assertEquals("Failed step", ex.getMessage());
+        }
+        assertTrue(stopped.get());
+    }
+}
@@ -21,15 +21,22 @@ import com.blazemeter.api.explorer.WorkspaceTest;
 import com.blazemeter.api.explorer.test.AbstractTest;
 import com.blazemeter.api.logging.LoggerTest;
 import com.blazemeter.api.logging.UserNotifierTest;
+import com.blazemeter.api.utils.BlazeMeterUtils;
 import com.blazemeter.api.utils.BlazeMeterUtilsEmul;
+import com.blazemeter.api.utils.StubServer;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.blazemeter.api.utils.BlazeMeterUtilsEmul.BZM_ADDRESS;
 import static com.blazemeter.api.utils.BlazeMeterUtilsEmul.BZM_DATA_ADDRESS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 
@@ -85,6 +92,52 @@ public class TestsListFlowTest {
         TestsListFlow flow = new TestsListFlow();
         flow.setUtils(emul);
         assertEquals(emul, flow.getUtils());
+        assertEquals(1, flow.getConcurrency());
+        flow.setConcurrency(4);
+        assertEquals(4, flow.getConcurrency());
+        assertNull(flow.getListener());
+        assertNull(flow.getCatalogCache());
+    }
+
+    @Test
+    public void testFlowConcurrent() throws Exception {
+        LoggerTest logger = new LoggerTest();
+        UserNotifierTest notifier = new UserNotifierTest();
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicInteger maxActive = new AtomicInteger();
+        try (StubServer server = new StubServer()) {
+            server.respond("/api/v4/accounts", 200, UserTest.generateResponseGetAccounts());
+            server.respond("/api/v4/workspaces", 200, AccountTest.generateResponseGetWorkspaces());
+            server.handle("/api/v4/", exchange -> {
+                maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                    boolean multi = exchange.getRequestURI().getPath().contains("multi-tests");
+                    StubServer.send(exchange, 200, multi ? WorkspaceTest.generateResponseGetMultiTests() : WorkspaceTest.generateResponseGetSingleTests());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    active.decrementAndGet();
+                }
+            });
+            BlazeMeterUtils utils = new BlazeMeterUtils(server.getAddress(), server.getAddress(), notifier, logger);
+
+            final List<String> workspaces = Collections.synchronizedList(new ArrayList<>());
+            TestsListFlow flow = new TestsListFlow(utils);
+            flow.setConcurrency(2);
+            flow.setListener((workspace, tests) -> {
+                assertEquals(4, tests.size());
+                workspaces.add(workspace.getId());
+            });
+
+            List<AbstractTest> usersTests = flow.getUsersTests();
+            assertEquals(16, usersTests.size());
+            assertEquals("999", usersTests.get(0).getId());
+            assertEquals(Arrays.asList("100", "100", "100", "100"), workspaces);
+            assertEquals(11, server.getRequestsCount());
+            assertTrue(String.valueOf(maxActive.get()), maxActive.get() <= 2);
+            assertFalse(logger.getLogs().toString().contains("Fail"));
+        }
     }
 
     @Test
@@ -0,0 +1,143 @@
+/**
+ * Copyright 2018 BlazeMeter Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.blazemeter.ciworkflow;
+
+import com.blazemeter.api.explorer.test.SingleTest;
+import com.blazemeter.api.logging.Logger;
+import com.blazemeter.api.logging.UserNotifier;
+import com.blazemeter.api.utils.BlazeMeterUtils;
+import com.blazemeter.api.utils.StubServer;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Uploads many small test files to local stub server one by one and in one zip bundle,
+ * and prints wall time and requests count of both modes.
+ * Stub server delays each response to emulate network round trip.
+ * <p>
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.blazemeter.ciworkflow.UploadBenchmark
+ * -Dbzm.benchmark.files=500 -Dbzm.benchmark.latency=20
+ */
+public class UploadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int filesCount = Integer.getInteger("bzm.benchmark.files", 500);
+        final long latency = Long.getLong("bzm.benchmark.latency", 20);
+
+        File dir = Files.createTempDirectory("bzm-upload").toFile();
+        try (StubServer server = new StubServer()) {
+            server.handle("/api/v4/tests/1/files", exchange -> {
+                IOUtils.toByteArray(exchange.getRequestBody());
+                try {
+                    Thread.sleep(latency);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                StubServer.send(exchange, 200, "{\"error\":null,\"result\":{}}");
+            });
+            List<File> files = createFiles(dir, filesCount);
+            run(server, files, false);
+            run(server, files, true);
+        } finally {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    private static void run(StubServer server, List<File> files, boolean bundle) throws Exception {
+        BlazeMeterUtils utils = new BlazeMeterUtils("key", "secret", server.getAddress(), server.getAddress(), NOTIFIER, LOGGER);
+        SingleTest test = new SingleTest(utils, "1", "benchmark", "taurus");
+        CiBuild ciBuild = new CiBuild(utils, "1", null, files, "", "", null);
+        ciBuild.setBundleUpload(bundle);
+
+        int requests = server.getRequestsCount();
+        long start = System.currentTimeMillis();
+        ciBuild.updateAdditionalTestFiles(test);
+        long time = System.currentTimeMillis() - start;
+
+        System.out.println(String.format("%s upload: files=%d, time=%d ms, requests=%d",
+                bundle ? "Bundle" : "Per-file", files.size(), time, server.getRequestsCount() - requests));
+        utils.getClientPool().shutdown();
+    }
+
+    private static List<File> createFiles(File dir, int count) throws IOException {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            File file = new File(dir, "data" + i + ".csv");
+            try (FileWriter writer = new FileWriter(file)) {
+                for (int line = 0; line < 20; line++) {
+                    writer.write("user" + line + ",password" + line + "," + i + "\n");
+                }
+            }
+            files.add(file);
+        }
+        return files;
+    }
+
+    private static final UserNotifier NOTIFIER = new UserNotifier() {
+        @Override
+        public void notifyInfo(String info) {
+        }
+
+        @Override
+        public void notifyWarning(String warn) {
+        }
+
+        @Override
+        public void notifyError(String error) {
+        }
+    };
+
+    private static final Logger LOGGER = new Logger() {
+        @Override
+        public void debug(String message) {
+        }
+
+        @Override
+        public void debug(String message, Throwable throwable) {
+        }
+
+        @Override
+        public void info(String message) {
+        }
+
+        @Override
+        public void info(String message, Throwable throwable) {
+        }
+
+        @Override
+        public void warn(String message) {
+        }
+
+        @Override
+        public void warn(String message, Throwable throwable) {
+        }
+
+        @Override
+        public void error(String message) {
+        }
+
+        @Override
+        public void error(String message, Throwable throwable) {
+        }
+    };
+}